@@ -0,0 +1,58 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import pers.yewin.springsecurityjwt.SpringSecurityJwtApplication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+final class BenchmarkApplication {
+
+    /**
+     * start our whole application against H2 in memory database instead of MySQL,
+     * so that benchmarks can run in any machine without database setup.
+     * tables are created by flyway (db/migration/h2) and super admin user and roles are created by CommandLineRunner of SpringSecurityJwtApplication as usual.
+     */
+
+    static final String SUPER_ADMIN_EMAIL = "superadmin@gmail.com";
+    static final String SUPER_ADMIN_PASSWORD = "superadmin";
+
+    private static final AtomicInteger DATABASE_COUNTER = new AtomicInteger();
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        // use new database name for every start, so that one trial data don't leak to other trial.
+        String databaseUrl = "jdbc:h2:mem:benchmark" + DATABASE_COUNTER.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1";
+
+        // command line arguments have higher priority than application.properties inside our application jar.
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--server.port=0",
+                "--spring.datasource.url=" + databaseUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--login-throttle.enabled=false", // all benchmark logins come from one ip and a few accounts
+                "--logging.level.root=WARN"));
+        args.addAll(Arrays.asList(extraArgs)); // eg. --threads.virtual.enabled=true
+        return new SpringApplicationBuilder(SpringSecurityJwtApplication.class).run(args.toArray(new String[0]));
+    }
+
+    // eg. http://localhost:54321/spring-security-jwt (random port and context path of application.properties)
+    static String baseUrl(ConfigurableApplicationContext context) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return "http://localhost:" + port + context.getEnvironment().getProperty("server.servlet.context-path", "");
+    }
+}
@@ -0,0 +1,33 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+public class BenchmarkMain {
+
+    /**
+     * same as org.openjdk.jmh.Main, but write results as JSON (jmh-result.json) by default,
+     * so that we can keep result file for every release and compare for regressions by script or https://jmh.morethan.io
+     * you can still give your own -rf and -rff options.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add("jmh-result.json");
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,296 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.context.ConfigurableApplicationContext;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.service.UserService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+public class EndToEndLoadTest {
+
+    /**
+     * end to end load test with latency SLO gates, it is run by load-test profile of benchmarks/pom.xml:
+     * mvn -f benchmarks/pom.xml verify -Pload-test (add -o to run offline after dependencies were downloaded one time)
+     *
+     * whole application is started against H2 in memory database (BenchmarkApplication), test users are created,
+     * and every client login through /login one time and then call a mix of
+     * /user/getUserByEmail, /user/getAllUser (walking pages by nextCursor) and /user/token/refresh (using new refresh token every time)
+     * as fast as it can (closed loop) for warm up period and measured period.
+     *
+     * throughput and p50, p99 and p999 latency of each api and all apis are printed and written to load-test-result.json,
+     * process exit with 1 (build fail) when one of api is slower than SLO or has more errors than allowed.
+     * all settings are system properties (see below), eg. -Dload.clients=200 -Dload.slo.p99-millis=100
+     */
+
+    private static final String GET_USER_BY_EMAIL = "getUserByEmail";
+    private static final String GET_ALL_USER = "getAllUser";
+    private static final String TOKEN_REFRESH = "tokenRefresh";
+    private static final String ALL = "all";
+
+    private static final String USER_PASSWORD = "password";
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = new Settings();
+        List<String> violations;
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start()) {
+            String baseUrl = BenchmarkApplication.baseUrl(context);
+            List<String> emails = createUsers(context.getBean(UserService.class), settings.users);
+
+            // every client has its own user and tokens, logins go through login bulkhead like real clients.
+            List<Client> clients = IntStream.range(0, settings.clients).parallel()
+                    .mapToObj(i -> new Client(baseUrl, emails.get(i % emails.size()), emails))
+                    .collect(Collectors.toList());
+
+            System.out.println("warm up " + settings.warmupSeconds + " seconds with " + settings.clients + " clients");
+            run(clients, settings, settings.warmupSeconds, new LinkedHashMap<>()); // jit, caches, connection pool
+
+            System.out.println("measure " + settings.seconds + " seconds with " + settings.clients + " clients");
+            Map<String, LoadClient.Result> results = newResults();
+            run(clients, settings, settings.seconds, results);
+
+            violations = report(results, settings);
+        }
+
+        if (!violations.isEmpty()) {
+            System.out.println();
+            System.out.println("SLO failed:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+        System.out.println();
+        System.out.println("SLO passed.");
+    }
+
+    // users with NORMAL_USER role, they can call all GET apis.
+    private static List<String> createUsers(UserService userService, int count) {
+        List<String> emails = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String email = "load-test-" + i + "@gmail.com";
+            userService.saveUser(new Users(null, "Load Test " + i, email, USER_PASSWORD, new ArrayList<>()));
+            userService.addRoleToUser(email, "NORMAL_USER");
+            emails.add(email);
+        }
+        return emails;
+    }
+
+    private static Map<String, LoadClient.Result> newResults() {
+        Map<String, LoadClient.Result> results = new LinkedHashMap<>();
+        results.put(GET_USER_BY_EMAIL, new LoadClient.Result());
+        results.put(GET_ALL_USER, new LoadClient.Result());
+        results.put(TOKEN_REFRESH, new LoadClient.Result());
+        results.put(ALL, new LoadClient.Result());
+        return results;
+    }
+
+    private static void run(List<Client> clients, Settings settings, int seconds, Map<String, LoadClient.Result> results) throws InterruptedException {
+        long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients.size());
+        for (int i = 0; i < clients.size(); i++) {
+            Client client = clients.get(i);
+            Thread thread = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < endNanos) {
+                        client.callOne(settings, results);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+    }
+
+    private static List<String> report(Map<String, LoadClient.Result> results, Settings settings) throws IOException {
+        List<String> violations = new ArrayList<>();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("clients", settings.clients);
+        json.put("seconds", settings.seconds);
+
+        System.out.println();
+        System.out.println(String.format("%-15s %9s %10s %9s %9s %9s %8s", "api", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors"));
+        for (Map.Entry<String, LoadClient.Result> entry : results.entrySet()) {
+            String api = entry.getKey();
+            LoadClient.Result result = entry.getValue();
+            double p50 = result.percentileMillis(0.50);
+            double p99 = result.percentileMillis(0.99);
+            double p999 = result.percentileMillis(0.999);
+            System.out.println(String.format("%-15s %9d %10.0f %9.1f %9.1f %9.1f %7.3f%%", api, result.count(), result.throughput(settings.seconds),
+                    p50, p99, p999, result.errorRate() * 100));
+
+            Map<String, Object> apiJson = new LinkedHashMap<>();
+            apiJson.put("requests", result.count());
+            apiJson.put("throughput", result.throughput(settings.seconds));
+            apiJson.put("p50Millis", p50);
+            apiJson.put("p99Millis", p99);
+            apiJson.put("p999Millis", p999);
+            apiJson.put("errorRate", result.errorRate());
+            json.put(api, apiJson);
+
+            // NaN (no request of this api) fail the comparison too.
+            check(violations, api, "p50", p50, settings.p50Millis);
+            check(violations, api, "p99", p99, settings.p99Millis);
+            check(violations, api, "p999", p999, settings.p999Millis);
+            if (!(result.errorRate() <= settings.maxErrorRate)) {
+                violations.add(String.format("%s error rate %.3f%% > %.3f%%", api, result.errorRate() * 100, settings.maxErrorRate * 100));
+            }
+        }
+        double throughput = results.get(ALL).throughput(settings.seconds);
+        if (throughput < settings.minThroughput) {
+            violations.add(String.format("throughput %.0f req/s < %.0f req/s", throughput, settings.minThroughput));
+        }
+
+        json.put("violations", violations);
+        File resultFile = new File(settings.resultFile);
+        LoadClient.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(resultFile, json);
+        System.out.println("result was written to " + resultFile.getAbsolutePath());
+        return violations;
+    }
+
+    private static void check(List<String> violations, String api, String name, double actualMillis, double sloMillis) {
+        if (!(actualMillis <= sloMillis)) {
+            violations.add(String.format("%s %s %.1f ms > %.1f ms", api, name, actualMillis, sloMillis));
+        }
+    }
+
+    /**
+     * one simulated frontend, it keep its own access token, refresh token and page cursor.
+     * only one thread use one client, so fields don't need synchronization.
+     */
+    private static final class Client {
+        private final String baseUrl;
+        private final String email;
+        private final List<String> emails;
+        private String accessToken;
+        private String refreshToken;
+        private String cursor;
+
+        Client(String baseUrl, String email, List<String> emails) {
+            this.baseUrl = baseUrl;
+            this.email = email;
+            this.emails = emails;
+            login();
+        }
+
+        private void login() {
+            try {
+                JsonNode tokens = LoadClient.loginForTokens(baseUrl, email, USER_PASSWORD);
+                accessToken = tokens.get("accessToken").asText();
+                refreshToken = tokens.get("refreshToken").asText();
+            } catch (IOException e) {
+                throw new UncheckedIOException("login failed for " + email, e);
+            }
+        }
+
+        void callOne(Settings settings, Map<String, LoadClient.Result> results) {
+            int pick = ThreadLocalRandom.current().nextInt(settings.getUserByEmailWeight + settings.getAllUserWeight + settings.tokenRefreshWeight);
+            String api;
+            boolean ok;
+            long start = System.nanoTime();
+            if (pick < settings.getUserByEmailWeight) {
+                api = GET_USER_BY_EMAIL;
+                String other = emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+                ok = LoadClient.get(url("/user/getUserByEmail?email=" + encode(other)), accessToken) != null;
+            } else if (pick < settings.getUserByEmailWeight + settings.getAllUserWeight) {
+                api = GET_ALL_USER;
+                String body = LoadClient.get(url("/user/getAllUser?size=20" + (cursor == null ? "" : "&cursor=" + encode(cursor))), accessToken);
+                ok = body != null;
+                if (ok) {
+                    JsonNode nextCursor = readTree(body).get("nextCursor");
+                    cursor = nextCursor == null || nextCursor.isNull() ? null : nextCursor.asText(); // start from first page again after last page
+                }
+            } else {
+                api = TOKEN_REFRESH;
+                String body = LoadClient.get(url("/user/token/refresh"), refreshToken);
+                ok = body != null;
+                if (ok) {
+                    // refresh token is rotated, old one can't be used again.
+                    JsonNode tokens = readTree(body);
+                    accessToken = tokens.get("accessToken").asText();
+                    refreshToken = tokens.get("refreshToken").asText();
+                }
+            }
+            long nanos = System.nanoTime() - start;
+
+            LoadClient.Result result = results.get(api);
+            if (result != null) { // warm up don't record
+                result.record(nanos, ok);
+                results.get(ALL).record(nanos, ok);
+            }
+            if (!ok && TOKEN_REFRESH.equals(api)) {
+                login(); // token family was revoked or lost, start again like real frontend.
+            }
+        }
+
+        private URL url(String path) {
+            try {
+                return new URL(baseUrl + path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static JsonNode readTree(String body) {
+            try {
+                return LoadClient.OBJECT_MAPPER.readTree(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String encode(String value) {
+            try {
+                return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * system properties, default values are for one developer machine, CI can give its own values in load-test profile.
+     */
+    private static final class Settings {
+        private final int clients = Integer.getInteger("load.clients", 100);
+        private final int users = Integer.getInteger("load.users", 50);
+        private final int warmupSeconds = Integer.getInteger("load.warmup-seconds", 10);
+        private final int seconds = Integer.getInteger("load.seconds", 30);
+
+        // request mix by weight, eg. 70% get user by email, 25% get all user and 5% token refresh.
+        private final int getUserByEmailWeight = Integer.getInteger("load.mix.get-user-by-email", 70);
+        private final int getAllUserWeight = Integer.getInteger("load.mix.get-all-user", 25);
+        private final int tokenRefreshWeight = Integer.getInteger("load.mix.token-refresh", 5);
+
+        private final double p50Millis = Double.parseDouble(System.getProperty("load.slo.p50-millis", "20"));
+        private final double p99Millis = Double.parseDouble(System.getProperty("load.slo.p99-millis", "250"));
+        private final double p999Millis = Double.parseDouble(System.getProperty("load.slo.p999-millis", "1000"));
+        private final double maxErrorRate = Double.parseDouble(System.getProperty("load.slo.max-error-rate", "0.001"));
+        private final double minThroughput = Double.parseDouble(System.getProperty("load.slo.min-throughput", "0"));
+
+        private final String resultFile = System.getProperty("load.result-file", "load-test-result.json");
+    }
+}
@@ -0,0 +1,85 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.servlet.Filter;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime) // sample time to see percentiles of whole round trip
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterChainBenchmark {
+
+    /**
+     * whole round trip through spring security filter chain (CustomAuthenticationFilter, CustomAuthorizationFilter) and UserController by MockMvc.
+     * login include BCrypt password check, authenticatedGet include token check and database query.
+     */
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String bearerToken;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        context = BenchmarkApplication.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+
+        JsonNode tokens = new ObjectMapper().readTree(login().getResponse().getContentAsByteArray());
+        bearerToken = "Bearer " + tokens.get("accessToken").asText();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult login() throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                .param("username", BenchmarkApplication.SUPER_ADMIN_EMAIL)
+                .param("password", BenchmarkApplication.SUPER_ADMIN_PASSWORD)).andReturn();
+        // login is running in login bulkhead thread, wait until that thread complete the async context.
+        while (result.getRequest().isAsyncStarted()) {
+            Thread.yield();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public MvcResult authenticatedGet() throws Exception {
+        MvcResult result = mockMvc.perform(get("/user/getUserByEmail")
+                .param("email", BenchmarkApplication.SUPER_ADMIN_EMAIL)
+                .header(AUTHORIZATION, bearerToken)).andReturn();
+        // controller return CompletableFuture from read bulkhead, so we need async dispatch to get response.
+        return mockMvc.perform(asyncDispatch(result)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult rejectedWithoutToken() throws Exception {
+        return mockMvc.perform(get("/user/getAllUser")).andReturn();
+    }
+}
@@ -0,0 +1,59 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    /**
+     * compare verify throughput between old way (create algorithm and verifier for every request like before)
+     * and shared verifier from JwtTokenService.
+     */
+
+    private JwtTokenService jwtTokenService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        jwtTokenService = new JwtTokenService(jwtProperties);
+        token = jwtTokenService.createAccessToken("superadmin@gmail.com",
+                Arrays.asList("SUPER_ADMIN", "ADMIN", "MANAGER", "NORMAL_USER"), "http://localhost:8080/spring-security-jwt/login");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DecodedJWT perRequestVerifier() {
+        Algorithm algorithm = Algorithm.HMAC256("MyAppSecurityPassword".getBytes());
+        JWTVerifier jwtVerifier = JWT.require(algorithm).build();
+        return jwtVerifier.verify(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DecodedJWT sharedVerifier() {
+        return jwtTokenService.verify(token);
+    }
+}
@@ -0,0 +1,188 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+final class LoadClient {
+
+    /**
+     * closed loop http load client for load tests (ThreadModeLoadTest, ServletVsReactiveLoadTest),
+     * every client thread keep one connection and send next request after response of previous request was read.
+     */
+
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    static {
+        // HttpURLConnection keep only 5 idle connections per server by default, other clients would open new connection for every request.
+        System.setProperty("http.maxConnections", "20000");
+    }
+
+    private LoadClient() {
+    }
+
+    /**
+     * call url with access token from given number of client threads for given seconds.
+     */
+    static Result run(URL url, String accessToken, int clients, int seconds) throws InterruptedException {
+        Result result = new Result();
+        long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            Thread client = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < endNanos) {
+                        long start = System.nanoTime();
+                        boolean ok = call(url, accessToken);
+                        result.record(System.nanoTime() - start, ok);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+        return result;
+    }
+
+    static boolean call(URL url, String accessToken) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection(); // keep alive connection is reused by same client thread
+            connection.setRequestProperty("Authorization", "Bearer " + accessToken);
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            int status = connection.getResponseCode();
+            try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                drain(inputStream);
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * GET with bearer token, return response body for 200 and null for other status or io error.
+     */
+    static String get(URL url, String bearerToken) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(30000);
+            int status = connection.getResponseCode();
+            if (status != 200) {
+                try (InputStream inputStream = connection.getErrorStream()) {
+                    drain(inputStream);
+                }
+                return null;
+            }
+            try (InputStream inputStream = connection.getInputStream()) {
+                return new String(readAll(inputStream), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // login api with form fields, return access token.
+    static String login(String baseUrl, String email, String password) throws IOException {
+        return loginForTokens(baseUrl, email, password).get("accessToken").asText();
+    }
+
+    // login api with form fields, return {"accessToken":"...","refreshToken":"..."}
+    static JsonNode loginForTokens(String baseUrl, String email, String password) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/login").openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(("username=" + email + "&password=" + password).getBytes(StandardCharsets.UTF_8));
+        }
+        try (InputStream inputStream = connection.getInputStream()) {
+            return OBJECT_MAPPER.readTree(inputStream);
+        }
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static void drain(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return;
+        }
+        byte[] buffer = new byte[4096];
+        while (inputStream.read(buffer) != -1) {
+            // read whole body, so that connection can be reused
+        }
+    }
+
+    /**
+     * latencies in 0.1 ms buckets up to 60 seconds, many client threads can record at the same time.
+     */
+    static final class Result {
+        private static final int BUCKETS = 600_000;
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean ok) {
+            histogram.incrementAndGet((int) Math.min(BUCKETS - 1, nanos / 100_000));
+            count.incrementAndGet();
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        double throughput(int seconds) {
+            return (double) count.get() / seconds;
+        }
+
+        double errorRate() {
+            return count.get() == 0 ? 1 : (double) errors.get() / count.get();
+        }
+
+        double percentileMillis(double percentile) {
+            long target = (long) Math.ceil(count.get() * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= target && target > 0) {
+                    return (i + 1) / 10.0;
+                }
+            }
+            return Double.NaN;
+        }
+    }
+}
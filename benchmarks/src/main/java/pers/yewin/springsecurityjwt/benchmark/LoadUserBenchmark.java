@@ -0,0 +1,59 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import pers.yewin.springsecurityjwt.service.UserDetailsCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadUserBenchmark {
+
+    /**
+     * loadUserByUsername method of UserServiceImpl class against H2 in memory database,
+     * that is the database part of every login before BCrypt password check (or cache lookup for repeat login).
+     */
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsService userDetailsService;
+    private UserDetailsCache userDetailsCache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApplication.start();
+        userDetailsService = context.getBean(UserDetailsService.class);
+        userDetailsCache = context.getBean(UserDetailsCache.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        // repeat login, served from UserDetailsCache
+        return userDetailsService.loadUserByUsername(BenchmarkApplication.SUPER_ADMIN_EMAIL);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsernameFromDatabase() {
+        // first login (or after cache entry was invalidated), go to database
+        userDetailsCache.invalidateAll();
+        return userDetailsService.loadUserByUsername(BenchmarkApplication.SUPER_ADMIN_EMAIL);
+    }
+}
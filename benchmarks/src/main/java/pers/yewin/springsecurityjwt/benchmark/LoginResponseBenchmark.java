@@ -0,0 +1,89 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginResponseBenchmark {
+
+    /**
+     * time to write login response body (access token and refresh token json),
+     * old way (new ObjectMapper and TokenResponse object for every login) and shared JsonResponseWriter.
+     */
+
+    private JsonResponseWriter jsonResponseWriter;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setup() throws IOException {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties);
+        String issuer = "http://localhost:8080/spring-security-jwt/login";
+        accessToken = jwtTokenService.createAccessToken(BenchmarkApplication.SUPER_ADMIN_EMAIL,
+                Arrays.asList("SUPER_ADMIN", "ADMIN", "MANAGER", "NORMAL_USER"), issuer);
+        refreshToken = jwtTokenService.createRefreshToken(BenchmarkApplication.SUPER_ADMIN_EMAIL, issuer);
+        jsonResponseWriter = new JsonResponseWriter(new ObjectMapper());
+    }
+
+    @Benchmark
+    public MockHttpServletResponse newObjectMapperPerResponse() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setContentType("application/json");
+        TokenResponse tokenObject = new TokenResponse();
+        tokenObject.setAccessToken(accessToken);
+        tokenObject.setRefreshToken(refreshToken);
+        new ObjectMapper().writeValue(response.getOutputStream(), tokenObject);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse sharedResponseWriter() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        jsonResponseWriter.writeTokens(response, accessToken, refreshToken);
+        return response;
+    }
+
+    // same as TokenResponse class which filters used before
+    public static class TokenResponse {
+        private String accessToken;
+        private String refreshToken;
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public void setAccessToken(String accessToken) {
+            this.accessToken = accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public void setRefreshToken(String refreshToken) {
+            this.refreshToken = refreshToken;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+public class ServletVsReactiveLoadTest {
+
+    /**
+     * load test (not JMH) which compare servlet application (project root) and reactive application (reactive module)
+     * at high concurrent connection counts, both applications should run on same machine type with same MySQL database.
+     * closed loop clients call /user/getUserByEmail with access token, access token is taken by login api of each application.
+     * for each level, throughput, p50, p99 and error rate are printed.
+     *
+     * start both applications first, eg.
+     * java -jar target/spring-security-jpa-jwt-0.0.1-SNAPSHOT.jar --server.tomcat.max-connections=20000 --server.tomcat.accept-count=10000
+     * java -jar reactive/target/spring-security-jpa-jwt-reactive-0.0.1-SNAPSHOT.jar
+     * and then run
+     * java -cp benchmarks/target/benchmarks.jar pers.yewin.springsecurityjwt.benchmark.ServletVsReactiveLoadTest \
+     *      http://localhost:8080/spring-security-jwt http://localhost:8081/spring-security-jwt [email] [password] [seconds per level]
+     *
+     * load client use one thread per connection, please run it on other machine for 4000 connections level
+     * (and raise open files limit, eg. ulimit -n 65536, on both machines).
+     */
+
+    private static final int[] CONCURRENCY_LEVELS = {200, 1000, 4000};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("usage: ServletVsReactiveLoadTest <servlet base url> <reactive base url> [email] [password] [seconds per level]");
+            return;
+        }
+        String email = args.length > 2 ? args[2] : BenchmarkApplication.SUPER_ADMIN_EMAIL;
+        String password = args.length > 3 ? args[3] : BenchmarkApplication.SUPER_ADMIN_PASSWORD;
+        int secondsPerLevel = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        List<String> report = new ArrayList<>();
+        report.addAll(run("servlet", args[0], email, password, secondsPerLevel));
+        report.addAll(run("reactive", args[1], email, password, secondsPerLevel));
+
+        System.out.println();
+        System.out.println(String.format("%-9s %7s %10s %9s %9s %8s", "stack", "clients", "req/s", "p50 ms", "p99 ms", "errors"));
+        report.forEach(System.out::println);
+    }
+
+    private static List<String> run(String stack, String baseUrl, String email, String password, int secondsPerLevel) throws Exception {
+        List<String> lines = new ArrayList<>();
+        String accessToken = LoadClient.login(baseUrl, email, password);
+        URL url = new URL(baseUrl + "/user/getUserByEmail?email=" + email);
+
+        LoadClient.run(url, accessToken, 50, 10); // warm up (jit, caches, connection pool)
+
+        for (int clients : CONCURRENCY_LEVELS) {
+            LoadClient.Result result = LoadClient.run(url, accessToken, clients, secondsPerLevel);
+            lines.add(String.format("%-9s %7d %10.0f %9.1f %9.1f %7.2f%%", stack, clients, result.throughput(secondsPerLevel),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.errorRate() * 100));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,62 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    /**
+     * sign (login, token refresh) and verify (every api call in this app or in other services) cost for each jwt.algorithm.
+     * RS256 and ES256 use generated key pair as key store is not given.
+     */
+
+    private static final String ISSUER = "http://localhost:8080/spring-security-jwt/login";
+    private static final List<String> ROLES = Arrays.asList("SUPER_ADMIN", "ADMIN", "MANAGER", "NORMAL_USER");
+
+    @Param({JwtTokenService.HS256, JwtTokenService.RS256, JwtTokenService.ES256})
+    private String algorithm;
+
+    private JwtTokenService jwtTokenService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        jwtProperties.setAlgorithm(algorithm);
+        if (!JwtTokenService.HS256.equals(algorithm)) {
+            jwtProperties.setActiveKeyId(algorithm.toLowerCase() + "-1");
+        }
+        jwtTokenService = new JwtTokenService(jwtProperties);
+        token = jwtTokenService.createAccessToken(BenchmarkApplication.SUPER_ADMIN_EMAIL, ROLES, ISSUER);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtTokenService.createAccessToken(BenchmarkApplication.SUPER_ADMIN_EMAIL, ROLES, ISSUER);
+    }
+
+    @Benchmark
+    public DecodedJWT verify() {
+        return jwtTokenService.verify(token);
+    }
+}
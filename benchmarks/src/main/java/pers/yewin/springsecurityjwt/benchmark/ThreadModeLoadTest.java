@@ -0,0 +1,83 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import pers.yewin.springsecurityjwt.config.VirtualThreads;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+public class ThreadModeLoadTest {
+
+    /**
+     * load test (not JMH) which compare platform thread mode and virtual thread mode (threads.virtual.enabled=true) of whole application.
+     * for each mode, application is started with H2 and same bulkhead settings, and closed loop clients (one connection per client)
+     * call /user/getUserByEmail with access token at increasing concurrent connections.
+     * for each level, throughput, p50, p99 and error rate are printed,
+     * capacity is the highest level which still has error rate below 1% and p99 below SLO.
+     *
+     * virtual thread mode need JDK 21 or newer, it is skipped on older JDK.
+     * run from project root directory after building benchmarks (see benchmarks/pom.xml):
+     * java -cp benchmarks/target/benchmarks.jar pers.yewin.springsecurityjwt.benchmark.ThreadModeLoadTest [seconds per level] [p99 slo millis]
+     */
+
+    private static final int[] CONCURRENCY_LEVELS = {50, 200, 800, 2000};
+
+    // same for both modes, queue is big enough so that bulkhead don't reject before thread model is the limit.
+    private static final String[] COMMON_ARGS = {
+            "--bulkhead.read.concurrency=200",
+            "--bulkhead.read.queue-depth=10000",
+            "--server.tomcat.accept-count=10000",
+            "--server.tomcat.max-connections=20000"};
+
+    public static void main(String[] args) throws Exception {
+        int secondsPerLevel = args.length > 0 ? Integer.parseInt(args[0]) : 15;
+        long sloMillis = args.length > 1 ? Long.parseLong(args[1]) : 500;
+
+        List<String> report = new ArrayList<>();
+        report.addAll(run("platform", false, secondsPerLevel, sloMillis));
+        if (VirtualThreads.isSupported()) {
+            report.addAll(run("virtual", true, secondsPerLevel, sloMillis));
+        } else {
+            report.add("virtual thread mode is skipped, java version is " + System.getProperty("java.version") + " (JDK 21 or newer is needed)");
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-9s %7s %10s %9s %9s %8s", "mode", "clients", "req/s", "p50 ms", "p99 ms", "errors"));
+        report.forEach(System.out::println);
+    }
+
+    private static List<String> run(String mode, boolean virtual, int secondsPerLevel, long sloMillis) throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<String> appArgs = new ArrayList<>(Arrays.asList(COMMON_ARGS));
+        appArgs.add("--threads.virtual.enabled=" + virtual);
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(appArgs.toArray(new String[0]))) {
+            String baseUrl = BenchmarkApplication.baseUrl(context);
+            String accessToken = LoadClient.login(baseUrl, BenchmarkApplication.SUPER_ADMIN_EMAIL, BenchmarkApplication.SUPER_ADMIN_PASSWORD);
+            URL url = new URL(baseUrl + "/user/getUserByEmail?email=" + BenchmarkApplication.SUPER_ADMIN_EMAIL);
+
+            LoadClient.run(url, accessToken, 50, 5); // warm up (jit, caches, connection pool)
+
+            int capacity = 0;
+            for (int clients : CONCURRENCY_LEVELS) {
+                LoadClient.Result result = LoadClient.run(url, accessToken, clients, secondsPerLevel);
+                lines.add(String.format("%-9s %7d %10.0f %9.1f %9.1f %7.2f%%", mode, clients, result.throughput(secondsPerLevel),
+                        result.percentileMillis(0.50), result.percentileMillis(0.99), result.errorRate() * 100));
+                if (result.errorRate() < 0.01 && result.percentileMillis(0.99) <= sloMillis) {
+                    capacity = clients;
+                }
+            }
+            lines.add(String.format("%-9s capacity (errors < 1%%, p99 <= %d ms): %d concurrent connections", mode, sloMillis, capacity));
+        }
+        return lines;
+    }
+}
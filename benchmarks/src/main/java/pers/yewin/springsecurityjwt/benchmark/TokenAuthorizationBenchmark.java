@@ -0,0 +1,70 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.security.VerifiedAuthentication;
+import pers.yewin.springsecurityjwt.security.VerifiedTokenCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenAuthorizationBenchmark {
+
+    /**
+     * token verification and authority building same as doFilterInternal method of CustomAuthorizationFilter class.
+     * fullVerify is the cost for first request of a token, cachedLookup is the cost for next requests with same token.
+     */
+
+    private JwtTokenService jwtTokenService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        jwtTokenService = new JwtTokenService(jwtProperties);
+        verifiedTokenCache = new VerifiedTokenCache(10_000);
+        token = jwtTokenService.createAccessToken(BenchmarkApplication.SUPER_ADMIN_EMAIL,
+                Arrays.asList("SUPER_ADMIN", "ADMIN", "MANAGER", "NORMAL_USER"), "http://localhost:8080/spring-security-jwt/login");
+
+        VerifiedAuthentication authentication = fullVerify();
+        DecodedJWT decodedJWT = jwtTokenService.verify(token);
+        verifiedTokenCache.put(token, decodedJWT, authentication);
+    }
+
+    @Benchmark
+    public VerifiedAuthentication fullVerify() {
+        DecodedJWT decodedJWT = jwtTokenService.verify(token);
+        String[] roles = decodedJWT.getClaim(JwtTokenService.ROLES_CLAIM).asArray(String.class);
+        Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles) {
+            authorities.add(new SimpleGrantedAuthority(role));
+        }
+        return new VerifiedAuthentication(decodedJWT.getSubject(), authorities);
+    }
+
+    @Benchmark
+    public VerifiedAuthentication cachedLookup() {
+        return verifiedTokenCache.get(token).getAuthentication();
+    }
+}
@@ -0,0 +1,65 @@
+package pers.yewin.springsecurityjwt.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import pers.yewin.springsecurityjwt.security.InMemoryRefreshTokenStore;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.security.RefreshTokenService;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.benchmark
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenMintBenchmark {
+
+    /**
+     * token minting same as successfulAuthentication method of CustomAuthenticationFilter class,
+     * (access token with roles claim, and refresh token with new refresh token family in RefreshTokenService for one login).
+     */
+
+    private static final String ISSUER = "http://localhost:8080/spring-security-jwt/login";
+
+    private InMemoryRefreshTokenStore refreshTokenStore;
+    private RefreshTokenService refreshTokenService;
+    private Collection<GrantedAuthority> authorities;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        refreshTokenStore = new InMemoryRefreshTokenStore();
+        refreshTokenService = new RefreshTokenService(new JwtTokenService(jwtProperties), refreshTokenStore);
+        authorities = Arrays.asList(new SimpleGrantedAuthority("SUPER_ADMIN"), new SimpleGrantedAuthority("ADMIN"),
+                new SimpleGrantedAuthority("MANAGER"), new SimpleGrantedAuthority("NORMAL_USER"));
+    }
+
+    // every login save one token family, remove them after every iteration, so that store don't grow during whole benchmark.
+    @TearDown(Level.Iteration)
+    public void purgeFamilies() {
+        refreshTokenStore.purgeExpired(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public void loginTokens(Blackhole blackhole) {
+        List<String> roles = authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+        blackhole.consume(refreshTokenService.login(BenchmarkApplication.SUPER_ADMIN_EMAIL, roles, ISSUER));
+    }
+}
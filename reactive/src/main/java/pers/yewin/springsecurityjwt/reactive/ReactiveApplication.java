@@ -0,0 +1,33 @@
+package pers.yewin.springsecurityjwt.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive
+ */
+
+@SpringBootApplication
+public class ReactiveApplication {
+
+    /**
+     * non blocking version of our application for api gateway deployment (netty event loop, WebFlux and R2DBC instead of tomcat, servlet filters and JPA).
+     * it use same tables and same tokens with servlet application, so user can login on one application and call api of other application.
+     * users and roles are still created by servlet application (create user, role apis and CommandLineRunner), this application serve login, token refresh and read apis.
+     */
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApplication.class, args);
+    }
+
+    @Bean
+    PasswordEncoder passwordEncoder(){
+        return new BCryptPasswordEncoder();
+    }
+}
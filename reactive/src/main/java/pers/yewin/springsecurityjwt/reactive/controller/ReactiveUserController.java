@@ -0,0 +1,157 @@
+package pers.yewin.springsecurityjwt.reactive.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import pers.yewin.springsecurityjwt.reactive.model.UserPage;
+import pers.yewin.springsecurityjwt.reactive.model.UserRoleRow;
+import pers.yewin.springsecurityjwt.reactive.model.UserView;
+import pers.yewin.springsecurityjwt.reactive.repository.ReactiveUsersRepository;
+import pers.yewin.springsecurityjwt.reactive.security.ReactiveJsonResponseWriter;
+import pers.yewin.springsecurityjwt.reactive.security.ReactiveJwtTokenService;
+import pers.yewin.springsecurityjwt.reactive.security.ReactiveRefreshTokenService;
+import pers.yewin.springsecurityjwt.reactive.security.ReactiveTokenRevocations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.controller
+ */
+
+@Slf4j // for logging
+@RestController
+@RequiredArgsConstructor // inject final usersRepository, jwtTokenService, refreshTokenService, tokenRevocations and jsonResponseWriter by creating constructor based dependency injection instead of using @Autowire
+@RequestMapping("/user")
+public class ReactiveUserController {
+
+    /**
+     * read apis and token refresh api of UserController in non blocking way, same paths, params and response bodies.
+     * apis return Mono, so no thread is waiting while R2DBC query is running (we don't need read bulkhead threads here).
+     * write apis (createUser, createRole, addRoleToUser, importUsers, token/revoke) stay in servlet application.
+     */
+
+    // same page size limit with UserServiceImpl.
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String BEARER = "Bearer ";
+
+    private final ReactiveUsersRepository usersRepository;
+    private final ReactiveJwtTokenService jwtTokenService;
+    private final ReactiveRefreshTokenService refreshTokenService;
+    private final ReactiveTokenRevocations tokenRevocations;
+    private final ReactiveJsonResponseWriter jsonResponseWriter;
+
+    // users are returned page by page, give nextCursor value of response as cursor param to get next page.
+    @GetMapping("/getAllUser")
+    public Mono<ResponseEntity<Object>> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                                    @RequestParam(value = "size", defaultValue = "20") int size){
+        log.info("get all users, cursor: {}, size: {}", cursor, size);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        Long lastId;
+        try {
+            lastId = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            /**
+             * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+             * but this is demo project so, I don't do that.
+             */
+            log.error("Invalid cursor: {}", cursor);
+            Map<String, String> errorMap = new HashMap<>();
+            errorMap.put("error", "Cursor is not valid");
+            return Mono.just(new ResponseEntity<Object>(errorMap, HttpStatus.BAD_REQUEST));
+        }
+
+        // take one more user to know there is next page or not.
+        return toUserViews(usersRepository.findUserRowsAfter(lastId, pageSize + 1))
+                .map(users -> {
+                    String nextCursor = null;
+                    if (users.size() > pageSize) {
+                        users = new ArrayList<>(users.subList(0, pageSize));
+                        nextCursor = encodeCursor(users.get(pageSize - 1).getId());
+                    }
+                    return ResponseEntity.<Object>ok(new UserPage(users, nextCursor));
+                });
+    }
+
+    @GetMapping("/getUserByEmail")
+    public Mono<ResponseEntity<UserView>> getUserByEmail(@RequestParam("email") String email){
+        log.info("get user view by email: {}", email);
+        return toUserViews(usersRepository.findUserRowsByEmail(email))
+                .map(users -> ResponseEntity.ok(users.isEmpty() ? null : users.get(0)));
+    }
+
+    /**
+     * re-generate access token by refresh token, same checks with tokenRefresh of UserController.
+     * refresh token is rotated in its token family by ReactiveRefreshTokenService, roles are loaded from database.
+     */
+    @GetMapping("/token/refresh")
+    public Mono<Void> tokenRefresh(ServerWebExchange exchange) {
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(AUTHORIZATION);
+        String issuer = exchange.getRequest().getURI().toString();
+        try {
+            if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER)) {
+                throw new RuntimeException("Token format is wrong");
+            }
+            DecodedJWT decodedJWT = jwtTokenService.verify(authorizationHeader.substring(BEARER.length()));
+            if (tokenRevocations.isRevoked(decodedJWT)) {
+                throw new RuntimeException("Token was revoked.");
+            }
+            // access token has roles (or role bits), we don't let user generate new tokens by access token.
+            if (!decodedJWT.getClaim(ReactiveJwtTokenService.ROLES_CLAIM).isNull() || !decodedJWT.getClaim(ReactiveJwtTokenService.ROLE_BITS_CLAIM).isNull()) {
+                throw new RuntimeException("Token is not valid.");
+            }
+
+            return refreshTokenService.refresh(decodedJWT, issuer, email -> usersRepository.findByEmail(email)
+                            .switchIfEmpty(Mono.error(() -> new RuntimeException("User is not found.")))
+                            .flatMap(users -> usersRepository.findRoleNamesByEmail(email).collectList()))
+                    .flatMap(tokens -> jsonResponseWriter.writeTokens(exchange.getResponse(), tokens.getAccessToken(), tokens.getRefreshToken()))
+                    .onErrorResume(e -> jsonResponseWriter.writeInvalidRefreshToken(exchange.getResponse(), e.getMessage()));
+        } catch (Exception e) {
+            return jsonResponseWriter.writeInvalidRefreshToken(exchange.getResponse(), e.getMessage());
+        }
+    }
+
+    // join query return one row per user and role, so we group rows by user id (rows are already ordered by user id).
+    private static Mono<List<UserView>> toUserViews(Flux<UserRoleRow> rows) {
+        return rows.collect(LinkedHashMap<Long, UserView>::new, (users, row) -> {
+            UserView user = users.computeIfAbsent(row.getId(),
+                    id -> new UserView(id, row.getName(), row.getEmail(), new ArrayList<>()));
+            if (row.getRoleName() != null) {
+                user.getRoles().add(row.getRoleName());
+            }
+        }).<List<UserView>>map(users -> new ArrayList<>(users.values()));
+    }
+
+    // cursor is opaque token for client, it is just base64 of last user id of the page (same with servlet application).
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L; // first page
+        }
+        return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+    }
+}
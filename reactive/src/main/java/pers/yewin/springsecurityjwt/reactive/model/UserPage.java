@@ -0,0 +1,23 @@
+package pers.yewin.springsecurityjwt.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.model
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPage {
+    private List<UserView> users;
+    // give this value as cursor param to get next page, it will be null for the last page (same cursor format with servlet application).
+    private String nextCursor;
+}
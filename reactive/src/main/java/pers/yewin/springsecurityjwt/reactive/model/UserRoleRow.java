@@ -0,0 +1,23 @@
+package pers.yewin.springsecurityjwt.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.model
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleRow {
+    // one row per user and role of join query, roleName is null for user without role.
+    private Long id;
+    private String name;
+    private String email;
+    private String roleName;
+}
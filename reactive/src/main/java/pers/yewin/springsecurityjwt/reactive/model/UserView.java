@@ -0,0 +1,26 @@
+package pers.yewin.springsecurityjwt.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.model
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserView {
+    // same json with UserView of servlet application, we don't return password hash to client.
+    private Long id;
+    private String name;
+    private String email;
+    private List<String> roles = new ArrayList<>();
+}
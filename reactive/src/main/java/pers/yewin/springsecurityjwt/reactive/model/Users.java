@@ -0,0 +1,28 @@
+package pers.yewin.springsecurityjwt.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.model
+ */
+
+@Table("users") // same table with Users entity of servlet application
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Users {
+
+    // R2DBC don't load relations (no @ManyToMany), role names are loaded by join query of ReactiveUsersRepository.
+    @Id
+    private Long id;
+    private String name;
+    private String email;
+    private String password;
+}
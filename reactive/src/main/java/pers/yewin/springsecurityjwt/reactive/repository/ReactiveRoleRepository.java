@@ -0,0 +1,17 @@
+package pers.yewin.springsecurityjwt.reactive.repository;
+
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.stereotype.Repository;
+import pers.yewin.springsecurityjwt.reactive.model.Role;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.repository
+ */
+
+@Repository
+public interface ReactiveRoleRepository extends ReactiveSortingRepository<Role, Long> {
+    // roles are read only in this application (ReactiveRoleRegistry), roles are created by servlet application.
+}
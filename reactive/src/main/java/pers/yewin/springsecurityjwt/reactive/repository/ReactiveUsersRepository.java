@@ -0,0 +1,51 @@
+package pers.yewin.springsecurityjwt.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import pers.yewin.springsecurityjwt.reactive.model.UserRoleRow;
+import pers.yewin.springsecurityjwt.reactive.model.Users;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.repository
+ */
+
+@Repository
+public interface ReactiveUsersRepository extends ReactiveCrudRepository<Users, Long> {
+
+    /**
+     * non blocking version of UsersRepository of servlet application, same queries on same tables.
+     * R2DBC don't have entity relations, so role names are taken by join queries (native sql) below.
+     */
+
+    Mono<Users> findByEmail(String email);
+
+    // role names of user for login (ReactiveUserDetailsServiceImpl) and token refresh.
+    @Query("select r.name from role r " +
+            "join users_role_list ur on ur.role_list_id = r.id " +
+            "join users u on u.id = ur.users_id " +
+            "where u.email = :email order by r.id")
+    Flux<String> findRoleNamesByEmail(@Param("email") String email);
+
+    // user and role names by one join query, for get user by email api.
+    @Query("select u.id as id, u.name as name, u.email as email, r.name as role_name " +
+            "from users u " +
+            "left join users_role_list ur on ur.users_id = u.id " +
+            "left join role r on r.id = ur.role_list_id " +
+            "where u.email = :email")
+    Flux<UserRoleRow> findUserRowsByEmail(@Param("email") String email);
+
+    // keyset pagination, same query with findUserRowsAfter of servlet UsersRepository (limit is applied to users, not to user and role rows).
+    @Query("select u.id as id, u.name as name, u.email as email, r.name as role_name " +
+            "from (select id, name, email from users where id > :lastId order by id limit :limit) u " +
+            "left join users_role_list ur on ur.users_id = u.id " +
+            "left join role r on r.id = ur.role_list_id " +
+            "order by u.id")
+    Flux<UserRoleRow> findUserRowsAfter(@Param("lastId") Long lastId, @Param("limit") int limit);
+}
@@ -0,0 +1,116 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@RequiredArgsConstructor // inject final jwtTokenService, verifiedTokenCache, roleRegistry, tokenRevocations and jsonResponseWriter by creating constructor based dependency injection instead of using @Autowire
+public class JwtAuthorizationWebFilter implements WebFilter {
+
+    /**
+     * reactive version of CustomAuthorizationFilter of servlet application, it check access token of every api request.
+     * Filter run in netty event loop thread, so it must not block, token verification is cpu work only
+     * and revocation check is in memory look up (ReactiveTokenRevocations).
+     *
+     * Authentication is not kept in thread local SecurityContextHolder (one request can move between threads),
+     * it is written into reactor context of the rest of filter chain by ReactiveSecurityContextHolder.withAuthentication,
+     * and spring security AuthorizationWebFilter read it from there to check roles of api.
+     */
+
+    private final ReactiveJwtTokenService jwtTokenService;
+    private final ReactiveVerifiedTokenCache verifiedTokenCache;
+    private final ReactiveRoleRegistry roleRegistry;
+    private final ReactiveTokenRevocations tokenRevocations;
+    private final ReactiveJsonResponseWriter jsonResponseWriter;
+
+    // include space behind Bearer as key will follow after space
+    private static final String BEARER = "Bearer ";
+
+    // login api and token refresh api don't need access token (same with servlet application).
+    private static final Set<String> BYPASS_PATHS = new HashSet<>(Arrays.asList("/login", "/user/token/refresh"));
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // path without base path (spring.webflux.base-path), eg. /user/getAllUser
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (BYPASS_PATHS.contains(path)) {
+            return chain.filter(exchange);
+        }
+
+        String authorizationHeader = exchange.getRequest().getHeaders().getFirst(AUTHORIZATION);
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER)) {
+            // no token or wrong format, spring security will return 403 for apis which need login.
+            return chain.filter(exchange);
+        }
+
+        String token = authorizationHeader.substring(BEARER.length());
+        Authentication authentication = verifiedTokenCache.get(token);
+        if (authentication == null) {
+            try {
+                DecodedJWT decodedJWT = jwtTokenService.verify(token);
+                if (tokenRevocations.isRevoked(decodedJWT)) {
+                    throw new RuntimeException("Token was revoked.");
+                }
+
+                Collection<GrantedAuthority> authorities = authoritiesOf(decodedJWT);
+                if (authorities == null || authorities.isEmpty()) {
+                    // refresh token or user without role, we don't let that token call apis.
+                    return chain.filter(exchange);
+                }
+
+                authentication = new UsernamePasswordAuthenticationToken(decodedJWT.getSubject(), null, authorities);
+                if (decodedJWT.getExpiresAt() != null) {
+                    verifiedTokenCache.put(token, decodedJWT.getExpiresAt().getTime(), authentication);
+                }
+            } catch (Exception e) {
+                log.error("error: {}", e.getMessage());
+                // eg. {"code: ":"403","message: ":"Your input token is something wrong","error: ":"The Token has expired on ..."}
+                return jsonResponseWriter.writeInvalidToken(exchange.getResponse(), e.getMessage());
+            }
+        }
+
+        return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+
+    // role bits (rb) claim or role names (roles) claim, same as CustomAuthorizationFilter.
+    private Collection<GrantedAuthority> authoritiesOf(DecodedJWT decodedJWT) {
+        Claim roleBits = decodedJWT.getClaim(ReactiveJwtTokenService.ROLE_BITS_CLAIM);
+        if (!roleBits.isNull()) {
+            return roleRegistry.authoritiesOf(roleBits.asLong());
+        }
+        String[] roles = decodedJWT.getClaim(ReactiveJwtTokenService.ROLES_CLAIM).asArray(String.class);
+        if (roles == null) {
+            return null;
+        }
+        Collection<GrantedAuthority> authorities = new ArrayList<>(roles.length);
+        for (String role : roles) {
+            authorities.add(roleRegistry.authorityOf(role));
+        }
+        return authorities;
+    }
+}
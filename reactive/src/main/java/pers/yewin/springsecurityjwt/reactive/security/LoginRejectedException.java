@@ -0,0 +1,18 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+public class LoginRejectedException extends AuthenticationServiceException {
+
+    // BCrypt scheduler threads and queue are full, login get 503 instead of waiting (see ReactiveSecurityConfig).
+    public LoginRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,101 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Component
+public class ReactiveJsonResponseWriter {
+
+    /**
+     * web filter, login handlers and token refresh api write json response directly into ServerHttpResponse,
+     * bodies are same with JsonResponseWriter of servlet application, so frontend don't need to know which application answered.
+     *
+     * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+     * but this is demo project so, I don't do that.
+     */
+
+    private final ObjectMapper objectMapper;
+
+    // {"error":"Server is busy, please try again later"}
+    private final byte[] serverBusyBody;
+
+    public ReactiveJsonResponseWriter(ObjectMapper objectMapper) throws JsonProcessingException {
+        this.objectMapper = objectMapper;
+        Map<String, String> serverBusy = new LinkedHashMap<>();
+        serverBusy.put("error", "Server is busy, please try again later");
+        this.serverBusyBody = objectMapper.writeValueAsBytes(serverBusy);
+    }
+
+    // {"accessToken":"...","refreshToken":"..."}
+    public Mono<Void> writeTokens(ServerHttpResponse response, String accessToken, String refreshToken) {
+        Map<String, String> tokens = new LinkedHashMap<>();
+        tokens.put("accessToken", accessToken);
+        tokens.put("refreshToken", refreshToken);
+        return write(response, HttpStatus.OK, tokens);
+    }
+
+    // 403 body of JwtAuthorizationWebFilter, eg. {"code: ":"403","message: ":"Your input token is something wrong","error: ":"The Token has expired on ..."}
+    public Mono<Void> writeInvalidToken(ServerHttpResponse response, String message) {
+        return write(response, FORBIDDEN, errorBody("Your input token is something wrong", message));
+    }
+
+    // 403 body of token refresh api
+    public Mono<Void> writeInvalidRefreshToken(ServerHttpResponse response, String message) {
+        return write(response, FORBIDDEN, errorBody("Your input refresh token is something wrong", message));
+    }
+
+    // {"error": message}
+    public Mono<Void> writeError(ServerHttpResponse response, HttpStatus status, String message) {
+        Map<String, String> errorMap = new LinkedHashMap<>();
+        errorMap.put("error", message);
+        return write(response, status, errorMap);
+    }
+
+    public Mono<Void> writeServerBusy(ServerHttpResponse response) {
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return write(response, SERVICE_UNAVAILABLE, serverBusyBody);
+    }
+
+    private static Map<String, String> errorBody(String message, String error) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("code: ", String.valueOf(FORBIDDEN.value()));
+        body.put("message: ", message);
+        body.put("error: ", error);
+        return body;
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatus status, Object body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        return write(response, status, bytes);
+    }
+
+    private static Mono<Void> write(ServerHttpResponse response, HttpStatus status, byte[] bytes) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+}
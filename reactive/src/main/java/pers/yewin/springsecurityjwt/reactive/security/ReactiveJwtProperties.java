@@ -0,0 +1,36 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt") // same jwt.* keys with JwtProperties of servlet application
+public class ReactiveJwtProperties {
+
+    /**
+     * key id (kid) which is used to sign new tokens, it is written into the token header.
+     */
+    private String activeKeyId = "default";
+
+    /**
+     * key ring, key is kid and value is secret, please give same keys with servlet application,
+     * so that tokens which were created by one application can be verified by other application.
+     * eg. jwt.keys.default=MyAppSecurityPassword
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    // maximum number of verified access tokens which are kept in memory (ReactiveVerifiedTokenCache)
+    private long verifiedCacheMaximumSize = 10000;
+}
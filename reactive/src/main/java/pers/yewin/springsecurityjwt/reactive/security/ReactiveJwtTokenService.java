@@ -0,0 +1,118 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Component
+public class ReactiveJwtTokenService {
+
+    /**
+     * create and verify JWT in same format with JwtTokenService of servlet application
+     * (kid header, sub, jti, iat, exp, iss and role bits "rb" or role names "roles" claim),
+     * so, token which was created by one application is accepted by other application.
+     *
+     * Only HS256 key ring is supported here, Algorithm and JWTVerifier are built one time per key and shared,
+     * signing and verifying are pure cpu work (no blocking), so they run in netty event loop threads.
+     */
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ROLE_BITS_CLAIM = "rb";
+    public static final String FAMILY_CLAIM = "fam"; // refresh token family id (see ReactiveRefreshTokenService)
+    public static final String DEFAULT_KEY_ID = "default";
+
+    // same expiry with servlet application, access token 3 minutes and refresh token 90 minutes.
+    private static final long ACCESS_TOKEN_EXPIRY_MILLIS = 3 * 60 * 1000;
+    static final long REFRESH_TOKEN_EXPIRY_MILLIS = 90 * 60 * 1000;
+
+    private final String activeKeyId;
+    private final Map<String, Algorithm> algorithms = new LinkedHashMap<>();
+    private final Map<String, JWTVerifier> verifiers = new LinkedHashMap<>();
+    private final ReactiveRoleRegistry roleRegistry;
+
+    public ReactiveJwtTokenService(ReactiveJwtProperties jwtProperties, ReactiveRoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+        Map<String, String> secrets = jwtProperties.getKeys();
+        if (secrets == null || secrets.isEmpty()) {
+            // same with servlet application, we don't sign tokens with a secret which everyone can read in source code.
+            throw new IllegalStateException("No jwt key is configured, please set jwt.keys.<key id> property.");
+        }
+        secrets.forEach((kid, secret) -> {
+            Algorithm algorithm = Algorithm.HMAC256(secret.getBytes(StandardCharsets.UTF_8));
+            algorithms.put(kid, algorithm);
+            verifiers.put(kid, JWT.require(algorithm).build());
+        });
+        if (!algorithms.containsKey(jwtProperties.getActiveKeyId())) {
+            throw new IllegalStateException("Active jwt key id is not found in key ring: " + jwtProperties.getActiveKeyId());
+        }
+        this.activeKeyId = jwtProperties.getActiveKeyId();
+    }
+
+    public String createAccessToken(String subject, List<String> roles, String issuer) {
+        JWTCreator.Builder builder = JWT.create()
+                .withKeyId(activeKeyId)
+                .withSubject(subject)
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRY_MILLIS))
+                .withIssuer(issuer);
+
+        long roleBits = roleRegistry.toBits(roles);
+        if (roleBits >= 0) {
+            builder.withClaim(ROLE_BITS_CLAIM, roleBits);
+        } else {
+            builder.withClaim(ROLES_CLAIM, roles);
+        }
+        return builder.sign(algorithms.get(activeKeyId));
+    }
+
+    /**
+     * refresh token of one refresh token family, family id and token id (jti) are kept by ReactiveRefreshTokenService.
+     */
+    public String createRefreshToken(String subject, String issuer, String familyId, String tokenId) {
+        return JWT.create()
+                .withKeyId(activeKeyId)
+                .withSubject(subject)
+                .withJWTId(tokenId)
+                .withClaim(FAMILY_CLAIM, familyId)
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRY_MILLIS))
+                .withIssuer(issuer)
+                .sign(algorithms.get(activeKeyId));
+    }
+
+    /**
+     * verify signature and expiry by verifier of kid header,
+     * it will throw JWTVerificationException (or sub class like TokenExpiredException) if token is wrong.
+     */
+    public DecodedJWT verify(String token) {
+        DecodedJWT decodedJWT = JWT.decode(token);
+        String keyId = decodedJWT.getKeyId();
+        JWTVerifier verifier = verifiers.get(keyId == null ? DEFAULT_KEY_ID : keyId);
+        if (verifier == null) {
+            // eg. RS256 token (jwt.algorithm=RS256 of servlet application), please verify that kind of token by jwks.
+            throw new JWTVerificationException("Unknown token key id: " + keyId);
+        }
+        return verifier.verify(decodedJWT);
+    }
+}
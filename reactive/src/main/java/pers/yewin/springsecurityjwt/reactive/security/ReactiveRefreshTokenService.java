@@ -0,0 +1,111 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.With;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Component
+@RequiredArgsConstructor // inject final jwtTokenService by creating constructor based dependency injection instead of using @Autowire
+public class ReactiveRefreshTokenService {
+
+    /**
+     * Refresh token rotation with same rules with RefreshTokenService of servlet application,
+     * every login start new refresh token family, every token refresh return new refresh token (old one can't be used anymore),
+     * and if old refresh token is used again (eg. hacker stole that token), whole family is revoked.
+     *
+     * Families of servlet application are kept in memory of that application, so this application keep its own families,
+     * refresh token must be refreshed by the application which created it (other application reject it, user need to login again).
+     * Roles are still loaded from database at every refresh, because roles are changed by servlet application and this application don't know that.
+     */
+
+    private final ReactiveJwtTokenService jwtTokenService;
+
+    // family id -> family, every rotation write family again, so family is removed when its latest refresh token was expired.
+    // revoked family is kept until then, so that reused tokens of that family are still rejected.
+    private final Cache<String, Family> families = Caffeine.newBuilder()
+            .expireAfterWrite(ReactiveJwtTokenService.REFRESH_TOKEN_EXPIRY_MILLIS, TimeUnit.MILLISECONDS)
+            .build();
+
+    // login was success, start new family.
+    public TokenPair login(String subject, List<String> roles, String issuer) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        families.put(familyId, new Family(subject, tokenId, false));
+        return new TokenPair(
+                jwtTokenService.createAccessToken(subject, roles, issuer),
+                jwtTokenService.createRefreshToken(subject, issuer, familyId, tokenId));
+    }
+
+    /**
+     * rotate verified refresh token, token without family or with unknown family (eg. created by servlet application, or before restart) is rejected.
+     * roleLoader load role names of user from database.
+     */
+    public Mono<TokenPair> refresh(DecodedJWT refreshToken, String issuer, Function<String, Mono<List<String>>> roleLoader) {
+        String subject = refreshToken.getSubject();
+        String familyId = refreshToken.getClaim(ReactiveJwtTokenService.FAMILY_CLAIM).asString();
+        Family family = familyId == null ? null : families.getIfPresent(familyId);
+
+        if (family == null) {
+            log.warn("refresh token without known family was rejected, subject: {}, family: {}", subject, familyId);
+            return Mono.error(new JWTVerificationException("Refresh token is not valid anymore, please login again."));
+        }
+        if (family.isRevoked()) {
+            return Mono.error(new JWTVerificationException("Refresh token was revoked, please login again."));
+        }
+
+        // computeIfPresent is atomic for one key, so only one of two requests with same refresh token can rotate.
+        String newTokenId = UUID.randomUUID().toString();
+        Family[] rotated = new Family[1];
+        families.asMap().computeIfPresent(familyId, (id, current) -> {
+            if (current.isRevoked() || !current.getTokenId().equals(refreshToken.getId())) {
+                return current;
+            }
+            rotated[0] = current.withTokenId(newTokenId);
+            return rotated[0];
+        });
+        if (rotated[0] == null) {
+            // this token was already rotated before, someone use old token again, so we don't trust any token of this family.
+            families.asMap().computeIfPresent(familyId, (id, current) -> current.withRevoked(true));
+            log.warn("refresh token was reused, token family was revoked, subject: {}, family: {}", subject, familyId);
+            return Mono.error(new JWTVerificationException("Refresh token was already used, please login again."));
+        }
+
+        return roleLoader.apply(subject).map(roles -> new TokenPair(
+                jwtTokenService.createAccessToken(subject, roles, issuer),
+                jwtTokenService.createRefreshToken(subject, issuer, familyId, newTokenId)));
+    }
+
+    @Value
+    @With
+    static class Family {
+        String subject;
+        String tokenId; // jti of latest refresh token of family
+        boolean revoked;
+    }
+
+    @Value
+    public static class TokenPair {
+        String accessToken;
+        String refreshToken;
+    }
+}
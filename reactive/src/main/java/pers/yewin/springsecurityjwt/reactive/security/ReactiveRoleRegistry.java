@@ -0,0 +1,152 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import pers.yewin.springsecurityjwt.reactive.model.Role;
+import pers.yewin.springsecurityjwt.reactive.repository.ReactiveRoleRepository;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Component
+@DependsOnDatabaseInitialization // load after schema.sql of tests (and other sql init scripts) were run
+public class ReactiveRoleRegistry {
+
+    /**
+     * same role bit scheme with RoleRegistry of servlet application (bit of role is its position in id order),
+     * so "rb" claim of token mean same roles in both applications.
+     *
+     * Difference is reload, request thread is netty event loop thread and it must not wait for database.
+     * So, unknown role (or role bit) start reload in background and current request use roles which we already know,
+     * next requests will see new roles after reload was finished.
+     */
+
+    public static final int MAX_ROLES = 63;
+
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 5000;
+
+    private final ReactiveRoleRepository roleRepository;
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    public ReactiveRoleRegistry(ReactiveRoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    // application start up is not running in event loop, so we can wait for first loading here.
+    @PostConstruct
+    public void init() {
+        load().block();
+    }
+
+    public Mono<Snapshot> load() {
+        return roleRepository.findAll(Sort.by("id"))
+                .collectList()
+                .map(Snapshot::new)
+                .doOnNext(loaded -> {
+                    snapshot = loaded;
+                    log.info("role registry was loaded, roles: {}", loaded.names);
+                });
+    }
+
+    // role can be created by servlet application, load again in background if last loading was not just now.
+    private void reloadInBackground() {
+        if (System.currentTimeMillis() - snapshot.loadedAtMillis >= MIN_RELOAD_INTERVAL_MILLIS && reloading.compareAndSet(false, true)) {
+            load().doFinally(signal -> reloading.set(false))
+                    .subscribe(loaded -> { }, e -> log.warn("role registry can't be loaded: {}", e.getMessage()));
+        }
+    }
+
+    /**
+     * role bits for role names, return -1 if one of role don't have bit (token will carry role names).
+     */
+    public long toBits(Collection<String> roleNames) {
+        Snapshot current = snapshot;
+        long bits = 0;
+        for (String roleName : roleNames) {
+            Integer bit = current.bitByName.get(roleName);
+            if (bit == null) {
+                reloadInBackground();
+                return -1;
+            }
+            bits |= 1L << bit;
+        }
+        return bits;
+    }
+
+    /**
+     * shared (immutable) authorities list for role bits, unknown bits are ignored until reload was finished.
+     */
+    public List<GrantedAuthority> authoritiesOf(long bits) {
+        Snapshot current = snapshot;
+        if ((bits & ~current.knownBits) != 0) {
+            reloadInBackground();
+        }
+        return current.authoritiesByBits.computeIfAbsent(bits & current.knownBits, current::buildAuthorities);
+    }
+
+    public GrantedAuthority authorityOf(String roleName) {
+        GrantedAuthority authority = snapshot.authorityByName.get(roleName);
+        return authority != null ? authority : new SimpleGrantedAuthority(roleName);
+    }
+
+    static final class Snapshot {
+        private final long loadedAtMillis = System.currentTimeMillis();
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> bitByName = new HashMap<>();
+        private final Map<String, GrantedAuthority> authorityByName = new HashMap<>();
+        private final GrantedAuthority[] authorityByBit;
+        private final long knownBits;
+        private final Map<Long, List<GrantedAuthority>> authoritiesByBits = new ConcurrentHashMap<>();
+
+        private Snapshot(List<Role> roles) {
+            int count = Math.min(roles.size(), MAX_ROLES);
+            authorityByBit = new GrantedAuthority[count];
+            long known = 0;
+            for (int i = 0; i < roles.size(); i++) {
+                String name = roles.get(i).getName();
+                GrantedAuthority authority = new SimpleGrantedAuthority(name);
+                names.add(name);
+                authorityByName.put(name, authority);
+                if (i < count) {
+                    bitByName.put(name, i);
+                    authorityByBit[i] = authority;
+                    known |= 1L << i;
+                }
+            }
+            knownBits = known;
+        }
+
+        private List<GrantedAuthority> buildAuthorities(long bits) {
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(bits));
+            for (int bit = 0; bit < authorityByBit.length; bit++) {
+                if ((bits & (1L << bit)) != 0) {
+                    authorities.add(authorityByBit[bit]);
+                }
+            }
+            return Collections.unmodifiableList(authorities);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerFormLoginAuthenticationConverter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor // inject final userDetailsService, passwordEncoder, jwtTokenService, refreshTokenService, verifiedTokenCache, roleRegistry, tokenRevocations and jsonResponseWriter by creating constructor based dependency injection instead of using @Autowire
+public class ReactiveSecurityConfig {
+
+    private final ReactiveUserDetailsServiceImpl userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final ReactiveJwtTokenService jwtTokenService;
+    private final ReactiveRefreshTokenService refreshTokenService;
+    private final ReactiveVerifiedTokenCache verifiedTokenCache;
+    private final ReactiveRoleRegistry roleRegistry;
+    private final ReactiveTokenRevocations tokenRevocations;
+    private final ReactiveJsonResponseWriter jsonResponseWriter;
+
+    /**
+     * BCrypt password check take many milliseconds of cpu, it must not run in netty event loop threads (only few threads for all connections).
+     * So, password check run in this bounded scheduler, same idea with login bulkhead of servlet application,
+     * when all threads are busy and queue is full, login get 503 at once instead of waiting.
+     */
+    @Bean(destroyMethod = "dispose")
+    Scheduler bcryptScheduler(@Value("${login.concurrency:4}") int concurrency, @Value("${login.queue-depth:100}") int queueDepth) {
+        return Schedulers.newBoundedElastic(concurrency, queueDepth, "bcrypt");
+    }
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, Scheduler bcryptScheduler) {
+
+        /**
+         * same api permissions with SecurityConfig of servlet application.
+         * You don't need to add base path (spring.webflux.base-path) in front of paths below.
+         */
+
+        http.csrf().disable();
+        http.httpBasic().disable();
+        http.formLogin().disable();
+        http.logout().disable();
+        // don't save security context (stateless), every request bring its own access token.
+        http.securityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        // request without token get 403 like servlet application (not 401 with basic auth challenge).
+        http.exceptionHandling().authenticationEntryPoint(new HttpStatusServerEntryPoint(FORBIDDEN));
+
+        http.authorizeExchange()
+                .pathMatchers("/login", "/user/token/refresh").permitAll()
+                .pathMatchers(GET, "/user/**").hasAnyAuthority("NORMAL_USER", "MANAGER", "ADMIN", "SUPER_ADMIN")
+                .anyExchange().authenticated();
+
+        // login by username (email) and password form fields, same request with login api of servlet application.
+        http.addFilterAt(loginWebFilter(bcryptScheduler), SecurityWebFiltersOrder.AUTHENTICATION);
+
+        // check access token of every api request.
+        http.addFilterAfter(new JwtAuthorizationWebFilter(jwtTokenService, verifiedTokenCache, roleRegistry, tokenRevocations, jsonResponseWriter),
+                SecurityWebFiltersOrder.AUTHENTICATION);
+
+        return http.build();
+    }
+
+    private AuthenticationWebFilter loginWebFilter(Scheduler bcryptScheduler) {
+        UserDetailsRepositoryReactiveAuthenticationManager delegate = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        delegate.setPasswordEncoder(passwordEncoder);
+        delegate.setScheduler(bcryptScheduler); // password check run in bcrypt scheduler, not in event loop
+
+        // scheduler reject the task when its queue is full, turn that into authentication exception so failure handler can answer 503.
+        ReactiveAuthenticationManager authenticationManager = authentication -> delegate.authenticate(authentication)
+                .onErrorMap(RejectedExecutionException.class, e -> new LoginRejectedException("Login is busy", e));
+
+        AuthenticationWebFilter loginFilter = new AuthenticationWebFilter(authenticationManager);
+        loginFilter.setRequiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(POST, "/login"));
+        loginFilter.setServerAuthenticationConverter(new ServerFormLoginAuthenticationConverter());
+        loginFilter.setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+
+        loginFilter.setAuthenticationSuccessHandler((webFilterExchange, authentication) -> {
+            // same as successfulAuthentication of CustomAuthenticationFilter, return access token and refresh token (of new token family) in body.
+            String issuer = webFilterExchange.getExchange().getRequest().getURI().toString();
+            List<String> roles = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+            ReactiveRefreshTokenService.TokenPair tokens = refreshTokenService.login(authentication.getName(), roles, issuer);
+            return jsonResponseWriter.writeTokens(webFilterExchange.getExchange().getResponse(), tokens.getAccessToken(), tokens.getRefreshToken());
+        });
+
+        loginFilter.setAuthenticationFailureHandler((webFilterExchange, exception) -> {
+            if (exception instanceof LoginRejectedException) {
+                log.warn("login was rejected, bcrypt scheduler is full.");
+                return jsonResponseWriter.writeServerBusy(webFilterExchange.getExchange().getResponse());
+            }
+            log.error("login failed: {}", exception.getMessage());
+            return jsonResponseWriter.writeError(webFilterExchange.getExchange().getResponse(), UNAUTHORIZED, exception.getMessage());
+        });
+        return loginFilter;
+    }
+}
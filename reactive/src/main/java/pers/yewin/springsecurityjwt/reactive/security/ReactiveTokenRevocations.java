@@ -0,0 +1,115 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Component
+@DependsOnDatabaseInitialization // load after schema.sql of tests (and other sql init scripts) were run
+public class ReactiveTokenRevocations {
+
+    /**
+     * tokens are revoked by /user/token/revoke api of servlet application (TokenRevocationService), rows are in revoked_token table.
+     * This application only read that table, active revocations are loaded into memory in every reload interval,
+     * so revocation check of every request is one hash map look up (no database call in event loop).
+     * Revocation can take up to one reload interval to reach this application.
+     */
+
+    private static final String TOKEN_ID_PREFIX = "jti:";
+    private static final String SUBJECT_PREFIX = "sub:";
+
+    private final DatabaseClient databaseClient;
+    private final ReactiveVerifiedTokenCache verifiedTokenCache;
+    private final long reloadIntervalMillis;
+
+    // token key -> issuedBefore (null for one token revocation), whole map is replaced at once by reload.
+    private volatile Map<String, Long> revocations = Collections.emptyMap();
+
+    private Disposable reloading;
+
+    public ReactiveTokenRevocations(DatabaseClient databaseClient,
+                                    ReactiveVerifiedTokenCache verifiedTokenCache,
+                                    @Value("${token-revocation.reload-interval-millis:30000}") long reloadIntervalMillis) {
+        this.databaseClient = databaseClient;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        load().block(); // first loading before application accept requests
+        reloading = Flux.interval(Duration.ofMillis(reloadIntervalMillis))
+                .concatMap(tick -> load().onErrorResume(e -> {
+                    log.warn("token revocations can't be loaded: {}", e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloading != null) {
+            reloading.dispose();
+        }
+    }
+
+    public Mono<Map<String, Long>> load() {
+        return databaseClient.sql("select token_key, issued_before from revoked_token where expires_at > :now")
+                .bind("now", System.currentTimeMillis())
+                .map((row, metadata) -> new Object[]{row.get("token_key", String.class), row.get("issued_before", Long.class)})
+                .all()
+                .collect(HashMap<String, Long>::new, (map, row) -> map.put((String) row[0], (Long) row[1]))
+                .map(Collections::unmodifiableMap)
+                .doOnNext(loaded -> {
+                    if (!loaded.equals(revocations)) {
+                        revocations = loaded;
+                        // revoked token may be already verified and kept in cache.
+                        verifiedTokenCache.invalidateAll();
+                        log.info("token revocations were loaded: {}", loaded.size());
+                    }
+                });
+    }
+
+    // same rules with isRevoked of servlet TokenRevocationService.
+    public boolean isRevoked(DecodedJWT decodedJWT) {
+        Map<String, Long> current = revocations;
+        if (current.isEmpty()) {
+            return false;
+        }
+        String tokenId = decodedJWT.getId();
+        if (tokenId != null && current.containsKey(TOKEN_ID_PREFIX + tokenId)) {
+            return true;
+        }
+        String subject = decodedJWT.getSubject();
+        if (subject != null) {
+            Long issuedBefore = current.get(SUBJECT_PREFIX + subject);
+            if (issuedBefore != null) {
+                Date issuedAt = decodedJWT.getIssuedAt();
+                return issuedAt == null || issuedAt.getTime() <= issuedBefore;
+            }
+        }
+        return false;
+    }
+}
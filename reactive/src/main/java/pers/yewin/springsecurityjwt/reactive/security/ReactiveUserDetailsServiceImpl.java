@@ -0,0 +1,55 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import pers.yewin.springsecurityjwt.reactive.repository.ReactiveUsersRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Slf4j // for logging
+@Service
+@RequiredArgsConstructor // inject final usersRepository and roleRegistry by creating constructor based dependency injection instead of using @Autowire
+public class ReactiveUserDetailsServiceImpl implements ReactiveUserDetailsService {
+
+    private final ReactiveUsersRepository usersRepository;
+    private final ReactiveRoleRegistry roleRegistry;
+
+    /**
+     * reactive version of loadUserByUsername of UserServiceImpl, email is used as username.
+     * user row and role names are read by R2DBC (no thread is waiting for database),
+     * empty Mono mean user is not found and authentication manager will return bad credentials.
+     */
+    @Override
+    public Mono<UserDetails> findByUsername(String email) {
+        return usersRepository.findByEmail(email)
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.error("User not found in the database");
+                    return Mono.empty();
+                }))
+                .flatMap(users -> usersRepository.findRoleNamesByEmail(email)
+                        .collectList()
+                        .map(roleNames -> toUserDetails(users.getEmail(), users.getPassword(), roleNames)));
+    }
+
+    private UserDetails toUserDetails(String email, String password, List<String> roleNames) {
+        if (roleNames.isEmpty()) {
+            log.warn("role not found.");
+        }
+        List<GrantedAuthority> authorities = roleNames.stream().map(roleRegistry::authorityOf).collect(Collectors.toList());
+        return new User(email, password, authorities);
+    }
+}
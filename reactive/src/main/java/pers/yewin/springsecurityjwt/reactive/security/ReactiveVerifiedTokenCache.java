@@ -0,0 +1,71 @@
+package pers.yewin.springsecurityjwt.reactive.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.security
+ */
+
+@Component
+public class ReactiveVerifiedTokenCache {
+
+    /**
+     * authentication which was built from verified access token, kept until token expiry time,
+     * so JwtAuthorizationWebFilter don't verify signature and parse claims again for same token.
+     * Caffeine is non blocking for reads, so it can be used from event loop threads.
+     */
+
+    private final Cache<String, Entry> cache;
+
+    public ReactiveVerifiedTokenCache(ReactiveJwtProperties jwtProperties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedCacheMaximumSize())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry value, long currentTime) {
+                        // remove entry when token was expired
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiresAtMillis() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public Authentication get(String token) {
+        Entry entry = cache.getIfPresent(token);
+        return entry == null ? null : entry.getAuthentication();
+    }
+
+    public void put(String token, long expiresAtMillis, Authentication authentication) {
+        cache.put(token, new Entry(authentication, expiresAtMillis));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Value
+    static class Entry {
+        Authentication authentication;
+        long expiresAtMillis;
+    }
+}
@@ -0,0 +1,158 @@
+package pers.yewin.springsecurityjwt.reactive.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.reactive.controller
+ */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test") // use H2 in memory database from application-test.properties
+class ReactiveUserControllerTest {
+
+    /**
+     * login, token check and read apis of reactive application from client side (same requests with servlet application).
+     */
+
+    private static final String EMAIL = "reactive@gmail.com";
+    private static final String PASSWORD = "password";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private DatabaseClient databaseClient;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + port + "/spring-security-jwt").build();
+
+        // users are created by servlet application, so test insert rows directly.
+        databaseClient.sql("merge into users (id, name, email, password) key (id) values (1, 'Reactive', :email, :password)")
+                .bind("email", EMAIL)
+                .bind("password", passwordEncoder.encode(PASSWORD))
+                .then().block();
+        databaseClient.sql("merge into users_role_list (users_id, role_list_id) key (users_id, role_list_id) values (1, 4)")
+                .then().block();
+    }
+
+    @Test
+    void loginAndCallApiWithAccessToken() {
+        Map<String, String> tokens = login();
+        assertNotNull(tokens.get("refreshToken"));
+
+        webTestClient.get().uri("/user/getUserByEmail?email={email}", EMAIL)
+                .header(AUTHORIZATION, "Bearer " + tokens.get("accessToken"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.email").isEqualTo(EMAIL)
+                .jsonPath("$.roles[0]").isEqualTo("NORMAL_USER")
+                .jsonPath("$.password").doesNotExist();
+
+        webTestClient.get().uri("/user/getAllUser?size=1")
+                .header(AUTHORIZATION, "Bearer " + tokens.get("accessToken"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.users.length()").isEqualTo(1);
+    }
+
+    @Test
+    void wrongPasswordIsRejected() {
+        webTestClient.post().uri("/login")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("username", EMAIL).with("password", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void apiWithoutOrWithWrongTokenIsForbidden() {
+        webTestClient.get().uri("/user/getAllUser")
+                .exchange()
+                .expectStatus().isForbidden();
+
+        webTestClient.get().uri("/user/getAllUser")
+                .header(AUTHORIZATION, "Bearer wrong.token.value")
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("$['message: ']").isEqualTo("Your input token is something wrong");
+    }
+
+    @Test
+    void refreshTokenCreateNewAccessToken() {
+        Map<String, String> tokens = login();
+
+        webTestClient.get().uri("/user/token/refresh")
+                .header(AUTHORIZATION, "Bearer " + tokens.get("refreshToken"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accessToken").isNotEmpty();
+
+        // access token can't create new tokens
+        webTestClient.get().uri("/user/token/refresh")
+                .header(AUTHORIZATION, "Bearer " + tokens.get("accessToken"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reusedRefreshTokenRevokesItsFamily() {
+        Map<String, String> tokens = login();
+
+        Map<String, String> rotated = webTestClient.get().uri("/user/token/refresh")
+                .header(AUTHORIZATION, "Bearer " + tokens.get("refreshToken"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult().getResponseBody();
+        assertNotEquals(tokens.get("refreshToken"), rotated.get("refreshToken"));
+
+        // old refresh token is used again, so new refresh token of same family is not trusted anymore.
+        webTestClient.get().uri("/user/token/refresh")
+                .header(AUTHORIZATION, "Bearer " + tokens.get("refreshToken"))
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.get().uri("/user/token/refresh")
+                .header(AUTHORIZATION, "Bearer " + rotated.get("refreshToken"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> login() {
+        return webTestClient.post().uri("/login")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body(BodyInserters.fromFormData("username", EMAIL).with("password", PASSWORD))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class)
+                .returnResult().getResponseBody();
+    }
+}
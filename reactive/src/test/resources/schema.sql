@@ -0,0 +1,32 @@
+-- same tables with db/migration/h2 scripts of servlet application (tables which this application use).
+
+create table if not exists role (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists users (
+    id bigint not null,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    version bigint not null default 0,
+    primary key (id)
+);
+
+create table if not exists users_role_list (
+    users_id bigint not null,
+    role_list_id bigint not null,
+    primary key (users_id, role_list_id)
+);
+
+create table if not exists revoked_token (
+    token_key varchar(255) not null,
+    issued_before bigint,
+    expires_at bigint not null,
+    revoked_at bigint not null default 0,
+    primary key (token_key)
+);
+
+insert into role (id, name) values (1, 'SUPER_ADMIN'), (2, 'ADMIN'), (3, 'MANAGER'), (4, 'NORMAL_USER');
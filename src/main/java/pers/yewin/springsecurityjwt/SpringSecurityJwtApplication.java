@@ -1,9 +1,12 @@
 package pers.yewin.springsecurityjwt;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import pers.yewin.springsecurityjwt.model.entity.Role;
@@ -19,7 +22,9 @@ import java.util.ArrayList;
  * @package: pers.yewin.springsecurityjwt
  */
 
+@Slf4j // for logging
 @SpringBootApplication
+@EnableScheduling // expired refresh token families are purged by scheduler (InMemoryRefreshTokenStore)
 public class SpringSecurityJwtApplication {
 
     public static void main(String[] args) {
@@ -40,11 +45,30 @@ public class SpringSecurityJwtApplication {
     // But if you add more roles, you need to add in Security Config class for permission (access) api.
     // You call add role to new user by calling add role to user api by postman.
     // In reality, adding user, role, role to user data will come from api from Frontend.
-    // please comment out below code after running one time
 
+    // with startup.seed-async=true (fast-start profile), below code run in background thread,
+    // so that CommandLineRunner (BCrypt of super admin password and many inserts) is not in the startup time of every new instance.
+    // login of super admin can get 401 for a few milliseconds after application was started in that mode.
     @Bean
-    CommandLineRunner runner(UserService userService){
+    CommandLineRunner runner(UserService userService, @Value("${startup.seed-async:false}") boolean seedAsync){
         return args -> {
+            if (!seedAsync) {
+                createDefaultData(userService);
+                return;
+            }
+            Thread thread = new Thread(() -> createDefaultData(userService), "startup-seed");
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+
+    private static void createDefaultData(UserService userService) {
+          // roles and super admin are already there (restart of application, or other instance already created them),
+          // skip them, so that we don't waste startup time with BCrypt and duplicate inserts (and error logs).
+          if (userService.getByEmail("superadmin@gmail.com") != null) {
+              log.info("default roles and super admin are already created.");
+              return;
+          }
 
           // creating some roles. You can add more if you want, or you can add by calling create role api later by postman.
           userService.saveRole(new Role(null, "SUPER_ADMIN"));
@@ -62,8 +86,8 @@ public class SpringSecurityJwtApplication {
           userService.addRoleToUser("superadmin@gmail.com", "NORMAL_USER");
 
             /**
-             * after running one time in your machine, you can comment out above code (adding role and user and role to user),
-             * if not so, some error log you may see in console as it's duplicate adding role and user, so, please comment out after running one time.
+             * after running one time in your machine, above code is skipped as super admin is already in database (see check at the top),
+             * you can still comment out above code if you don't want any default data.
              * But if you deleted database, you need to un-comment above code to create first user by system and create roles.
              * Because if you want to do creating user or others, at least, you need one user to login and which user have access permission to create user, so it should have super admin role.
              * You can play (change, adding new) role name as you want.
@@ -100,8 +124,6 @@ public class SpringSecurityJwtApplication {
 
           userService.addRoleToUser("mryewin@gmail.com", "SUPER_ADMIN");
           */
-
-        };
     }
 
 }
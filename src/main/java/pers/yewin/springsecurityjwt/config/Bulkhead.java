@@ -0,0 +1,92 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Slf4j // for logging
+public class Bulkhead {
+
+    /**
+     * One bounded thread pool for one kind of work (eg. login, admin write, read).
+     * Each pool has fixed number of threads (concurrency) and fixed queue size (queue depth),
+     * so, heavy work like BCrypt login can use only its own threads and can't take all threads from other apis.
+     * If threads are busy and queue is full, we don't wait and we reject the request at once with 503 (Service Unavailable).
+     */
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+
+    public Bulkhead(String name, BulkheadProperties.Pool pool) {
+        this(name, pool, new CustomizableThreadFactory(name + "-"));
+    }
+
+    // threadFactory can create virtual threads (see VirtualThreads), concurrency and queue depth are still bounded by this bulkhead.
+    public Bulkhead(String name, BulkheadProperties.Pool pool, ThreadFactory threadFactory) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(pool.getConcurrency(), pool.getConcurrency(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(pool.getQueueDepth()),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy()); // throw RejectedExecutionException when queue is full
+    }
+
+    /**
+     * run the task in this bulkhead, it will throw RejectedExecutionException if queue is full.
+     */
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * run the task in this bulkhead for controller,
+     * spring mvc will release servlet thread and write response when CompletableFuture was completed (async servlet processing).
+     */
+    public CompletableFuture<ResponseEntity> submit(Supplier<ResponseEntity> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("bulkhead {} is full, request was rejected.", name);
+            return CompletableFuture.completedFuture(serviceUnavailable());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public static ResponseEntity serviceUnavailable() {
+        /**
+         * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+         * but this is demo project so, I don't do that.
+         */
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Collections.singletonMap("error", "Server is busy, please try again later"));
+    }
+}
@@ -0,0 +1,46 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "bulkhead") // bind all bulkhead.* keys from application.properties into this class.
+public class BulkheadProperties {
+
+    /**
+     * how long request can wait (in queue and processing) before servlet container return timeout error.
+     */
+    private long asyncTimeoutMillis = 30_000;
+
+    // login api (BCrypt password check is heavy CPU work), so we keep concurrency near to CPU cores.
+    private Pool login = new Pool(Runtime.getRuntime().availableProcessors(), 100);
+
+    // admin write apis (/user/createUser, /user/role/**), createUser api do BCrypt encoding too.
+    private Pool adminWrite = new Pool(4, 50);
+
+    // all other apis (reads like /user/getAllUser, /user/getUserByEmail, etc.)
+    private Pool read = new Pool(50, 500);
+
+    @Data
+    public static class Pool {
+        private int concurrency;
+        private int queueDepth;
+
+        public Pool() {
+        }
+
+        public Pool(int concurrency, int queueDepth) {
+            this.concurrency = concurrency;
+            this.queueDepth = queueDepth;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Getter
+@Component
+public class Bulkheads {
+
+    /**
+     * login -> /login api (BCrypt password check in CustomAuthenticationFilter)
+     * adminWrite -> /user/createUser and /user/role/** apis
+     * read -> other user apis like /user/getAllUser and /user/getUserByEmail
+     * you can change concurrency and queue depth of each bulkhead in application.properties (eg. bulkhead.login.concurrency).
+     * with threads.virtual.enabled=true (JDK 21+), admin write and read bulkheads run their tasks in virtual threads.
+     */
+
+    private final Bulkhead login;
+    private final Bulkhead adminWrite;
+    private final Bulkhead read;
+
+    public Bulkheads(BulkheadProperties bulkheadProperties, @Value("${threads.virtual.enabled:false}") boolean virtualThreads) {
+        // login is BCrypt (CPU) work, virtual thread don't help for that, so login always use platform threads.
+        this.login = new Bulkhead("bulkhead-login", bulkheadProperties.getLogin());
+        if (virtualThreads) {
+            // admin write and read apis are waiting for database (JDBC) most of the time, virtual thread release its carrier thread while waiting.
+            // concurrency can be increased in application.properties as threads are cheap, but it should not be much bigger than database connection pool.
+            this.adminWrite = new Bulkhead("bulkhead-admin-write", bulkheadProperties.getAdminWrite(), VirtualThreads.threadFactory("bulkhead-admin-write-"));
+            this.read = new Bulkhead("bulkhead-read", bulkheadProperties.getRead(), VirtualThreads.threadFactory("bulkhead-read-"));
+        } else {
+            this.adminWrite = new Bulkhead("bulkhead-admin-write", bulkheadProperties.getAdminWrite());
+            this.read = new Bulkhead("bulkhead-read", bulkheadProperties.getRead());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        login.shutdown();
+        adminWrite.shutdown();
+        read.shutdown();
+    }
+}
@@ -0,0 +1,55 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "login-throttle") // bind all login-throttle.* keys from application.properties into this class.
+public class LoginThrottleProperties {
+
+    /**
+     * settings of LoginThrottle, token buckets for /login by client ip and by username (email).
+     */
+
+    private boolean enabled = true;
+
+    // one client ip (or proxy of many users, eg. office network), so it get bigger limit than one account.
+    private Limit ip = new Limit(20, 60);
+
+    // one account, real user don't type wrong password more than a few times in a minute.
+    private Limit username = new Limit(5, 10);
+
+    // number of concurrent maps for each key type, key is put into one of them by hash.
+    private int stripes = 16;
+
+    // memory limit for each stripe, new keys share one overflow bucket of that stripe when stripe is still full after idle buckets were removed.
+    private int maxKeysPerStripe = 10_000;
+
+    // idle (already full again) buckets are removed in every sweep interval.
+    private long sweepIntervalMillis = 60_000;
+
+    @Data
+    public static class Limit {
+        // attempts which can be done at once (bucket size).
+        private int burst;
+        // attempts which are added back to bucket in one minute.
+        private int perMinute;
+
+        public Limit() {
+        }
+
+        public Limit(int burst, int perMinute) {
+            this.burst = burst;
+            this.perMinute = perMinute;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package pers.yewin.springsecurityjwt.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pers.yewin.springsecurityjwt.filter.ServerTimingFilter;
+
+import javax.servlet.DispatcherType;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * ServerTimingFilter must run before spring security filter chain (CustomAuthenticationFilter and CustomAuthorizationFilter),
+     * so we register it with order before security filter order, instead of adding it as @Component (that will run after security).
+     */
+    @Bean
+    FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter());
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        registration.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registration;
+    }
+
+    /**
+     * pool size, active threads, queued tasks and completed tasks of each bulkhead,
+     * eg. executor_queued_tasks{name="bulkhead-login"} show login requests which are waiting for BCrypt threads.
+     */
+    @Bean
+    MeterBinder bulkheadMetrics(Bulkheads bulkheads) {
+        return meterRegistry -> {
+            for (Bulkhead bulkhead : new Bulkhead[]{bulkheads.getLogin(), bulkheads.getAdminWrite(), bulkheads.getRead()}) {
+                new ExecutorServiceMetrics(bulkhead.getExecutor(), bulkhead.getName(), Tags.empty()).bindTo(meterRegistry);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package pers.yewin.springsecurityjwt.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Slf4j // for logging
+public class PinnedThreadMonitor {
+
+    /**
+     * listen jdk.VirtualThreadPinned events of JFR (java flight recorder) inside our application by JFR event streaming,
+     * that event is written when virtual thread was blocked more than threshold while it was pinned to its carrier thread
+     * (eg. waiting for database inside synchronized block of JDBC driver, connection pool or hibernate).
+     *
+     * count is exported as virtual.threads.pinned{source="jdbc"} for hibernate, jdbc and connection pool stack frames
+     * and virtual.threads.pinned{source="other"} for others, first events are also logged with stack trace.
+     * JFR classes (JDK 14+) are used by reflection as our source is Java 8.
+     */
+
+    private static final String EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final Duration THRESHOLD = Duration.ofMillis(20); // same default threshold with JDK
+    private static final int MAX_LOGGED_EVENTS = 20;
+
+    // stack frames of database access
+    private static final String[] JDBC_FRAMES = {"org.hibernate.", "java.sql.", "com.mysql.", "com.zaxxer.hikari.", "org.h2.",
+            "org.springframework.jdbc.", "org.springframework.orm."};
+
+    private final Counter jdbcPinned;
+    private final Counter otherPinned;
+    private final AtomicInteger loggedEvents = new AtomicInteger();
+
+    private Object recordingStream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry) {
+        this.jdbcPinned = Counter.builder("virtual.threads.pinned").tag("source", "jdbc")
+                .description("virtual threads which were blocked while pinned to carrier thread").register(meterRegistry);
+        this.otherPinned = Counter.builder("virtual.threads.pinned").tag("source", "other")
+                .description("virtual threads which were blocked while pinned to carrier thread").register(meterRegistry);
+    }
+
+    public void start() {
+        try {
+            // RecordingStream stream = new RecordingStream();
+            // stream.enable("jdk.VirtualThreadPinned").withThreshold(THRESHOLD).withStackTrace();
+            // stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+            // stream.startAsync();
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Object stream = streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, EVENT_NAME);
+            settings = settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, THRESHOLD);
+            settingsClass.getMethod("withStackTrace").invoke(settings);
+            Consumer<Object> consumer = this::onPinned;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, EVENT_NAME, consumer);
+            streamClass.getMethod("startAsync").invoke(stream);
+            recordingStream = stream;
+            log.info("virtual thread pinning monitor was started, threshold: {} ms", THRESHOLD.toMillis());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("virtual thread pinning monitor can't start (JFR event streaming is not available): {}", e.toString());
+        }
+    }
+
+    public void stop() {
+        if (recordingStream == null) {
+            return;
+        }
+        try {
+            Method close = recordingStream.getClass().getMethod("close");
+            close.invoke(recordingStream);
+        } catch (ReflectiveOperationException e) {
+            log.warn("virtual thread pinning monitor can't stop: {}", e.toString());
+        }
+    }
+
+    // event is jdk.jfr.consumer.RecordedEvent, toString() has duration and stack trace.
+    void onPinned(Object event) {
+        String text = String.valueOf(event);
+        boolean jdbc = isDatabaseAccess(text);
+        (jdbc ? jdbcPinned : otherPinned).increment();
+        if (loggedEvents.incrementAndGet() <= MAX_LOGGED_EVENTS) {
+            log.warn("virtual thread was pinned{}: {}", jdbc ? " in database access" : "", text);
+        }
+    }
+
+    static boolean isDatabaseAccess(String stackTrace) {
+        for (String frame : JDBC_FRAMES) {
+            if (stackTrace.contains(frame)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "seed") // bind all seed.* keys from application-seed.properties into this class.
+public class SeedProperties {
+
+    /**
+     * settings of LargeDatasetSeeder, it is active only with seed profile (--spring.profiles.active=seed).
+     */
+
+    // total number of synthetic users, users which are already in database are not inserted again.
+    private long users = 1_000_000;
+
+    // synthetic users get email like user-123@seed.local, so they can be counted and found again after restart.
+    private String emailDomain = "seed.local";
+
+    // users per transaction, every chunk is generated and inserted by one worker thread.
+    private int chunkSize = 5000;
+
+    // worker threads (0 means number of cpu cores, but not more than 8), each worker use one database connection.
+    private int parallelism = 0;
+
+    // same password for all synthetic users, it is BCrypt hashed only one time (not one time per user).
+    private String password = "password";
+
+    /**
+     * role sets with their share of users, role names are separated by | and empty role set mean user without role, eg.
+     * NORMAL_USER=0.9,NORMAL_USER|MANAGER=0.08,MANAGER|ADMIN=0.019,SUPER_ADMIN|ADMIN=0.001
+     */
+    private String roleMix = "NORMAL_USER=0.895,NORMAL_USER|MANAGER=0.08,MANAGER|ADMIN=0.019,SUPER_ADMIN|ADMIN=0.001,=0.005";
+
+    // run seeder in background thread, so that readiness (ApplicationReadyEvent listeners) don't wait for millions of inserts.
+    private boolean async = true;
+}
@@ -0,0 +1,33 @@
+package pers.yewin.springsecurityjwt.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Slf4j // for logging
+@Component
+@ConditionalOnProperty(name = "startup.exit-after-ready", havingValue = "true")
+public class TrainingRunExit implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * training run of appcds maven profile (see pom.xml), application is started one time with -XX:ArchiveClassesAtExit
+     * and stopped as soon as it is ready, jvm write all classes which were loaded until then into class data sharing archive.
+     * next starts with -XX:SharedArchiveFile map those classes from archive instead of loading and verifying them from jar files again.
+     */
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("startup.exit-after-ready=true, stopping application after training run.");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
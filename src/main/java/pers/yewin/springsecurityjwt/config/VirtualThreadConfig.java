@@ -0,0 +1,43 @@
+package pers.yewin.springsecurityjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+@Slf4j // for logging
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * opt in mode for JDK 21 or newer, run with threads.virtual.enabled=true (eg. java -jar app.jar --threads.virtual.enabled=true).
+     * every http request is handled by new virtual thread instead of tomcat worker thread pool (server.tomcat.threads.max),
+     * so, request which is waiting for database don't keep one of 200 tomcat threads.
+     * admin write and read bulkheads use virtual threads too (see Bulkheads), login bulkhead stay platform threads for BCrypt.
+     *
+     * virtual thread which wait inside synchronized block (or native call) can't release its carrier thread (pinning),
+     * old JDBC drivers and connection pools use synchronized, so PinnedThreadMonitor report pinning events from JFR.
+     * please check virtual.threads.pinned metric (or warning logs) before you use this mode in production.
+     */
+
+    @Bean
+    TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("virtual threads are enabled, tomcat requests will run in virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-"));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry) {
+        return new PinnedThreadMonitor(meterRegistry);
+    }
+}
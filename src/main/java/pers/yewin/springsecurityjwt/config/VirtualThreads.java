@@ -0,0 +1,75 @@
+package pers.yewin.springsecurityjwt.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.config
+ */
+
+public final class VirtualThreads {
+
+    /**
+     * virtual threads (https://openjdk.org/jeps/444) need JDK 21 or newer, but our source is still Java 8.
+     * so, we call Thread.ofVirtual() and Executors.newVirtualThreadPerTaskExecutor() by reflection,
+     * same jar can run on Java 8 (platform threads only) and on JDK 21+ (virtual threads can be enabled by threads.virtual.enabled=true).
+     */
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * thread factory which create virtual thread with name prefix and counter, eg. tomcat-virtual-0, tomcat-virtual-1.
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        requireSupported();
+        try {
+            // Thread.ofVirtual().name(namePrefix, 0).factory()
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create virtual thread factory", e);
+        }
+    }
+
+    /**
+     * executor which start new virtual thread for every task (no pool, virtual threads are cheap).
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        requireSupported();
+        try {
+            // Executors.newThreadPerTaskExecutor(threadFactory)
+            Method method = java.util.concurrent.Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory(namePrefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create virtual thread executor", e);
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or newer, current java version is " + System.getProperty("java.version")
+                    + ", please set threads.virtual.enabled=false.");
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null; // older JDK
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package pers.yewin.springsecurityjwt.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.controller
+ */
+
+@RestController
+@RequiredArgsConstructor // inject final jwtTokenService by creating constructor based dependency injection instead of using @Autowire
+public class JwksController {
+
+    /**
+     * public keys for token verification (JSON Web Key Set), when tokens are signed by RS256 or ES256 (jwt.algorithm).
+     * Other services download this one time (and again after cache time) and verify our access tokens locally by kid in token header,
+     * so they don't need to call this application or know any secret for every request.
+     * it is empty key list for HS256 because we never publish shared secret.
+     *
+     * response can be cached by clients and proxies for 5 minutes,
+     * so, when you rotate signing key, please add new key to key ring (and wait cache time) before new key start signing tokens.
+     */
+
+    private static final CacheControl JWKS_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+
+    private final JwtTokenService jwtTokenService;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok().cacheControl(JWKS_CACHE_CONTROL).body(jwtTokenService.getJwks());
+    }
+}
@@ -0,0 +1,81 @@
+package pers.yewin.springsecurityjwt.controller;
+
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.controller
+ */
+
+@RestController
+@RequiredArgsConstructor // inject final jwtTokenService by creating constructor based dependency injection instead of using @Autowire
+@RequestMapping("/jwt/keys")
+public class JwtKeyController {
+
+    /**
+     * rotate jwt signing key without restart, only super admin can call these apis (see SecurityConfig).
+     * 1. rotate: add new kid with new secret, new tokens are signed by that key from now on, old tokens still can verify by old key.
+     * 2. retire: after old tokens were expired (refresh token expiry), remove old key, tokens of that key can't verify anymore.
+     *
+     * key ring is kept in memory of this instance, so, if you run many instances, call same rotate and retire on every instance
+     * (and update jwt.keys.* and jwt.active-key-id in application.properties, so that restarted instance has same key ring).
+     * rotate is only for HS256 secrets, it return 400 when tokens are signed by RS256 or ES256 (key pair is changed by key store).
+     */
+
+    private final JwtTokenService jwtTokenService;
+
+    // eg. {"keyId": "k2", "secret": "NewSecret"}
+    @PostMapping("/rotate")
+    public ResponseEntity rotateKey(@RequestBody RotateKeyRequest rotateKeyRequest) {
+        try {
+            jwtTokenService.rotateKey(rotateKeyRequest.getKeyId(), rotateKeyRequest.getSecret());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    // eg. {"keyId": "default"}
+    @PostMapping("/retire")
+    public ResponseEntity retireKey(@RequestBody RetireKeyRequest retireKeyRequest) {
+        try {
+            jwtTokenService.retireKey(retireKeyRequest.getKeyId());
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private static ResponseEntity badRequest(String message) {
+        // we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+        // but this is demo project so, I don't do that.
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("error", message);
+        return new ResponseEntity<>(errorMap, BAD_REQUEST);
+    }
+}
+
+@Data
+class RotateKeyRequest {
+    private String keyId;
+    private String secret;
+}
+
+@Data
+class RetireKeyRequest {
+    private String keyId;
+}
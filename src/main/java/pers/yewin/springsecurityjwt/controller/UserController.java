@@ -1,29 +1,42 @@
 package pers.yewin.springsecurityjwt.controller;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import pers.yewin.springsecurityjwt.config.Bulkhead;
+import pers.yewin.springsecurityjwt.config.Bulkheads;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignment;
+import pers.yewin.springsecurityjwt.model.dto.UserPage;
+import pers.yewin.springsecurityjwt.model.dto.UserView;
 import pers.yewin.springsecurityjwt.model.entity.Role;
 import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.security.RefreshTokenService;
+import pers.yewin.springsecurityjwt.security.TokenRevocationService;
+import pers.yewin.springsecurityjwt.service.UserImportService;
 import pers.yewin.springsecurityjwt.service.UserService;
+import pers.yewin.springsecurityjwt.service.UserVersions;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
-import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 /**
@@ -34,35 +47,151 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
  */
 
 @RestController
-@RequiredArgsConstructor // inject final userService by creating constructor based dependency injection instead of using @Autowire
+@RequiredArgsConstructor // inject final userService, userImportService, jwtTokenService, refreshTokenService, tokenRevocationService, jsonResponseWriter and bulkheads by creating constructor based dependency injection instead of using @Autowire
 @RequestMapping("/user")
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final JwtTokenService jwtTokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final JsonResponseWriter jsonResponseWriter;
+    private final Bulkheads bulkheads;
 
+    /**
+     * below apis are running in bulkhead threads instead of servlet (tomcat) thread by returning CompletableFuture (async servlet processing).
+     * read apis use read bulkhead and admin write apis use admin write bulkhead,
+     * so, if one kind of api is too busy (eg. many createUser calls with BCrypt encoding), other kind of apis can still work.
+     * if bulkhead is full, api will return 503 at once.
+     */
+
+    /**
+     * get user apis return ETag (version column of users, see UserVersions), dashboards which poll these apis can send that ETag back as If-None-Match header,
+     * if user data was not changed, they get 304 Not Modified without body.
+     * If-None-Match is checked first by id and version only query (no join with roles), users and roles are loaded only when it don't match,
+     * so unchanged data cost one small query, no json serialization and no body.
+     * Cache-Control: no-cache, private let browser keep the response but always ask us again (spring security don't add no-store when we set it).
+     */
+
+    // users are returned page by page, give nextCursor value of response as cursor param to get next page.
     @GetMapping("/getAllUser")
-    public ResponseEntity<List<Users>> getAllUsers(){
-        return ResponseEntity.ok().body(userService.getAllUsers());
+    public CompletableFuture<ResponseEntity> getAllUsers(@RequestParam(value = "cursor", required = false) String cursor,
+                                                         @RequestParam(value = "size", defaultValue = "20") int size,
+                                                         @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return bulkheads.getRead().submit(() -> {
+            String eTag = ifNoneMatch == null ? null : userService.getUsersETag(cursor, size);
+            if (UserVersions.matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+            return conditional(userService.getAllUsers(cursor, size), ifNoneMatch);
+        });
     }
 
     @GetMapping("/getUserByEmail")
-    public ResponseEntity<Users> getUserByEmail(@RequestParam("email") String email){
-        return ResponseEntity.ok().body(userService.getByEmail(email));
+    public CompletableFuture<ResponseEntity> getUserByEmail(@RequestParam("email") String email,
+                                                            @RequestHeader(value = IF_NONE_MATCH, required = false) String ifNoneMatch){
+        return bulkheads.getRead().submit(() -> {
+            String eTag = ifNoneMatch == null ? null : userService.getUserETag(email);
+            if (UserVersions.matches(ifNoneMatch, eTag)) {
+                return notModified(eTag);
+            }
+            return conditional(ResponseEntity.ok().body(userService.getUserView(email)), ifNoneMatch);
+        });
+    }
+
+    /**
+     * only successful response with body get ETag, error response (eg. wrong cursor) and unknown email (empty body) are returned as it is,
+     * so If-None-Match: * never match user which don't exist.
+     */
+    private static ResponseEntity conditional(ResponseEntity response, String ifNoneMatch) {
+        Object body = response.getBody();
+        String eTag = body instanceof UserPage ? UserVersions.usersETag((UserPage) body)
+                : body instanceof UserView ? UserVersions.userETag((UserView) body) : null;
+        if (eTag == null || !response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        if (UserVersions.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag); // user was changed between version query and full query, and full result already match client ETag
+        }
+        return ResponseEntity.status(response.getStatusCode()).eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).body(body);
+    }
+
+    private static ResponseEntity notModified(String eTag) {
+        return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache().cachePrivate()).build();
     }
 
     @PostMapping("/createUser")
-    public ResponseEntity createUser(@RequestBody Users users){
-        return userService.saveUser(users);
+    public CompletableFuture<ResponseEntity> createUser(@RequestBody Users users){
+        return bulkheads.getAdminWrite().submit(() -> userService.saveUser(users));
     }
 
     @PostMapping("/role/createRole")
-    public ResponseEntity createRole(@RequestBody Role role){
-        return userService.saveRole(role);
+    public CompletableFuture<ResponseEntity> createRole(@RequestBody Role role){
+        return bulkheads.getAdminWrite().submit(() -> userService.saveRole(role));
     }
 
     @PostMapping("/role/addRoleToUser")
-    public ResponseEntity addRoleToUser(@RequestBody AddRoleToUserRequest addRoleToUserRequest){
-        return userService.addRoleToUser(addRoleToUserRequest.getEmail(), addRoleToUserRequest.getRoleName());
+    public CompletableFuture<ResponseEntity> addRoleToUser(@RequestBody AddRoleToUserRequest addRoleToUserRequest){
+        return bulkheads.getAdminWrite().submit(() -> userService.addRoleToUser(addRoleToUserRequest.getEmail(), addRoleToUserRequest.getRoleName()));
+    }
+
+    // batch version of addRoleToUser, eg. re-provision roles for whole department by one request.
+    @PostMapping("/role/addRolesToUsers")
+    public CompletableFuture<ResponseEntity> addRolesToUsers(@RequestBody List<RoleAssignment> assignments){
+        return bulkheads.getAdminWrite().submit(() -> userService.addRolesToUsers(assignments));
+    }
+
+    /**
+     * bulk user import, request body is NDJSON (Content-Type: application/x-ndjson) or CSV (Content-Type: text/csv) file,
+     * please see UserImportService for line format. response body is ImportReport with result of every line.
+     * import can take long time for big file, so it has its own timeout (user-import.timeout-millis) instead of normal async request timeout,
+     * and it run in admin write bulkhead like other admin write apis.
+     */
+    @PostMapping(value = "/importUsers", consumes = {"application/x-ndjson", "text/csv"})
+    public DeferredResult<ResponseEntity> importUsers(HttpServletRequest request){
+        DeferredResult<ResponseEntity> result = new DeferredResult<>(userImportService.getTimeoutMillis());
+        boolean csv = request.getContentType().startsWith("text/csv");
+        try {
+            bulkheads.getAdminWrite().execute(() -> {
+                try {
+                    result.setResult(ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), csv)));
+                } catch (IOException e) {
+                    /**
+                     * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+                     * but this is demo project so, I don't do that.
+                     */
+                    Map<String, String> errorMap = new HashMap<>();
+                    errorMap.put("error", "Import file can't be read");
+                    result.setResult(new ResponseEntity<>(errorMap, BAD_REQUEST));
+                } catch (RuntimeException e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.setResult(Bulkhead.serviceUnavailable());
+        }
+        return result;
+    }
+
+    // revoke one token by token id (jti claim) or all tokens of user by email before those tokens were expired.
+    // eg. {"tokenId": "6f1c..."} or {"email": "ye@gmail.com"}
+    @PostMapping("/token/revoke")
+    public CompletableFuture<ResponseEntity> revokeToken(@RequestBody RevokeTokenRequest revokeTokenRequest){
+        return bulkheads.getAdminWrite().submit(() -> {
+            if (StringUtils.hasText(revokeTokenRequest.getTokenId())) {
+                tokenRevocationService.revokeTokenId(revokeTokenRequest.getTokenId());
+            } else if (StringUtils.hasText(revokeTokenRequest.getEmail())) {
+                tokenRevocationService.revokeSubject(revokeTokenRequest.getEmail());
+            } else {
+                // we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+                // but this is demo project so, I don't do that.
+                Map<String, String> errorMap = new HashMap<>();
+                errorMap.put("error", "tokenId or email is required");
+                return new ResponseEntity<>(errorMap, BAD_REQUEST);
+            }
+            return ResponseEntity.ok().build();
+        });
     }
 
     /**
@@ -84,7 +213,7 @@ public class UserController {
          * So we don't need to afraid if hacker got our access token because it will expire in a short time and it will generate as new key in every short time by refresh token.
          * For that case, front end developer need to call our token refresh api if he got access token was expired error message and frontend need to give refresh token in header when calling this api which refresh token can get after calling login api.
          * We should generate new refresh token and return with other way to frontend because hacker can get refresh token too. Because if he got that refresh token, he can enter our system by access token and even access token was expired, he can generate new token by using refresh token if he knew refresh token. https://auth0.com/docs/secure/tokens/refresh-tokens/refresh-token-rotation
-         * But here, I just return new access token only as this is security basic demo application.
+         * So, new refresh token is returned together with new access token and old refresh token can't be used again (see RefreshTokenService).
          */
 
         try{
@@ -95,26 +224,19 @@ public class UserController {
                 String refreshToken = authorizationHeader.substring(bearer.length()); // cut header for starting bearer keyword and take all key text behind bearer by substring method.
 
 
-                /**
-                 * you can declare below password key (secret) with final static field under utility constant class,
-                 * so that can be use in other place like CustomAuthorizationFilter, CustomAuthenticationFilter class, etc.
-                 * So that you can easily change it in one place if you want (that will impact to others as all place use that field value)
-                 * and you don't need to change in all place if you add in one place.
-                 * and also you don't need to worry about secret mismatched case.
-                 * if not, you need to re-write for same value in others place like CustomAuthorizationFilter and CustomAuthenticationFilter class, and so, it can get typing wrong, and it will lead duplicate same code.
-                 */
+                // verify refresh token with shared verifier in JwtTokenService (same key ring with CustomAuthenticationFilter class).
+                DecodedJWT decodedJWT = jwtTokenService.verify(refreshToken); // decode token
 
-                // create algorithm object by password key that password key must need to be same with Token generating secret key. which is generated in CustomAuthenticationFilter class.
-                // you can declare password key (secret) under utility constant class (if not, you can create that class for constant fields and value) and that can be use in both CustomAuthenticationFilter and this class. So that you don't need to worry about secret mismatched case.
-                Algorithm algorithm = Algorithm.HMAC256("MyAppSecurityPassword".getBytes());
-                JWTVerifier jwtVerifier = JWT.require(algorithm).build(); // create JWT verify with algorithm to verify user input token.
-                DecodedJWT decodedJWT = jwtVerifier.verify(refreshToken); // decode token
+                // refresh token of revoked user (all tokens of user were revoked) or revoked refresh token can't create new tokens.
+                if (tokenRevocationService.isRevoked(decodedJWT)) {
+                    throw new RuntimeException("Token was revoked.");
+                }
 
                 // retrieve roles from claim by using key 'roles' as we gave that in CustomAuthenticationFilter class.
-                String [] roles = decodedJWT.getClaim("roles").asArray(String.class); // we gave that as String array (Authorities), so we need to convert to String array when we pull that roles.
+                String [] roles = decodedJWT.getClaim(JwtTokenService.ROLES_CLAIM).asArray(String.class); // we gave that as String array (Authorities), so we need to convert to String array when we pull that roles.
 
-                // check if roles is null or not empty for user
-                if(roles != null && roles.length != 0) {
+                // check if roles is null or not empty for user, access token can carry role bits (rb) instead of roles too.
+                if((roles != null && roles.length != 0) || !decodedJWT.getClaim(JwtTokenService.ROLE_BITS_CLAIM).isNull()) {
 
                     // if roll is not null or empty,
                     // that is access token because we didn't add role in refresh token, we added roles in only access token in successfulAuthentication method of CustomAuthenticationFilter.
@@ -122,35 +244,13 @@ public class UserController {
                     throw new RuntimeException("Token is not valid.");
                 }
 
-                String email = decodedJWT.getSubject(); // subject will be email as we gave that in CustomAuthenticationFilter class.
-
-                Users user = userService.getByEmail(email);
-
-
-                /** this below code is duplicate with successfulAuthentication method of CustomAuthenticationFilter class.
-                 *  So, we can create one static method in CommonUtil class and both can call that method to reduce duplicate code.
-                 **/
-                Algorithm algorithms = Algorithm.HMAC256("MyAppSecurityPassword".getBytes());
-                String accessToken = JWT.create()
-                        // token subject will be username when you decode token after you have token.
-                        .withSubject(user.getEmail()) // user.getUsername() will get email as I added in loadUserByUsername method of UserServiceImpl class
-
-                        // add current time to 3 minutes to set expire. formula ->> min = 3 multiply by 60 seconds and 1000 milliseconds
-                        // so, user can use access token for only 3 minutes and after that frontend need to re-generate access token by refresh token by calling api like token/refresh that we need to develop in controller.
-                        // For testing access token, you can change the expired minutes to 1 or 2 minutes.
-                        .withExpiresAt(new Date(System.currentTimeMillis() + 3 * 60 * 1000))
-                        .withIssuer(request.getRequestURL().toString())
-
-                        // Here we don't need to add authorities like successfulAuthentication method of CustomAuthenticationFilter class.
-                        // because we don't check for authorities as we already checked in successfulAuthentication method of CustomAuthenticationFilter class.
-                        // so, we add our plain role name only in claim
-                        .withClaim("roles", user.getRoleList().stream().map(Role::getName).collect(Collectors.toList()))
-                        .sign(algorithms);
-
-                /**
-                 * here we don't need to generate again for refresh token as refresh token expiry time is long time (eg. 1 day, week, month, year , etc)
-                 * So, we will re-generate only for access token.
-                 * **/
+                // refresh token is rotated by RefreshTokenService (refresh token rotation rule), https://auth0.com/docs/secure/tokens/refresh-tokens/refresh-token-rotation
+                // new access token and new refresh token are returned, input refresh token can't be used anymore.
+                // roles are taken from refresh token family which was saved when user was login, so we don't load user from database for every token refresh.
+                // roles are loaded from database (loadRoleNames) only after roles of user were changed.
+                // refresh token without known family (created before token families or lost after restart) is rejected, user need to login again.
+                // if input refresh token was already used before, whole token family is revoked and user need to login again.
+                RefreshTokenService.TokenPair tokens = refreshTokenService.refresh(decodedJWT, request.getRequestURL().toString(), this::loadRoleNames);
 
 
                 response.setContentType(APPLICATION_JSON_VALUE); // set return value as json type to show return value in body part after calling login api.
@@ -162,18 +262,14 @@ public class UserController {
 
                 new ObjectMapper().writeValue(response.getOutputStream(), tokens);*/
 
-                // we can return tokens back in body with json format by using java object
-                TokenResponse tokenObject = new TokenResponse();
-                tokenObject.setAccessToken(accessToken);
-                tokenObject.setRefreshToken(refreshToken);
-
                 /**
                  * we can create custom response class for response (eg. response class may include these fields - status, message, access token, refresh token, etc).
                  * So that frontend developer will know that whether token is expired or format wrong or etc.
                  * So, if he knew the token is expired, he can call token/refresh api.
                  */
 
-                new ObjectMapper().writeValue(response.getOutputStream(), tokenObject);
+                // we return tokens back in body with json format, json is streamed by shared JsonResponseWriter (no new ObjectMapper for every call).
+                jsonResponseWriter.writeTokens(response, tokens.getAccessToken(), tokens.getRefreshToken());
 
             }
             else {
@@ -187,12 +283,6 @@ public class UserController {
 
         }catch (Exception e) {
             response.setHeader("error ", e.getMessage());
-            response.setStatus(FORBIDDEN.value());
-            Map<String, String> errorJson = new HashMap<>();
-            errorJson.put("error: ", e.getMessage());
-            errorJson.put("code: ", String.valueOf(FORBIDDEN.value()));
-            errorJson.put("message: ", "Your input refresh token is something wrong");
-            response.setContentType(APPLICATION_JSON_VALUE); // set return value as json type to show return value in body part.
 
             /**
              * we can create custom response class for response (eg. response class may include these fields - status, message, access token, refresh token, etc).
@@ -201,11 +291,20 @@ public class UserController {
              * Here is demo project, so, I don't go with custom class and this is for testing purpose.
              */
 
-            // return json type data by writing output stream to httpServletResponse
-            new ObjectMapper().writeValue(response.getOutputStream(), errorJson);
+            // return json type data by writing output stream to httpServletResponse (403 with pre-encoded fixed part of body)
+            jsonResponseWriter.writeInvalidRefreshToken(response, e.getMessage());
         }
     }
 
+    // role names of user from database, it is used by RefreshTokenService when refresh token family don't have roles snapshot.
+    private List<String> loadRoleNames(String email) {
+        Users user = userService.getByEmail(email);
+        if (user == null) {
+            throw new RuntimeException("User is not found.");
+        }
+        return user.getRoleList().stream().map(Role::getName).collect(Collectors.toList());
+    }
+
 }
 
 @Data
@@ -214,11 +313,8 @@ class AddRoleToUserRequest {
     private String roleName;
 }
 
-// we can create new separate class for TokenResponse rather than inside in this class.
-// Because it's duplicate with other TokenResponse class which is inside CustomAuthenticationFilter class.
-// If we separate class, we don't need to create inner class in both this class and CustomAuthenticationFilter too, so that we can decrease large amount of code.
 @Data
-class TokenResponse{
-    private String accessToken;
-    private String refreshToken;
-}
\ No newline at end of file
+class RevokeTokenRequest {
+    private String tokenId;
+    private String email;
+}
@@ -1,9 +1,5 @@
 package pers.yewin.springsecurityjwt.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,17 +9,32 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-
+import pers.yewin.springsecurityjwt.config.Bulkhead;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.metrics.AuthStage;
+import pers.yewin.springsecurityjwt.metrics.ServerTiming;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.LoginThrottle;
+import pers.yewin.springsecurityjwt.security.RefreshTokenService;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 /**
@@ -34,10 +45,153 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
  */
 
 @Slf4j // for logging
-@RequiredArgsConstructor // inject final authenticationManager by creating constructor based dependency injection instead of using @Autowire
+@RequiredArgsConstructor // inject final authenticationManager, refreshTokenService, jsonResponseWriter, authMetrics, loginThrottle and loginBulkhead by creating constructor based dependency injection instead of using @Autowire
 public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final JsonResponseWriter jsonResponseWriter;
+    private final AuthMetrics authMetrics;
+    private final LoginThrottle loginThrottle;
+    private final Bulkhead loginBulkhead;
+    private final long asyncTimeoutMillis;
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        /**
+         * login (BCrypt password check) is heavy CPU work, so we don't do that in servlet (tomcat) thread which is shared with all other apis.
+         * we start async processing and do login in login bulkhead threads, so servlet thread is released at once.
+         * if login bulkhead is full, we return 503 at once instead of waiting.
+         */
+        HttpServletRequest httpServletRequest = (HttpServletRequest) request;
+        HttpServletResponse httpServletResponse = (HttpServletResponse) response;
+
+        if (!requiresAuthentication(httpServletRequest, httpServletResponse)) {
+            // not login api, keep working other filters.
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long loginStart = System.nanoTime(); // whole login time include waiting in bulkhead queue
+
+        // too many attempts from this client ip or for this username (eg. credential stuffing), return 429 at once in servlet thread,
+        // so that those attempts don't take login bulkhead threads and don't cost BCrypt password check (authenticationManager.authenticate).
+        long retryAfterSeconds = loginThrottle.tryAcquire(request.getRemoteAddr(), request.getParameter("username"));
+        if (retryAfterSeconds > 0) {
+            log.warn("too many login attempts, login request was throttled.");
+            authMetrics.login(AuthMetrics.LOGIN_THROTTLED, loginStart);
+            httpServletResponse.setStatus(TOO_MANY_REQUESTS.value());
+            httpServletResponse.setHeader(RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            jsonResponseWriter.writeTooManyLoginAttempts(httpServletResponse); // body was already encoded when application was started
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(asyncTimeoutMillis);
+        // response is written only one time, by login task, by timeout or by client error (whichever is first).
+        AtomicBoolean responded = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                // login is still waiting in bulkhead queue (or still checking password) after async timeout, we return 503 to client,
+                // if we don't complete here, container send its own error response.
+                if (responded.compareAndSet(false, true)) {
+                    log.warn("login was not finished in {} ms, login request was timed out.", asyncTimeoutMillis);
+                    authMetrics.login(AuthMetrics.LOGIN_TIMEOUT, loginStart);
+                    writeServerBusy(httpServletResponse);
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // eg. client closed connection, nobody will read the response, so queued login is skipped and login which is running don't write anything.
+                if (responded.compareAndSet(false, true)) {
+                    log.warn("login request was failed before login was finished: {}", event.getThrowable() == null ? null : event.getThrowable().getMessage());
+                    authMetrics.login(AuthMetrics.LOGIN_ABORTED, loginStart);
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        try {
+            loginBulkhead.execute(() -> login(httpServletRequest, httpServletResponse, chain, asyncContext, responded, loginStart));
+        } catch (RejectedExecutionException e) {
+            log.warn("login bulkhead is full, login request was rejected.");
+            responded.set(true);
+            authMetrics.login(AuthMetrics.LOGIN_REJECTED, loginStart);
+            writeServerBusy(httpServletResponse);
+            asyncContext.complete();
+        }
+    }
+
+    /**
+     * run in login bulkhead thread, same steps with doFilter of AbstractAuthenticationProcessingFilter (attemptAuthentication,
+     * then successfulAuthentication or unsuccessfulAuthentication), but result of password check is kept in local variables
+     * and it is written only when this task take the response first. if timeout or client error already took it,
+     * that response was already sent (container can reuse response object for other request), so we don't write anything into it.
+     */
+    private void login(HttpServletRequest request, HttpServletResponse response, FilterChain chain, AsyncContext asyncContext, AtomicBoolean responded, long loginStart) {
+        if (responded.get()) {
+            // client already got 503 by timeout, we don't do BCrypt password check for nothing.
+            return;
+        }
+
+        // stage times of this login (db, bcrypt, sign) are written into Server-Timing header of this request.
+        ServerTiming previous = ServerTiming.bind(request);
+        try {
+            Authentication authResult = null;
+            AuthenticationException failed = null;
+            Exception error = null;
+            try {
+                authResult = attemptAuthentication(request, response);
+            } catch (AuthenticationException e) {
+                failed = e; // eg. wrong username or password
+            } catch (Exception e) {
+                error = e;
+            }
+
+            if (!responded.compareAndSet(false, true)) {
+                // timeout or client error already recorded this login.
+                log.warn("login was finished after timeout, response was already sent.");
+                return;
+            }
+            // result is known here, so we record it directly instead of guessing from response status.
+            String outcome = AuthMetrics.LOGIN_FAILURE;
+            try {
+                if (error != null) {
+                    log.error("error: {}", error.getMessage());
+                    response.setStatus(INTERNAL_SERVER_ERROR.value());
+                } else if (failed != null) {
+                    unsuccessfulAuthentication(request, response, failed);
+                } else if (authResult != null) {
+                    successfulAuthentication(request, response, chain, authResult);
+                    outcome = AuthMetrics.LOGIN_SUCCESS;
+                }
+            } catch (Exception e) {
+                log.error("error: {}", e.getMessage());
+                response.setStatus(INTERNAL_SERVER_ERROR.value());
+            } finally {
+                authMetrics.login(outcome, loginStart);
+                asyncContext.complete(); // send response back to client
+            }
+        } finally {
+            ServerTiming.unbind(previous);
+        }
+    }
+
+    private void writeServerBusy(HttpServletResponse response) throws IOException {
+        response.setStatus(SERVICE_UNAVAILABLE.value());
+        response.setHeader(RETRY_AFTER, "1");
+        jsonResponseWriter.writeServerBusy(response); // body was already encoded when application was started
+    }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
@@ -77,48 +231,19 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
 
         User user = (User) authResult.getPrincipal(); // get spring built-in user object, we already put our user and role data to that spring built-in user object in loadUserByUsername method of UserServiceImpl class
 
-        /**
-         * you can declare below password key (secret) with final static field under utility constant class,
-         * so that can be use in other place like token/refresh api, CustomAuthorizationFilter class, etc.
-         * So that you can easily change it in one place if you want (that will impact to others as all place use that field value)
-         * and you don't need to worry about secret mismatched case.
-         * if not, you need to re-write for same value in others place like token/refresh api and CustomAuthorizationFilter class, and so, it can get typing wrong and it will lead duplicate same code.
-         */
-
-        // below password key (secret) is the most important in JWT.
-        // To get token actual value (decoding token), they need to know this below secret password key. So, if you put that key inside in your class like below, they don't know that key from outside (frontend, etc).
-        // Without knowing below key, they can't decode JWT. So, that's mean they can't hack your system. That is call spring security (login authentication, authorization) and JWT (to verify next api call from attacker). That can cover, secure your application from attacking.
-        /** this below code is duplicate with tokenRefresh method of User Controller class.
-         *  So, we can create one static method in CommonUtil class and both can call that method to reduce duplicate code.
-         **/
-        Algorithm algorithms = Algorithm.HMAC256("MyAppSecurityPassword".getBytes());
-        String accessToken = JWT.create()
-                // token subject will be username when you decode token after you have token.
-                .withSubject(user.getUsername()) // user.getUsername() will get email as I added in loadUserByUsername method of UserServiceImpl class
-
-                // add current time to 3 minutes to set expire. formula ->> min = 3 multiply by 60 seconds and 1000 milliseconds
-                // so, user can use access token for only 3 minutes and after that frontend need to re-generate access token by refresh token by calling api like token/refresh that we need to develop in controller.
-                // For testing access token, you can change the expired minutes to 1 or 2 minutes.
-                .withExpiresAt(new Date(System.currentTimeMillis() + 3 * 60 * 1000))
-                .withIssuer(request.getRequestURL().toString())
-
-                // you can retrieve roles from token claim by key 'roles'
-                // that roles will only be role name, because we already add role name only to Authorities field of spring built-in user object in loadUserByUsername method of UserServiceImpl class
-                .withClaim("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()))
-                .sign(algorithms);
-
+        // secret key, algorithm and expiry time are kept in JwtTokenService, so that we don't need to duplicate with tokenRefresh method of UserController class.
+        // access token will expire after 3 minutes and after that frontend need to re-generate access token by refresh token by calling token/refresh api.
+        // that roles will only be role name, because we already add role name only to Authorities field of spring built-in user object in loadUserByUsername method of UserServiceImpl class
         // refresh token will use when above access token was expired.
-        String refreshToken = JWT.create()
-                .withSubject(user.getUsername()) // user.getUsername() will get email as I added in loadUserByUsername method of UserServiceImpl class
-
-                // add current time to 90 minutes to set expire (actually we should set refresh token expiry to week or months or years). formula ->> min = 90 multiply by 60 seconds and 1000 milliseconds
-                // so, user can use refresh token (to generate new access token) for only 90 minutes
-                // after that frontend should let logout to user when refresh token was expired and when user do login again, the new refresh token was generated as this method. (This method will do after login was successful)
-                // actually, we should use refresh token rotation rule to prevent hacker attack (hacker can get refresh token, and he can generate access token as his want, and he can come to our application anytime by using that access token. https://auth0.com/docs/secure/tokens/refresh-tokens/refresh-token-rotation
-                // For testing refresh token, you can change the expired minutes to 3 or 4 or etc...
-                .withExpiresAt(new Date(System.currentTimeMillis() + 90 * 60 * 1000))
-                .withIssuer(request.getRequestURL().toString())
-                .sign(algorithms);
+        // RefreshTokenService start new refresh token family with roles of user, so that token refresh api can rotate refresh token (refresh token rotation rule) without loading user from database.
+        // https://auth0.com/docs/secure/tokens/refresh-tokens/refresh-token-rotation
+        // signing time is recorded as token.sign stage (AuthMetrics).
+        RefreshTokenService.TokenPair tokens = authMetrics.time(AuthStage.TOKEN_SIGN, () -> refreshTokenService.login(
+                user.getUsername(), // user.getUsername() will get email as I added in loadUserByUsername method of UserServiceImpl class
+                user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()),
+                request.getRequestURL().toString()));
+        String accessToken = tokens.getAccessToken();
+        String refreshToken = tokens.getRefreshToken();
 
 
 
@@ -141,11 +266,6 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
         new ObjectMapper().writeValue(response.getOutputStream(), tokens);
         */
 
-        // we can return tokens back in body with json format by using java object
-        TokenResponse tokenObject = new TokenResponse();
-        tokenObject.setAccessToken(accessToken);
-        tokenObject.setRefreshToken(refreshToken);
-
         /**
          * we can create custom response class for response (eg. class include these fields - status, message, access token, refresh token, etc).
          * So that frontend developer will know that whether token is expired or format wrong or etc.
@@ -153,9 +273,11 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
          * Here is demo project, so, I don't go with custom class and this is for testing purpose.
          */
 
-        // return access token and refresh token after login was successful by using output stream.
-        // Actually, response object already return, but we need to define what data we will return (eg. token) and what type (eg. json) we will return back.
-        new ObjectMapper().writeValue(response.getOutputStream(), tokenObject);
+        // return access token and refresh token after login was successful by using output stream, eg. {"accessToken":"...","refreshToken":"..."}
+        // json is streamed by shared JsonResponseWriter, we don't create new ObjectMapper and TokenResponse object for every login anymore.
+        long writeStart = System.nanoTime();
+        jsonResponseWriter.writeTokens(response, accessToken, refreshToken);
+        authMetrics.record(AuthStage.RESPONSE_WRITE, writeStart);
 
     }
 
@@ -177,17 +299,6 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
          * Here is demo project, so, I don't go with custom class and this is for testing purpose.
          */
 
-        Map<String, String> errorMap = new HashMap<>();
-        errorMap.put("error", failed.getMessage());
-        new ObjectMapper().writeValue(response.getOutputStream(), errorMap);
+        jsonResponseWriter.writeError(response, failed.getMessage()); // {"error": message}
     }
 }
-
-// we can create new separate class for TokenResponse rather than inside in this class.
-// Because it's duplicate with other TokenResponse class which is inside UserController class.
-// If we separate class, we don't need to create inner class in both this class and UserController class too, so that we can decrease large amount of code.
-@Data
-class TokenResponse{
-    private String accessToken;
-    private String refreshToken;
-}
@@ -1,15 +1,21 @@
 package pers.yewin.springsecurityjwt.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.metrics.AuthStage;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.security.RoleRegistry;
+import pers.yewin.springsecurityjwt.security.TokenRevocationService;
+import pers.yewin.springsecurityjwt.security.VerifiedAuthentication;
+import pers.yewin.springsecurityjwt.security.VerifiedTokenCache;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -17,14 +23,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
-import static java.util.Arrays.stream;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
-import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 /**
  * @author: Ye Win
@@ -34,7 +39,36 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
  */
 
 @Slf4j // for logging
+@RequiredArgsConstructor // inject final jwtTokenService, verifiedTokenCache, roleRegistry, tokenRevocationService, jsonResponseWriter and authMetrics by creating constructor based dependency injection instead of using @Autowire
 public class CustomAuthorizationFilter extends OncePerRequestFilter { // OncePerRequestFilter will check for every api request.
+
+    private final JwtTokenService jwtTokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RoleRegistry roleRegistry;
+    private final TokenRevocationService tokenRevocationService;
+    private final JsonResponseWriter jsonResponseWriter;
+    private final AuthMetrics authMetrics;
+
+    // include space behind Bearer as key will follow after space
+    private static final String BEARER = "Bearer ";
+
+    // login api, token refresh api and jwks (public keys) don't need access token, one hash set look up instead of comparing path one by one.
+    private static final Set<String> BYPASS_PATHS = new HashSet<>(Arrays.asList("/login", "/user/token/refresh", "/.well-known/jwks.json"));
+
+    // OncePerRequestFilter build this name (filter name + suffix) for every request, we give constant name instead.
+    private static final String ALREADY_FILTERED_ATTRIBUTE = CustomAuthorizationFilter.class.getName() + ALREADY_FILTERED_SUFFIX;
+
+    /**
+     * This filter run for every api request, so request with valid (already verified) token should not create new objects.
+     * That's why, token is not cut from header (no substring) for cache look up, authorities are shared objects from RoleRegistry
+     * and paths and names are prepared one time in above constants.
+     */
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return ALREADY_FILTERED_ATTRIBUTE;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain) throws ServletException, IOException {
         try {
@@ -53,49 +87,89 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter { // OncePer
             // check for login api endpoint or not,
             // if login api or token refresh api, we let them authenticate in CustomAuthenticationFilter for login authentication whether success or not.
             // if not login or token/refresh, we will do for authorization (decide what role will get permission for which api endpoints) by checking JWT by separating (decoding) username and  roles from that JWT.
-            if (httpServletRequest.getServletPath().equals("/login") || httpServletRequest.getServletPath().equals("/user/token/refresh")) {
+            if (BYPASS_PATHS.contains(httpServletRequest.getServletPath())) {
 
                 // to keep working login and token refresh api process
                 // if login, it will go to CustomAuthenticationFilter class and return tokens and if not so, it will go to token/refresh api.
                 filterChain.doFilter(httpServletRequest, httpServletResponse);
             } else {
                 String authorizationHeader = httpServletRequest.getHeader(AUTHORIZATION);
-                String bearer = "Bearer "; // include space behind Bearer as key will follow after space
 
                 // check to make sure token key from header is starting with Bearer
-                if (authorizationHeader != null && authorizationHeader.startsWith(bearer)) {
-                    String token = authorizationHeader.substring(bearer.length()); // cut header for starting bearer keyword and take all key text behind bearer by substring method.
-
-                    /**
-                     * you can declare below password key (secret) with final static field under utility constant class,
-                     * so that can be use in other place like token/refresh api, CustomAuthenticationFilter class, etc.
-                     * So that you can easily change it in one place if you want (that will impact to others as all place use that field value)
-                     * and you don't need to worry about secret mismatched case.
-                     * if not, you need to re-write for same value in others place like token/refresh api and CustomAuthenticationFilter class, and so, it can get typing wrong and it will lead duplicate same code.
-                     */
-
-                    // create algorithm object by password key that password key must need to be same with Token generating secret key. which is generated in CustomAuthenticationFilter class.
-                    Algorithm algorithm = Algorithm.HMAC256("MyAppSecurityPassword".getBytes());
-                    JWTVerifier jwtVerifier = JWT.require(algorithm).build(); // create JWT verify with algorithm to verify user input token.
-                    DecodedJWT decodedJWT = jwtVerifier.verify(token); // decode token
+                if (authorizationHeader != null && authorizationHeader.startsWith(BEARER)) {
+
+                    // if same token was already verified before, we take authentication from cache and skip signature verification and claim parsing.
+                    // token is looked up directly from header text behind Bearer (without substring).
+                    // token of retired key (see JwtTokenService.retireKey) is verified again, and it is rejected there.
+                    VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(authorizationHeader, BEARER.length());
+                    if (verifiedToken != null && jwtTokenService.hasKey(verifiedToken.getKeyId())) {
+                        authMetrics.tokenVerified(AuthMetrics.OUTCOME_CACHED); // counter only, no time is recorded for cached path
+                        SecurityContextHolder.getContext().setAuthentication(verifiedToken.getAuthentication());
+                        filterChain.doFilter(httpServletRequest, httpServletResponse); // to keep working other APIs process.
+                        return;
+                    }
+
+                    String token = authorizationHeader.substring(BEARER.length()); // cut header for starting bearer keyword and take all key text behind bearer by substring method.
+
+                    // verify token with shared verifier in JwtTokenService, verifier is chosen by key id (kid) in token header.
+                    // we don't create algorithm and verifier for every request anymore as this method is running for every api request.
+                    // verify time and result (success, expired, bad_signature, etc.) are recorded by AuthMetrics.
+                    long verifyStart = System.nanoTime();
+                    DecodedJWT decodedJWT;
+                    try {
+                        decodedJWT = jwtTokenService.verify(token); // decode token
+                    } catch (JWTVerificationException e) {
+                        authMetrics.record(AuthStage.TOKEN_VERIFY, verifyStart);
+                        authMetrics.tokenVerified(AuthMetrics.outcomeOf(e));
+                        throw e;
+                    }
+                    // revoked token (by token id or all tokens of user) is rejected before it was expired.
+                    // bloom filter in memory answer almost all requests, database is checked only when bloom filter say "maybe revoked".
+                    // cached tokens don't need this check because revoked tokens are removed from verified token cache.
+                    // revocation epoch is taken before the check, see below when token is put into cache.
+                    long revocationEpoch = tokenRevocationService.getRevocationEpoch();
+                    boolean revoked = tokenRevocationService.isRevoked(decodedJWT);
+                    authMetrics.record(AuthStage.TOKEN_VERIFY, verifyStart);
+                    authMetrics.tokenVerified(revoked ? AuthMetrics.OUTCOME_REVOKED : AuthMetrics.OUTCOME_SUCCESS);
+                    if (revoked) {
+                        throw new JWTVerificationException("The Token has been revoked.");
+                    }
                     String email = decodedJWT.getSubject(); // subject will be email as we gave that in CustomAuthenticationFilter class.
 
-                    // retrieve roles from claim by using key 'roles' as we gave that in CustomAuthenticationFilter class.
-                    String [] roles = decodedJWT.getClaim("roles").asArray(String.class); // we gave that as String array (Authorities), so we need to convert to String array when we pull that roles.
+                    Collection<? extends GrantedAuthority> authorities = null;
+                    Claim roleBits = decodedJWT.getClaim(JwtTokenService.ROLE_BITS_CLAIM);
+                    if (!roleBits.isNull()) {
+                        // new tokens carry role bits, registry give shared authorities list which was already built for those bits (no new objects for every request).
+                        authorities = roleRegistry.authoritiesOf(roleBits.asLong());
+                    } else {
+                        // old tokens (created before role bits) carry role names, so they still work until they were expired.
+                        // retrieve roles from claim by using key 'roles' as we gave that in CustomAuthenticationFilter class.
+                        String [] roles = decodedJWT.getClaim(JwtTokenService.ROLES_CLAIM).asArray(String.class); // we gave that as String array (Authorities), so we need to convert to String array when we pull that roles.
+                        if (roles != null) {
+                            Collection<GrantedAuthority> roleAuthorities = new ArrayList<>(roles.length);
+                            for (String role : roles) {
+                                roleAuthorities.add(roleRegistry.authorityOf(role)); // convert string array roles to GrantedAuthority list (authorities) because spring framework only know this object for permission authorities cases.
+                            }
+                            authorities = roleAuthorities;
+                        }
+                    }
 
                     // check if roles is null or not empty for user.
-                    if(roles != null && roles.length != 0) {
-
-                        Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
-
-                        stream(roles).forEach(role -> {
-                            authorities.add(new SimpleGrantedAuthority(role)); // convert string array roles to SimpleGrantedAuthority list (authorities) because spring framework only know this object for permission authorities cases.
-                        });
-
-                        // we set email instead of username as our application use email for unique identifier, and we don't need to know password as it's already authenticated, so we put null ,and we add authorities which included roles.
-                        UsernamePasswordAuthenticationToken usrNamePwdAuthenticationToken = new UsernamePasswordAuthenticationToken(email, null, authorities);
+                    if(authorities != null && !authorities.isEmpty()) {
+
+                        // we set email instead of username as our application use email for unique identifier, and we don't need to know password as it's already authenticated, and we add authorities which included roles.
+                        // authentication can't be changed, so it can be shared by all requests of this token (see VerifiedAuthentication).
+                        VerifiedAuthentication authentication = new VerifiedAuthentication(email, authorities);
+                        // keep verified token until it was expired, so next request with same token will not verify again.
+                        verifiedTokenCache.put(authorizationHeader, BEARER.length(), decodedJWT, authentication);
+                        // if token was revoked after our check, revocation could evict cache before we put this token,
+                        // so when epoch was changed, we check again and remove our entry.
+                        if (tokenRevocationService.getRevocationEpoch() != revocationEpoch && tokenRevocationService.isRevoked(decodedJWT)) {
+                            verifiedTokenCache.invalidate(authorizationHeader, BEARER.length());
+                            throw new JWTVerificationException("The Token has been revoked.");
+                        }
                         // put authenticated token into spring security context, means we let spring security know, to do for authorization (decide what role will get permission for which api endpoints)
-                        SecurityContextHolder.getContext().setAuthentication(usrNamePwdAuthenticationToken);
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
                         filterChain.doFilter(httpServletRequest, httpServletResponse); // to keep working other APIs process.
 
                     }else {
@@ -125,12 +199,6 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter { // OncePer
             httpServletResponse.setStatus(FORBIDDEN.value());
 //            httpServletResponse.sendError(FORBIDDEN.value());
 
-            Map<String, String> errorJson = new HashMap<>();
-            errorJson.put("error: ", e.getMessage());
-            errorJson.put("code: ", String.valueOf(FORBIDDEN.value()));
-            errorJson.put("message: ", "Your input token is something wrong");
-            httpServletResponse.setContentType(APPLICATION_JSON_VALUE); // set return value as json type to show return value in body part.
-
             /**
              * we can create custom response class for response (eg. response class may include these fields - status, message, access token, refresh token, etc).
              * So that frontend developer will know that whether token is expired or format wrong or etc.
@@ -138,8 +206,10 @@ public class CustomAuthorizationFilter extends OncePerRequestFilter { // OncePer
              * Here is demo project, so, I don't go with custom class and this is for testing purpose.
              */
 
-            // return json type data by writing output stream to httpServletResponse
-            new ObjectMapper().writeValue(httpServletResponse.getOutputStream(), errorJson);
+            // return json type data by writing output stream to httpServletResponse,
+            // eg. {"code: ":"403","message: ":"Your input token is something wrong","error: ":"The Token has expired on ..."}
+            // fixed part of that body was already encoded when application was started, only error message is written for every response.
+            jsonResponseWriter.writeInvalidToken(httpServletResponse, e.getMessage());
         }
     }
 }
@@ -0,0 +1,109 @@
+package pers.yewin.springsecurityjwt.filter;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import pers.yewin.springsecurityjwt.metrics.ServerTiming;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.filter
+ */
+
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    /**
+     * add Server-Timing header (https://www.w3.org/TR/server-timing/) to every response, eg.
+     * Server-Timing: verify;dur=0.4, total;dur=12.7  or  Server-Timing: db;dur=3.1, bcrypt;dur=81.2, sign;dur=0.9, total;dur=86.4
+     * this filter run before spring security filters (see MetricsConfig), so that total include token check and login.
+     *
+     * header must be added before response body was started, so header is added when body writing start (getOutputStream, getWriter)
+     * or after request was finished if response has no body.
+     * stages which were still running at that time (eg. response.write) are only in actuator metrics.
+     */
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // controller apis return CompletableFuture, their response is written in async dispatch.
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ServerTiming serverTiming = ServerTiming.of(request); // same timing for first dispatch and async dispatch of same request
+        ServerTimingResponse serverTimingResponse = new ServerTimingResponse(response, serverTiming);
+        ServerTiming previous = ServerTiming.bind(request);
+        try {
+            filterChain.doFilter(request, serverTimingResponse);
+        } finally {
+            ServerTiming.unbind(previous);
+            if (!request.isAsyncStarted()) {
+                serverTimingResponse.addHeaderOnce(); // response without body (eg. 200 with empty body)
+            }
+        }
+    }
+
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final ServerTiming serverTiming;
+        // login response is written by login bulkhead thread (or by async timeout thread), not by servlet thread which created this wrapper.
+        private final AtomicBoolean headerAdded = new AtomicBoolean();
+
+        private ServerTimingResponse(HttpServletResponse response, ServerTiming serverTiming) {
+            super(response);
+            this.serverTiming = serverTiming;
+        }
+
+        private void addHeaderOnce() {
+            if (!isCommitted() && headerAdded.compareAndSet(false, true)) {
+                setHeader(ServerTiming.HEADER, serverTiming.toHeaderValue());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addHeaderOnce();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addHeaderOnce();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addHeaderOnce();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addHeaderOnce();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addHeaderOnce();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addHeaderOnce();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package pers.yewin.springsecurityjwt.metrics;
+
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.metrics
+ */
+
+@Component
+public class AuthMetrics {
+
+    /**
+     * timers and counters for each stage of login and authenticated api requests, exported by actuator (/actuator/prometheus, /actuator/metrics).
+     * auth.stage{stage}            -> time of each stage (see AuthStage), with percentile histogram
+     * auth.token.verify{outcome}   -> result of access token check in CustomAuthorizationFilter (cached, success, expired, bad_signature, ...)
+     * auth.login{outcome}          -> whole /login time (success, failure, rejected, timeout, aborted, throttled), with percentile histogram
+     * latency of UserController apis is recorded by spring boot as http.server.requests{uri} (histogram is enabled in application.properties).
+     *
+     * all meters are created only one time here, so recording don't create objects (CustomAuthorizationFilter cached path must not allocate).
+     * stage time is also added into Server-Timing header of current request (see ServerTiming).
+     */
+
+    public static final String OUTCOME_CACHED = "cached";
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_EXPIRED = "expired";
+    public static final String OUTCOME_BAD_SIGNATURE = "bad_signature";
+    public static final String OUTCOME_MALFORMED = "malformed";
+    public static final String OUTCOME_REVOKED = "revoked";
+    public static final String OUTCOME_INVALID = "invalid";
+
+    public static final String LOGIN_SUCCESS = "success";
+    public static final String LOGIN_FAILURE = "failure";
+    public static final String LOGIN_REJECTED = "rejected";
+    public static final String LOGIN_TIMEOUT = "timeout";
+    public static final String LOGIN_ABORTED = "aborted"; // client closed connection before login was finished
+    public static final String LOGIN_THROTTLED = "throttled";
+
+    private static final String[] VERIFY_OUTCOMES = {OUTCOME_CACHED, OUTCOME_SUCCESS, OUTCOME_EXPIRED, OUTCOME_BAD_SIGNATURE,
+            OUTCOME_MALFORMED, OUTCOME_REVOKED, OUTCOME_INVALID};
+    private static final String[] LOGIN_OUTCOMES = {LOGIN_SUCCESS, LOGIN_FAILURE, LOGIN_REJECTED, LOGIN_TIMEOUT, LOGIN_ABORTED, LOGIN_THROTTLED};
+
+    private final Timer[] stageTimers;
+    private final Map<String, Counter> verifyCounters = new HashMap<>();
+    private final Map<String, Timer> loginTimers = new HashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        AuthStage[] stages = AuthStage.values();
+        stageTimers = new Timer[stages.length];
+        for (AuthStage stage : stages) {
+            stageTimers[stage.ordinal()] = Timer.builder("auth.stage")
+                    .description("time of each authentication stage")
+                    .tag("stage", stage.getTagValue())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+        for (String outcome : VERIFY_OUTCOMES) {
+            verifyCounters.put(outcome, Counter.builder("auth.token.verify")
+                    .description("access token checks by result")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        for (String outcome : LOGIN_OUTCOMES) {
+            loginTimers.put(outcome, Timer.builder("auth.login")
+                    .description("time of /login requests by result")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    // record stage which was started at startNanos (System.nanoTime()) and finished now.
+    public void record(AuthStage stage, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        stageTimers[stage.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        ServerTiming serverTiming = ServerTiming.current();
+        if (serverTiming != null) {
+            serverTiming.add(stage, nanos);
+        }
+    }
+
+    public <T> T time(AuthStage stage, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(stage, start);
+        }
+    }
+
+    public void tokenVerified(String outcome) {
+        verifyCounters.get(outcome).increment();
+    }
+
+    public void login(String outcome, long startNanos) {
+        loginTimers.get(outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // outcome tag for exception which was thrown by JwtTokenService.verify
+    public static String outcomeOf(Exception e) {
+        if (e instanceof TokenExpiredException) {
+            return OUTCOME_EXPIRED;
+        }
+        if (e instanceof SignatureVerificationException || e instanceof AlgorithmMismatchException) {
+            return OUTCOME_BAD_SIGNATURE;
+        }
+        if (e instanceof JWTDecodeException) {
+            return OUTCOME_MALFORMED;
+        }
+        return OUTCOME_INVALID;
+    }
+
+    /**
+     * password encoder which record BCrypt password check time (matches) of login, encoding is not recorded.
+     */
+    public PasswordEncoder timed(PasswordEncoder passwordEncoder) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                long start = System.nanoTime();
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    record(AuthStage.PASSWORD_MATCH, start);
+                }
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return passwordEncoder.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package pers.yewin.springsecurityjwt.metrics;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.metrics
+ */
+
+public enum AuthStage {
+
+    /**
+     * stages of login and authenticated api requests,
+     * metric name is auth.stage with stage tag (eg. auth.stage{stage="password.match"}),
+     * server timing name is short name in Server-Timing response header (eg. Server-Timing: bcrypt;dur=81.2).
+     */
+
+    TOKEN_VERIFY("token.verify", "verify"),         // signature and claims check in CustomAuthorizationFilter
+    USER_LOAD("user.load", "db"),                    // loadUserByUsername database time (cache miss only)
+    PASSWORD_MATCH("password.match", "bcrypt"),      // BCrypt password check of login
+    TOKEN_SIGN("token.sign", "sign"),                // creating access and refresh token in successfulAuthentication
+    RESPONSE_WRITE("response.write", "write");       // writing token json into response
+
+    private final String tagValue;
+    private final String serverTimingName;
+
+    AuthStage(String tagValue, String serverTimingName) {
+        this.tagValue = tagValue;
+        this.serverTimingName = serverTimingName;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    public String getServerTimingName() {
+        return serverTimingName;
+    }
+}
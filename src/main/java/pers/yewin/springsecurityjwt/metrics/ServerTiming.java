@@ -0,0 +1,96 @@
+package pers.yewin.springsecurityjwt.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.metrics
+ */
+
+public final class ServerTiming {
+
+    /**
+     * stage durations of one request, they are written as Server-Timing response header (see ServerTimingFilter),
+     * so that browser dev tools (or curl -i) can show where time of that request was spent, eg.
+     * Server-Timing: db;dur=3.1, bcrypt;dur=81.2, sign;dur=0.9, total;dur=86.4
+     *
+     * object is kept in request attribute (request can move to login bulkhead thread or async dispatch thread),
+     * and it is bound to current thread while that thread is working for request, so that AuthMetrics can find it.
+     */
+
+    public static final String HEADER = "Server-Timing";
+
+    private static final String ATTRIBUTE = ServerTiming.class.getName();
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private static final AuthStage[] STAGES = AuthStage.values();
+
+    private final long startNanos = System.nanoTime();
+
+    // duration of each stage by ordinal, same stage is added if it run more than one time.
+    private final long[] stageNanos = new long[STAGES.length];
+
+    private ServerTiming() {
+    }
+
+    // timing of request, created when request come first time.
+    public static ServerTiming of(HttpServletRequest request) {
+        ServerTiming timing = (ServerTiming) request.getAttribute(ATTRIBUTE);
+        if (timing == null) {
+            timing = new ServerTiming();
+            request.setAttribute(ATTRIBUTE, timing);
+        }
+        return timing;
+    }
+
+    // bind timing of request to current thread, return previous timing to restore by unbind.
+    public static ServerTiming bind(HttpServletRequest request) {
+        ServerTiming previous = CURRENT.get();
+        CURRENT.set(of(request));
+        return previous;
+    }
+
+    public static void unbind(ServerTiming previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // null if current thread is not working for request (eg. scheduler, tests).
+    static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    synchronized void add(AuthStage stage, long nanos) {
+        stageNanos[stage.ordinal()] += nanos;
+    }
+
+    /**
+     * header value, only stages which were run are written, total is time from request start until now.
+     */
+    public synchronized String toHeaderValue() {
+        StringBuilder builder = new StringBuilder(96);
+        for (AuthStage stage : STAGES) {
+            long nanos = stageNanos[stage.ordinal()];
+            if (nanos > 0) {
+                append(builder, stage.getServerTimingName(), nanos);
+            }
+        }
+        append(builder, "total", System.nanoTime() - startNanos);
+        return builder.toString();
+    }
+
+    private static void append(StringBuilder builder, String name, long nanos) {
+        if (builder.length() > 0) {
+            builder.append(", ");
+        }
+        // milliseconds with one decimal place, eg. 81.2
+        long tenths = nanos / 100_000;
+        builder.append(name).append(";dur=").append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
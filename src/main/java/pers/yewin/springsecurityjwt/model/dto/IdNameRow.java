@@ -0,0 +1,21 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+public interface IdNameRow {
+
+    /**
+     * id and unique name (email for users, name for role) projection,
+     * for set based look up of many users or roles by one in query without loading whole entities.
+     */
+
+    Long getId();
+
+    String getName();
+
+}
@@ -0,0 +1,29 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+
+    // response of bulk user import api, one result for every line of import file.
+
+    private int total;
+    private int created;
+    private int failed;
+    private List<ImportRowResult> rows = new ArrayList<>();
+
+}
@@ -0,0 +1,28 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String FAILED = "FAILED";
+
+    private int line; // line number of import file (start from 1)
+    private String email;
+    private String status; // CREATED or FAILED
+    private Long id; // id of created user
+    private String error; // reason when status is FAILED
+
+}
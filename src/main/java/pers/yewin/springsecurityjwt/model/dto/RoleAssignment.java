@@ -0,0 +1,24 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignment {
+
+    // one (email, roleName) pair of batch add roles to users api.
+
+    private String email;
+    private String roleName;
+
+}
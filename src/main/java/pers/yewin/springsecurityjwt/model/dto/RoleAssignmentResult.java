@@ -0,0 +1,27 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleAssignmentResult {
+
+    public static final String ADDED = "ADDED";
+    public static final String FAILED = "FAILED";
+
+    private String email;
+    private String roleName;
+    private String status; // ADDED or FAILED
+    private String error; // reason when status is FAILED
+
+}
@@ -0,0 +1,18 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+public interface UserRoleIdRow {
+
+    // one row of users_role_list (role of user), without loading user and role entities.
+
+    Long getUserId();
+
+    Long getRoleId();
+
+}
@@ -0,0 +1,28 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+public interface UserRoleRow {
+
+    /**
+     * one row of user and role join query (projection), one user with 3 roles will come as 3 rows.
+     * roleName will be null for user who don't have any role.
+     * we don't select password here, so password hash never come out from read apis.
+     */
+
+    Long getId();
+
+    String getName();
+
+    String getEmail();
+
+    Long getVersion(); // version of user (for ETag), same in all rows of one user
+
+    String getRoleName();
+
+}
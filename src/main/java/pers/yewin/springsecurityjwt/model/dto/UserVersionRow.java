@@ -0,0 +1,18 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+public interface UserVersionRow {
+
+    // id and version of user only (no name, email and roles), enough to build ETag of get user apis for If-None-Match check.
+
+    Long getId();
+
+    Long getVersion();
+
+}
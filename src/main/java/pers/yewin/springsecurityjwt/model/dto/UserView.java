@@ -0,0 +1,32 @@
+package pers.yewin.springsecurityjwt.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.dto
+ */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserView {
+
+    // lean read object for get apis, we don't return Users entity (with password hash) to client.
+
+    private Long id;
+    private String name;
+    private String email;
+    @JsonIgnore // not in response body, it is sent as ETag header (see UserVersions)
+    private long version;
+    private List<String> roles = new ArrayList<>();
+
+}
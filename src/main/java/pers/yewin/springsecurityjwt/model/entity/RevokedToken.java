@@ -0,0 +1,43 @@
+package pers.yewin.springsecurityjwt.model.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.model.entity
+ */
+
+@Entity
+@Table(name = "revoked_token") // table is created by flyway migration (V4__revoked_token.sql)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    // "jti:" + token id for one token, or "sub:" + email for all tokens of user which were issued before issuedBefore.
+    @Id
+    @Column(name = "token_key")
+    private String tokenKey;
+
+    // only for "sub:" revocation, tokens with issued at (iat) time before or equal this time (millis) are revoked.
+    @Column(name = "issued_before")
+    private Long issuedBefore;
+
+    // after this time (millis), all revoked tokens were already expired, so row is deleted and key is not added to bloom filter anymore.
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    // time (millis) of revocation, other instances take new revocations by this time (V5__revoked_token_revoked_at.sql).
+    @Column(name = "revoked_at", nullable = false)
+    private long revokedAt;
+
+}
@@ -8,6 +8,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 /**
  * @author: Ye Win
@@ -17,6 +19,7 @@ import javax.persistence.Id;
  */
 
 @Entity
+@Table(name = "role", uniqueConstraints = @UniqueConstraint(name = "ux_role_name", columnNames = "name")) // unique index is created by flyway migration (V2__unique_indexes.sql)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,7 @@
 package pers.yewin.springsecurityjwt.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,18 +18,33 @@ import java.util.Collection;
  */
 
 @Entity
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "ux_users_email", columnNames = "email")) // unique index is created by flyway migration (V2__unique_indexes.sql)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Users {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // pooled id generator, hibernate take 50 ids by one round trip (not one round trip for every insert) and that let jdbc batch inserts work for bulk import.
+    // users_seq is created by flyway migration (V3__users_pooled_id.sql), allocationSize must be same with sequence increment.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String email;
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // read password from create user request, but never write password hash back in response.
     private String password;
     @ManyToMany(fetch = FetchType.EAGER) // many users can have many roles, (one user can have many roles, one role can have many users)
+    @JoinTable(name = "users_role_list", uniqueConstraints = @UniqueConstraint(name = "pk_users_role_list", columnNames = {"users_id", "role_list_id"})) // same role can't add two times to same user
     private Collection<Role> roleList = new ArrayList<>();
+    // increased by hibernate for every update of user, and by UserServiceImpl for role changes (roles are inserted by sql), see V6__users_version.sql.
+    // ETag of get user apis come from this version, client can't give it.
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    public Users(Long id, String name, String email, String password, Collection<Role> roleList) {
+        this(id, name, email, password, roleList, null); // new user, version is set by hibernate when it was inserted
+    }
 
     // you can add createdDate and updatedDate, description, address, phone, etc. fields, here I don't add those fields as this is demo project.
 
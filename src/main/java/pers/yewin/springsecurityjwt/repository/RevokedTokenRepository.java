@@ -0,0 +1,33 @@
+package pers.yewin.springsecurityjwt.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pers.yewin.springsecurityjwt.model.entity.RevokedToken;
+
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.repository
+ */
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // revocations which are still needed (some revoked tokens are not expired yet), to build bloom filter.
+    @Query("select r.tokenKey from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveKeys(@Param("now") long now);
+
+    // revocations which were saved (by any instance) at or after given time and are still needed.
+    @Query("select r from RevokedToken r where r.revokedAt >= :since and r.expiresAt > :now")
+    List<RevokedToken> findRevokedSince(@Param("since") long since, @Param("now") long now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
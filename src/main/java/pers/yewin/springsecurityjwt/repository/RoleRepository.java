@@ -1,8 +1,14 @@
 package pers.yewin.springsecurityjwt.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pers.yewin.springsecurityjwt.model.dto.IdNameRow;
 import pers.yewin.springsecurityjwt.model.entity.Role;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author: Ye Win
  * @created: 28/08/2021
@@ -12,4 +18,8 @@ import pers.yewin.springsecurityjwt.model.entity.Role;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Role findByName(String name);
+
+    // ids of many roles by one in query (for batch add roles to users api).
+    @Query("select r.id as id, r.name as name from Role r where r.name in :names")
+    List<IdNameRow> findIdsByNames(@Param("names") Collection<String> names);
 }
@@ -1,8 +1,19 @@
 package pers.yewin.springsecurityjwt.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pers.yewin.springsecurityjwt.model.dto.IdNameRow;
+import pers.yewin.springsecurityjwt.model.dto.UserRoleIdRow;
+import pers.yewin.springsecurityjwt.model.dto.UserRoleRow;
+import pers.yewin.springsecurityjwt.model.dto.UserVersionRow;
 import pers.yewin.springsecurityjwt.model.entity.Users;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author: Ye Win
  * @created: 28/08/2021
@@ -12,4 +23,64 @@ import pers.yewin.springsecurityjwt.model.entity.Users;
 
 public interface UsersRepository extends JpaRepository<Users, Long> {
     Users findByEmail(String name);
+
+    boolean existsByEmail(String email);
+
+    // number of users in one email domain, eg. '@seed.local' for users of LargeDatasetSeeder.
+    long countByEmailEndingWith(String suffix);
+
+    // which emails are already in database, one in query for one chunk of bulk import instead of one select for every row.
+    @Query("select u.email from Users u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // ids of many users by one in query, email is returned as name (for batch add roles to users api).
+    @Query("select u.id as id, u.email as name from Users u where u.email in :emails")
+    List<IdNameRow> findIdsByEmails(@Param("emails") Collection<String> emails);
+
+    // roles which given users already have, by one query instead of loading role list of every user.
+    @Query("select u.id as userId, r.id as roleId from Users u join u.roleList r where u.id in :userIds")
+    List<UserRoleIdRow> findUserRoleIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * add role to user by one insert statement (without loading user and role first).
+     * it return 0 if user or role is not found, and throw DataIntegrityViolationException if that role was already added to user (primary key of users_role_list).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "insert into users_role_list (users_id, role_list_id) " +
+            "select u.id, r.id from users u, role r where u.email = :email and r.name = :roleName", nativeQuery = true)
+    int insertUserRole(@Param("email") String email, @Param("roleName") String roleName);
+
+    // user's roles were changed by above sql insert (hibernate don't know), so we increase version of user for ETag of get user apis.
+    @Modifying
+    @Transactional
+    @Query("update Users u set u.version = u.version + 1 where u.email = :email")
+    int increaseVersion(@Param("email") String email);
+
+    // user and role names by one join query, for get user by email api.
+    @Query("select u.id as id, u.name as name, u.email as email, u.version as version, r.name as roleName " +
+            "from Users u left join u.roleList r where u.email = :email")
+    List<UserRoleRow> findUserRowsByEmail(@Param("email") String email);
+
+    /**
+     * keyset pagination, take next users after given id, so database can use primary key index and don't need to skip (offset) rows for deep page.
+     * users page is taken in sub query first and then join with roles, so that limit is applied to users (not to user and role rows)
+     * and all users with their role names come in one query instead of one query for users and one more query for roles of every user (N+1).
+     */
+    @Query(value = "select u.id as id, u.name as name, u.email as email, u.version as version, r.name as roleName " +
+            "from (select id, name, email, version from users where id > :lastId order by id limit :limit) u " +
+            "left join users_role_list ur on ur.users_id = u.id " +
+            "left join role r on r.id = ur.role_list_id " +
+            "order by u.id", nativeQuery = true)
+    List<UserRoleRow> findUserRowsAfter(@Param("lastId") Long lastId, @Param("limit") int limit);
+
+    /**
+     * id and version only, for If-None-Match check of get user apis before above join queries.
+     * same users (where and limit) as findUserRowsByEmail and findUserRowsAfter, but one row per user and no join with roles.
+     */
+    @Query("select u.id as id, u.version as version from Users u where u.email = :email")
+    UserVersionRow findVersionByEmail(@Param("email") String email);
+
+    @Query(value = "select id as id, version as version from users where id > :lastId order by id limit :limit", nativeQuery = true)
+    List<UserVersionRow> findVersionsAfter(@Param("lastId") Long lastId, @Param("limit") int limit);
 }
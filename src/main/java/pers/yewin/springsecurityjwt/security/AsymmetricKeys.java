@@ -0,0 +1,129 @@
+package pers.yewin.springsecurityjwt.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+final class AsymmetricKeys {
+
+    /**
+     * load key pair for RS256 (RSA) or ES256 (EC P-256) signing from key store, or generate new one if key store is not configured.
+     * and convert public key to JSON Web Key (RFC 7517) for JWKS endpoint.
+     *
+     * you can create key store by keytool, eg.
+     * keytool -genkeypair -alias jwt -keyalg RSA -keysize 2048 -storetype PKCS12 -keystore jwt.p12 -validity 3650
+     * keytool -genkeypair -alias jwt -keyalg EC -groupname secp256r1 -storetype PKCS12 -keystore jwt.p12 -validity 3650
+     */
+
+    private static final int P256_COORDINATE_LENGTH = 32;
+
+    private AsymmetricKeys() {
+    }
+
+    static KeyPair load(String algorithm, JwtProperties.KeyStore keyStore) {
+        if (!JwtTokenService.RS256.equals(algorithm) && !JwtTokenService.ES256.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported jwt algorithm: " + algorithm + ", please use HS256, RS256 or ES256.");
+        }
+        try {
+            if (!StringUtils.hasText(keyStore.getLocation())) {
+                log.warn("jwt key store is not configured, new {} key pair is generated. tokens can't be verified after restart or by other instances.", algorithm);
+                return generate(algorithm);
+            }
+            return fromKeyStore(keyStore);
+        } catch (GeneralSecurityException | IOException e) {
+            throw new IllegalStateException("Can't load jwt signing key for " + algorithm, e);
+        }
+    }
+
+    private static KeyPair generate(String algorithm) throws GeneralSecurityException {
+        if (JwtTokenService.RS256.equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    private static KeyPair fromKeyStore(JwtProperties.KeyStore properties) throws GeneralSecurityException, IOException {
+        char[] storePassword = properties.getPassword() == null ? null : properties.getPassword().toCharArray();
+        char[] keyPassword = StringUtils.hasText(properties.getKeyPassword()) ? properties.getKeyPassword().toCharArray() : storePassword;
+
+        KeyStore keyStore = KeyStore.getInstance(properties.getType());
+        try (InputStream inputStream = ResourceUtils.getURL(properties.getLocation()).openStream()) {
+            keyStore.load(inputStream, storePassword);
+        }
+        Key key = keyStore.getKey(properties.getAlias(), keyPassword);
+        if (!(key instanceof PrivateKey)) {
+            throw new IllegalStateException("Private key is not found in jwt key store by alias: " + properties.getAlias());
+        }
+        PublicKey publicKey = keyStore.getCertificate(properties.getAlias()).getPublicKey();
+        return new KeyPair(publicKey, (PrivateKey) key);
+    }
+
+    static Map<String, Object> toJwk(String algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaPublicKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", algorithm);
+            jwk.put("n", base64Url(unsigned(rsaPublicKey.getModulus())));
+            jwk.put("e", base64Url(unsigned(rsaPublicKey.getPublicExponent())));
+        } else {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            jwk.put("kty", "EC");
+            jwk.put("use", "sig");
+            jwk.put("alg", algorithm);
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(fixedLength(ecPublicKey.getW().getAffineX())));
+            jwk.put("y", base64Url(fixedLength(ecPublicKey.getW().getAffineY())));
+        }
+        return jwk;
+    }
+
+    // BigInteger.toByteArray can have leading zero byte for sign, JWK want unsigned big endian bytes.
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    // EC coordinates must be always 32 bytes for P-256 (with leading zero bytes).
+    private static byte[] fixedLength(BigInteger value) {
+        byte[] bytes = unsigned(value);
+        byte[] result = new byte[P256_COORDINATE_LENGTH];
+        System.arraycopy(bytes, 0, result, P256_COORDINATE_LENGTH - bytes.length, bytes.length);
+        return result;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
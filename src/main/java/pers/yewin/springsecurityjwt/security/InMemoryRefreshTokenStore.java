@@ -0,0 +1,120 @@
+package pers.yewin.springsecurityjwt.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+@ConditionalOnProperty(name = "refresh-token.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    /**
+     * refresh token families in memory of this application instance.
+     * families are lost when application was restarted, refresh tokens of lost families are handled like old tokens (roles are loaded from database).
+     * for many instances of application, please use shared store (eg. redis or database) instead.
+     */
+
+    private final Map<String, RefreshTokenFamily> families = new ConcurrentHashMap<>();
+    // family ids of each user, so that role change of one user (clearRoles) don't check families of all users.
+    private final Map<String, Set<String>> familyIdsBySubject = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(RefreshTokenFamily family) {
+        // compute is atomic for one subject, so family id is not lost when purge remove last family of same user at the same time.
+        familyIdsBySubject.compute(family.getSubject(), (subject, familyIds) -> {
+            Set<String> ids = familyIds != null ? familyIds : ConcurrentHashMap.newKeySet();
+            ids.add(family.getFamilyId());
+            return ids;
+        });
+        families.put(family.getFamilyId(), family);
+    }
+
+    @Override
+    public RefreshTokenFamily find(String familyId) {
+        return families.get(familyId);
+    }
+
+    @Override
+    public RefreshTokenFamily rotate(String familyId, String currentTokenId, String newTokenId, long expiresAtMillis) {
+        // computeIfPresent is atomic for one key, so only one of two requests with same refresh token can rotate.
+        RefreshTokenFamily[] rotated = new RefreshTokenFamily[1];
+        families.computeIfPresent(familyId, (id, family) -> {
+            if (family.isRevoked() || !family.getTokenId().equals(currentTokenId)) {
+                return family;
+            }
+            rotated[0] = family.withTokenId(newTokenId).withRotation(family.getRotation() + 1).withExpiresAtMillis(expiresAtMillis);
+            return rotated[0];
+        });
+        return rotated[0];
+    }
+
+    @Override
+    public RefreshTokenFamily fillRoles(String familyId, String tokenId, List<String> roles) {
+        // same atomic check with rotate, family which was revoked or rotated again after our rotation is not changed.
+        RefreshTokenFamily[] filled = new RefreshTokenFamily[1];
+        families.computeIfPresent(familyId, (id, family) -> {
+            if (family.isRevoked() || !family.getTokenId().equals(tokenId)) {
+                return family;
+            }
+            filled[0] = family.withRoles(roles);
+            return filled[0];
+        });
+        return filled[0];
+    }
+
+    @Override
+    public void revokeFamily(String familyId) {
+        // revoked family is kept until it was expired, so that reused tokens of that family are still rejected.
+        families.computeIfPresent(familyId, (id, family) -> family.withRevoked(true));
+    }
+
+    @Override
+    public void clearRoles(String subject) {
+        // only families of this user are changed (bulk role assignment call this method for every user of batch).
+        Set<String> familyIds = familyIdsBySubject.get(subject);
+        if (familyIds == null) {
+            return;
+        }
+        for (String familyId : familyIds) {
+            families.computeIfPresent(familyId, (id, family) -> family.withRoles(null));
+        }
+    }
+
+    @Override
+    public int purgeExpired(long nowMillis) {
+        int removed = 0;
+        for (RefreshTokenFamily family : families.values()) {
+            // remove only same (expired) family object, family which was rotated at the same time is kept.
+            if (family.getExpiresAtMillis() <= nowMillis && families.remove(family.getFamilyId(), family)) {
+                familyIdsBySubject.computeIfPresent(family.getSubject(), (subject, familyIds) -> {
+                    familyIds.remove(family.getFamilyId());
+                    return familyIds.isEmpty() ? null : familyIds;
+                });
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.purge-interval-millis:60000}")
+    public void purge() {
+        int removed = purgeExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            log.info("expired refresh token families were removed: {}", removed);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Component
+public class JsonResponseWriter {
+
+    /**
+     * Filters and token refresh api write json response directly into HttpServletResponse (not through spring mvc).
+     * Before, they created new ObjectMapper() for every response, that is expensive and serializer caches of that mapper are thrown away every time.
+     * This class use spring managed ObjectMapper (one for whole application),
+     * token response is streamed by JsonGenerator (no TokenResponse object and no reflection)
+     * and fixed error bodies are encoded to bytes only one time when application was started.
+     *
+     * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+     * but this is demo project so, I don't do that.
+     */
+
+    // field names of token response, same names with TokenResponse class which we used before.
+    private static final SerializableString ACCESS_TOKEN = new SerializedString("accessToken");
+    private static final SerializableString REFRESH_TOKEN = new SerializedString("refreshToken");
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final JsonFactory jsonFactory;
+
+    // {"error":"Server is busy, please try again later"}
+    private final byte[] serverBusyBody;
+
+    // {"error":"Too many login attempts, please try again later"}
+    private final byte[] tooManyLoginAttemptsBody;
+
+    // {"code: ":"403","message: ":"Your input token is something wrong","error: ":  + error message + }
+    private final byte[] invalidTokenPrefix;
+
+    // {"code: ":"403","message: ":"Your input refresh token is something wrong","error: ":  + error message + }
+    private final byte[] invalidRefreshTokenPrefix;
+
+    public JsonResponseWriter(ObjectMapper objectMapper) throws JsonProcessingException {
+        this.jsonFactory = objectMapper.getFactory();
+
+        Map<String, String> serverBusy = new LinkedHashMap<>();
+        serverBusy.put("error", "Server is busy, please try again later");
+        this.serverBusyBody = objectMapper.writeValueAsBytes(serverBusy);
+
+        Map<String, String> tooManyLoginAttempts = new LinkedHashMap<>();
+        tooManyLoginAttempts.put("error", "Too many login attempts, please try again later");
+        this.tooManyLoginAttemptsBody = objectMapper.writeValueAsBytes(tooManyLoginAttempts);
+
+        this.invalidTokenPrefix = errorPrefix(objectMapper, "Your input token is something wrong");
+        this.invalidRefreshTokenPrefix = errorPrefix(objectMapper, "Your input refresh token is something wrong");
+    }
+
+    public void writeTokens(HttpServletResponse response, String accessToken, String refreshToken) throws IOException {
+        response.setContentType(APPLICATION_JSON_VALUE); // set return value as json type to show return value in body part after calling api.
+        try (JsonGenerator generator = jsonFactory.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeFieldName(ACCESS_TOKEN); // when you get token from postman or your frontend, you can check token in JWT.io website
+            generator.writeString(accessToken);
+            generator.writeFieldName(REFRESH_TOKEN);
+            generator.writeString(refreshToken);
+            generator.writeEndObject();
+        }
+    }
+
+    // {"error": message}
+    public void writeError(HttpServletResponse response, String message) throws IOException {
+        response.setContentType(APPLICATION_JSON_VALUE);
+        try (JsonGenerator generator = jsonFactory.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("error", message);
+            generator.writeEndObject();
+        }
+    }
+
+    public void writeServerBusy(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(serverBusyBody);
+    }
+
+    // 429 body of login which was rejected by LoginThrottle
+    public void writeTooManyLoginAttempts(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(tooManyLoginAttemptsBody);
+    }
+
+    // 403 body of CustomAuthorizationFilter
+    public void writeInvalidToken(HttpServletResponse response, String message) throws IOException {
+        writeForbidden(response, invalidTokenPrefix, message);
+    }
+
+    // 403 body of token refresh api
+    public void writeInvalidRefreshToken(HttpServletResponse response, String message) throws IOException {
+        writeForbidden(response, invalidRefreshTokenPrefix, message);
+    }
+
+    private static void writeForbidden(HttpServletResponse response, byte[] prefix, String message) throws IOException {
+        response.setStatus(FORBIDDEN.value());
+        response.setContentType(APPLICATION_JSON_VALUE);
+        ServletOutputStream outputStream = response.getOutputStream();
+        outputStream.write(prefix);
+        if (message == null) {
+            outputStream.write(NULL);
+        } else {
+            outputStream.write('"');
+            outputStream.write(JsonStringEncoder.getInstance().quoteAsUTF8(message)); // only error message is encoded for every response
+            outputStream.write('"');
+        }
+        outputStream.write('}');
+    }
+
+    /**
+     * encode fixed part of error body, eg. {"code: ":"403","message: ":"Your input token is something wrong","error: ":
+     * (whole json object without last '}' and with "error: " field name at the end), error message is written behind that.
+     */
+    private static byte[] errorPrefix(ObjectMapper objectMapper, String message) throws JsonProcessingException {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("code: ", String.valueOf(FORBIDDEN.value()));
+        body.put("message: ", message);
+        byte[] fixed = objectMapper.writeValueAsBytes(body); // {"code: ":"403","message: ":"..."}
+        byte[] field = ",\"error: \":".getBytes(StandardCharsets.UTF_8);
+        byte[] prefix = Arrays.copyOf(fixed, fixed.length - 1 + field.length);
+        System.arraycopy(field, 0, prefix, fixed.length - 1, field.length);
+        return prefix;
+    }
+}
@@ -0,0 +1,63 @@
+package pers.yewin.springsecurityjwt.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt") // bind all jwt.* keys from application.properties into this class.
+public class JwtProperties {
+
+    /**
+     * key id (kid) which is used to sign new tokens.
+     * that kid is written into the token header, so that verifying side can pick the right key from the key ring below.
+     */
+    private String activeKeyId = "default";
+
+    /**
+     * key ring, key is kid and value is secret (password key) for that kid.
+     * To rotate secret, add new kid with new secret, switch active-key-id to new kid and remove old kid after all old tokens were expired
+     * (or without restart by /jwt/keys/rotate and /jwt/keys/retire apis, see JwtKeyController).
+     * at least one key is required for HS256, application don't start without key.
+     * eg. jwt.keys.default=MyAppSecurityPassword
+     */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /**
+     * signing algorithm for new tokens, HS256 (shared secret, default), RS256 or ES256.
+     * With RS256 or ES256, active key is private key from key store below, and public key is published at /.well-known/jwks.json,
+     * so other services can verify our tokens by themselves without knowing any secret and without calling this application.
+     * In that mode, key ring has only that key pair, HMAC keys (jwt.keys.*) are not loaded and /jwt/keys/rotate is rejected,
+     * so old HS256 tokens can't verify anymore and users need to login again after you switch algorithm.
+     * jwt.keys.* is required only for HS256.
+     */
+    private String algorithm = "HS256";
+
+    /**
+     * key store which has private key (and certificate) for RS256 or ES256.
+     * if location is not given, new key pair is generated when application was started (only for demo and testing,
+     * tokens can't be verified after restart and by other instances because every instance has different key).
+     */
+    private KeyStore keyStore = new KeyStore();
+
+    @Data
+    public static class KeyStore {
+        private String location; // eg. classpath:jwt.p12 or file:/etc/app/jwt.p12
+        private String password;
+        private String alias;
+        private String keyPassword; // password of key store is used if this is empty
+        private String type = "PKCS12";
+    }
+
+}
@@ -0,0 +1,288 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+public class JwtTokenService {
+
+    /**
+     * This class is the only one place which create (sign) and verify our JWT.
+     * Before, CustomAuthenticationFilter, CustomAuthorizationFilter and token/refresh api of UserController were creating
+     * Algorithm.HMAC256("MyAppSecurityPassword".getBytes()) and JWT.require(algorithm).build() for every request.
+     * Algorithm and JWTVerifier are immutable and thread safe, so we build them only one time per key and share for all requests.
+     *
+     * Keys are kept in key ring by key id (kid), new token is signed by active key and kid is written in token header,
+     * so, we can rotate the secret without restart by calling rotateKey method (POST /jwt/keys/rotate, see JwtKeyController)
+     * and old tokens still can verify until old key was retired.
+     *
+     * With jwt.algorithm=RS256 or ES256, active key sign tokens by private key and its public key is published by JWKS endpoint,
+     * so other services can verify our tokens locally (see JwtProperties).
+     * In that mode key ring has only that asymmetric key, HMAC secrets are not loaded, so nobody can sign or verify our tokens with shared secret.
+     */
+
+    public static final String ROLES_CLAIM = "roles";
+
+    // role bits claim (see RoleRegistry), it is written instead of roles claim when all roles of user have bit.
+    public static final String ROLE_BITS_CLAIM = "rb";
+
+    // tokens which were created before we add kid into header (or created by other app without kid) will be verified by this kid.
+    public static final String DEFAULT_KEY_ID = "default";
+
+    // supported signing algorithms (jwt.algorithm)
+    public static final String HS256 = "HS256";
+    public static final String RS256 = "RS256";
+    public static final String ES256 = "ES256";
+
+    // access token will expire after 3 minutes, formula ->> min = 3 multiply by 60 seconds and 1000 milliseconds
+    private static final long ACCESS_TOKEN_EXPIRY_MILLIS = 3 * 60 * 1000;
+
+    // refresh token will expire after 90 minutes (actually we should set refresh token expiry to week or months or years).
+    public static final long REFRESH_TOKEN_EXPIRY_MILLIS = 90 * 60 * 1000;
+
+    // refresh token family (one login) claim, see RefreshTokenService.
+    public static final String FAMILY_CLAIM = "fam";
+
+    // whole key ring is replaced at once (copy on write), so request threads never see half updated key ring.
+    private volatile KeyRing keyRing;
+
+    // null means tokens always carry role names (roles claim), eg. for benchmarks without database.
+    private final RoleRegistry roleRegistry;
+
+    // HS256, RS256 or ES256 (jwt.algorithm)
+    private final String algorithm;
+
+    public JwtTokenService(JwtProperties jwtProperties) {
+        this(jwtProperties, null);
+    }
+
+    @Autowired
+    public JwtTokenService(JwtProperties jwtProperties, RoleRegistry roleRegistry) {
+        this.roleRegistry = roleRegistry;
+        this.algorithm = jwtProperties.getAlgorithm() == null ? HS256 : jwtProperties.getAlgorithm().toUpperCase();
+        Map<String, SigningKey> keys = new LinkedHashMap<>();
+        if (HS256.equals(algorithm)) {
+            Map<String, String> secrets = jwtProperties.getKeys();
+            if (secrets == null || secrets.isEmpty()) {
+                // no well known fallback secret, everyone can sign tokens with secret which is written in source code.
+                throw new IllegalStateException("No jwt signing key is configured, please add jwt.keys.<kid>=<secret> into application.properties.");
+            }
+            secrets.forEach((kid, secret) -> keys.put(kid, SigningKey.hmac(secret)));
+        } else {
+            // RS256 or ES256, active key is private key and public key is published in jwks (see JwksController).
+            // only this key is in key ring, token signed by HMAC secret (old token or forged by someone who know the secret) is rejected as unknown kid.
+            keys.put(jwtProperties.getActiveKeyId(), SigningKey.asymmetric(algorithm, AsymmetricKeys.load(algorithm, jwtProperties.getKeyStore())));
+            log.info("jwt tokens are signed by {}, kid: {}", algorithm, jwtProperties.getActiveKeyId());
+        }
+        this.keyRing = KeyRing.of(jwtProperties.getActiveKeyId(), keys);
+    }
+
+    public String createAccessToken(String subject, List<String> roles, String issuer) {
+        KeyRing ring = keyRing;
+        JWTCreator.Builder builder = JWT.create()
+                .withKeyId(ring.activeKeyId)
+                // token subject will be username (email in our application) when you decode token after you have token.
+                .withSubject(subject)
+                // token id (jti) and issued at (iat) to revoke this token or all tokens of user before expiry, see TokenRevocationService.
+                .withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRY_MILLIS))
+                .withIssuer(issuer);
+
+        // one long number (eg. "rb": 15) instead of role names array, so token is smaller and filter can decode roles without string parsing.
+        long roleBits = roleRegistry == null ? -1 : roleRegistry.toBits(roles);
+        if (roleBits >= 0) {
+            builder.withClaim(ROLE_BITS_CLAIM, roleBits);
+        } else {
+            // you can retrieve roles from token claim by key 'roles'
+            builder.withClaim(ROLES_CLAIM, roles);
+        }
+        return builder.sign(ring.activeKey().algorithm);
+    }
+
+    public String createRefreshToken(String subject, String issuer) {
+        KeyRing ring = keyRing;
+        return JWT.create()
+                .withKeyId(ring.activeKeyId)
+                .withSubject(subject)
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRY_MILLIS))
+                .withIssuer(issuer)
+                .sign(ring.activeKey().algorithm);
+    }
+
+    /**
+     * refresh token which belong to one refresh token family (one login), token id (jti) is changed for every rotation.
+     */
+    public String createRefreshToken(String subject, String issuer, String familyId, String tokenId, long expiresAtMillis) {
+        KeyRing ring = keyRing;
+        return JWT.create()
+                .withKeyId(ring.activeKeyId)
+                .withSubject(subject)
+                .withJWTId(tokenId)
+                .withClaim(FAMILY_CLAIM, familyId)
+                .withIssuedAt(new Date())
+                .withExpiresAt(new Date(expiresAtMillis))
+                .withIssuer(issuer)
+                .sign(ring.activeKey().algorithm);
+    }
+
+    /**
+     * decode token only one time, choose the verifier by kid header and verify signature and expiry.
+     * it will throw JWTVerificationException (or sub class like TokenExpiredException) if token is wrong.
+     */
+    public DecodedJWT verify(String token) {
+        DecodedJWT decodedJWT = JWT.decode(token);
+        return keyRing.keyFor(decodedJWT.getKeyId()).verifier.verify(decodedJWT);
+    }
+
+    /**
+     * add (or replace) key with new kid and use that key to sign new tokens from now on.
+     * old keys are still in key ring to verify tokens which are not expired yet.
+     */
+    public synchronized void rotateKey(String keyId, String secret) {
+        if (keyId == null || keyId.trim().isEmpty() || secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Key id and secret are required.");
+        }
+        if (!HS256.equals(algorithm)) {
+            // HMAC key must not come back into key ring of asymmetric mode, new key pair is given by key store and restart.
+            throw new IllegalArgumentException("Secret key can't be added when tokens are signed by " + algorithm + ".");
+        }
+        Map<String, SigningKey> keys = new LinkedHashMap<>(keyRing.keys);
+        keys.put(keyId, SigningKey.hmac(secret));
+        keyRing = KeyRing.of(keyId, keys);
+        log.info("jwt signing key was rotated to kid: {}", keyId);
+    }
+
+    /**
+     * remove old key from key ring, tokens which were signed by that key can't verify anymore.
+     */
+    public synchronized void retireKey(String keyId) {
+        if (keyId == null || !keyRing.keys.containsKey(keyId)) {
+            throw new IllegalArgumentException("Key id is not found in key ring: " + keyId);
+        }
+        if (keyId.equals(keyRing.activeKeyId)) {
+            throw new IllegalArgumentException("Active key can't be retired, please rotate to other key first.");
+        }
+        Map<String, SigningKey> keys = new LinkedHashMap<>(keyRing.keys);
+        keys.remove(keyId);
+        keyRing = KeyRing.of(keyRing.activeKeyId, keys);
+        log.info("jwt signing key was retired, kid: {}", keyId);
+    }
+
+    public String getActiveKeyId() {
+        return keyRing.activeKeyId;
+    }
+
+    /**
+     * check the key is still in key ring, tokens which were verified (and cached) before the key was retired should not be accepted anymore.
+     * token without kid was verified by default key.
+     */
+    public boolean hasKey(String keyId) {
+        return keyRing.keys.containsKey(keyId == null ? DEFAULT_KEY_ID : keyId);
+    }
+
+    /**
+     * public keys of key ring as JSON Web Key Set, eg. {"keys":[{"kty":"RSA","kid":"rsa-1","use":"sig","alg":"RS256","n":"...","e":"AQAB"}]}
+     * HMAC secrets are never published, so it has keys only for RS256 or ES256.
+     */
+    public Map<String, Object> getJwks() {
+        return keyRing.jwks;
+    }
+
+    private static final class SigningKey {
+        private final Algorithm algorithm;
+        private final JWTVerifier verifier;
+        private final Map<String, Object> jwk; // null for HMAC key
+
+        private SigningKey(Algorithm algorithm, Map<String, Object> jwk) {
+            this.algorithm = algorithm;
+            this.verifier = JWT.require(algorithm).build();
+            this.jwk = jwk;
+        }
+
+        static SigningKey hmac(String secret) {
+            return new SigningKey(Algorithm.HMAC256(secret.getBytes(StandardCharsets.UTF_8)), null);
+        }
+
+        static SigningKey asymmetric(String algorithm, KeyPair keyPair) {
+            if (RS256.equals(algorithm)) {
+                return new SigningKey(Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()),
+                        AsymmetricKeys.toJwk(RS256, keyPair.getPublic()));
+            }
+            return new SigningKey(Algorithm.ECDSA256((ECPublicKey) keyPair.getPublic(), (ECPrivateKey) keyPair.getPrivate()),
+                    AsymmetricKeys.toJwk(ES256, keyPair.getPublic()));
+        }
+    }
+
+    private static final class KeyRing {
+        private final String activeKeyId;
+        private final Map<String, SigningKey> keys;
+        private final Map<String, Object> jwks;
+
+        private KeyRing(String activeKeyId, Map<String, SigningKey> keys, Map<String, Object> jwks) {
+            this.activeKeyId = activeKeyId;
+            this.keys = keys;
+            this.jwks = jwks;
+        }
+
+        static KeyRing of(String activeKeyId, Map<String, SigningKey> keys) {
+            if (!keys.containsKey(activeKeyId)) {
+                throw new IllegalStateException("Active jwt key id is not found in key ring: " + activeKeyId);
+            }
+            // jwks is built only one time for one key ring, not for every jwks request.
+            List<Map<String, Object>> jwkList = new ArrayList<>();
+            keys.forEach((kid, key) -> {
+                if (key.jwk != null) {
+                    Map<String, Object> jwk = new LinkedHashMap<>(key.jwk);
+                    jwk.put("kid", kid);
+                    jwkList.add(Collections.unmodifiableMap(jwk));
+                }
+            });
+            return new KeyRing(activeKeyId, Collections.unmodifiableMap(new LinkedHashMap<>(keys)),
+                    Collections.singletonMap("keys", Collections.unmodifiableList(jwkList)));
+        }
+
+        SigningKey activeKey() {
+            return keys.get(activeKeyId);
+        }
+
+        SigningKey keyFor(String keyId) {
+            // token without kid is verified only by default key, not by active key, so it is rejected after default key was retired.
+            SigningKey key = keys.get(keyId == null ? DEFAULT_KEY_ID : keyId);
+            if (key == null) {
+                throw new JWTVerificationException("Unknown token key id: " + keyId);
+            }
+            return key;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package pers.yewin.springsecurityjwt.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pers.yewin.springsecurityjwt.config.LoginThrottleProperties;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+public class LoginThrottle {
+
+    /**
+     * token buckets for /login by client ip and by username, checked by CustomAuthenticationFilter before login go to bulkhead,
+     * so that credential stuffing (many passwords for many accounts from a few ips) get 429 without BCrypt password check.
+     *
+     * each bucket is only one AtomicLong (GCRA, generic cell rate algorithm, same result as token bucket):
+     * value is the time when bucket will be full again, every attempt move that time one refill interval later by compareAndSet,
+     * attempt is rejected when that time is more than burst intervals in the future. so checking is lock free and don't allocate for known keys.
+     * bucket which is already full again (time is in the past) don't have any information, so it is removed by sweep (idle eviction).
+     * eviction mark bucket as evicted by compareAndSet before it is removed, attempt which took that bucket just before see the mark
+     * and take (or create) current bucket of that key again, so no attempt is counted on removed bucket.
+     * when one stripe is still full after eviction (eg. attack with random usernames), new keys of that stripe share one overflow bucket,
+     * so those attempts are still limited (fail closed) without growing memory.
+     *
+     * metrics: auth.login.throttled{key=ip|username} -> rejected attempts, auth.login.throttle.keys{key} -> tracked buckets.
+     * behind load balancer, please set server.forward-headers-strategy, so that remote address is client ip instead of load balancer ip.
+     */
+
+    public static final String KEY_IP = "ip";
+    public static final String KEY_USERNAME = "username";
+
+    private final boolean enabled;
+    private final Limiter ipLimiter;
+    private final Limiter usernameLimiter;
+
+    public LoginThrottle(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ipLimiter = new Limiter(KEY_IP, properties.getIp(), properties, meterRegistry);
+        this.usernameLimiter = new Limiter(KEY_USERNAME, properties.getUsername(), properties, meterRegistry);
+    }
+
+    /**
+     * take one attempt from bucket of client ip and bucket of username,
+     * return 0 when login can go on, or seconds until next attempt is allowed (for Retry-After header).
+     */
+    public long tryAcquire(String clientIp, String username) {
+        return tryAcquire(clientIp, username, System.nanoTime());
+    }
+
+    long tryAcquire(String clientIp, String username, long nowNanos) {
+        if (!enabled) {
+            return 0;
+        }
+        // ip first, attempt which is rejected by ip don't use token of that account.
+        long waitNanos = ipLimiter.tryAcquire(clientIp, nowNanos);
+        if (waitNanos == 0 && username != null && !username.isEmpty()) {
+            waitNanos = usernameLimiter.tryAcquire(username.trim().toLowerCase(Locale.ROOT), nowNanos); // email is case insensitive
+        }
+        return waitNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    @Scheduled(fixedDelayString = "${login-throttle.sweep-interval-millis:60000}")
+    public void sweep() {
+        int removed = evictIdle(System.nanoTime());
+        if (removed > 0) {
+            log.debug("idle login throttle buckets were removed: {}", removed);
+        }
+    }
+
+    int evictIdle(long nowNanos) {
+        return ipLimiter.evictIdle(nowNanos) + usernameLimiter.evictIdle(nowNanos);
+    }
+
+    int size() {
+        return ipLimiter.size() + usernameLimiter.size();
+    }
+
+    /**
+     * buckets of one key type in striped concurrent maps, so that eviction of one stripe and resize don't touch other keys.
+     */
+    private static final class Limiter {
+        private static final long EVICTED = Long.MIN_VALUE; // bucket was removed from its stripe, don't use it anymore
+        private static final long NEVER_USED = Long.MIN_VALUE + 1; // full bucket (time of full bucket is long ago)
+
+        private final String key;
+        private final long intervalNanos; // time to add one attempt back
+        private final long burstNanos;    // how far (time of full bucket) can be in the future
+        private final int maxKeysPerStripe;
+        private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+        private final AtomicLong[] overflowBuckets; // one shared bucket for new keys of each full stripe
+        private final Counter throttled;
+
+        @SuppressWarnings("unchecked")
+        Limiter(String key, LoginThrottleProperties.Limit limit, LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+            this.key = key;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, limit.getPerMinute());
+            this.burstNanos = intervalNanos * Math.max(1, limit.getBurst());
+            this.maxKeysPerStripe = properties.getMaxKeysPerStripe();
+            this.stripes = new ConcurrentHashMap[Math.max(1, properties.getStripes())];
+            this.overflowBuckets = new AtomicLong[stripes.length];
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new ConcurrentHashMap<>();
+                overflowBuckets[i] = new AtomicLong(NEVER_USED);
+            }
+            this.throttled = Counter.builder("auth.login.throttled")
+                    .description("login attempts which were rejected by login throttle")
+                    .tag("key", key)
+                    .register(meterRegistry);
+            Gauge.builder("auth.login.throttle.keys", this, Limiter::size)
+                    .description("tracked login throttle buckets")
+                    .tag("key", key)
+                    .register(meterRegistry);
+        }
+
+        // return 0 when allowed, or nanos to wait.
+        long tryAcquire(String value, long nowNanos) {
+            int index = Math.floorMod(value.hashCode(), stripes.length);
+            AtomicLong bucket = bucketOf(index, value, nowNanos);
+
+            while (true) {
+                long fullAt = bucket.get();
+                if (fullAt == EVICTED) {
+                    // bucket was removed by evictIdle after we took it, take current bucket of this key again.
+                    bucket = bucketOf(index, value, nowNanos);
+                    continue;
+                }
+                long newFullAt = Math.max(fullAt, nowNanos) + intervalNanos;
+                if (newFullAt - nowNanos > burstNanos) {
+                    throttled.increment();
+                    return newFullAt - nowNanos - burstNanos;
+                }
+                if (bucket.compareAndSet(fullAt, newFullAt)) {
+                    return 0;
+                }
+            }
+        }
+
+        private AtomicLong bucketOf(int index, String value, long nowNanos) {
+            ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+            AtomicLong bucket = stripe.get(value);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (stripe.size() >= maxKeysPerStripe && evictIdle(stripe, nowNanos) == 0 && stripe.size() >= maxKeysPerStripe) {
+                // too many active keys (eg. attack with random usernames), don't grow memory, new keys of this stripe share one bucket.
+                log.debug("login throttle {} stripe is full, attempt is counted on overflow bucket.", key);
+                return overflowBuckets[index];
+            }
+            // new bucket is full, same as bucket which was removed by eviction.
+            AtomicLong created = new AtomicLong(nowNanos);
+            bucket = stripe.putIfAbsent(value, created);
+            return bucket == null ? created : bucket;
+        }
+
+        int evictIdle(long nowNanos) {
+            int removed = 0;
+            for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+                removed += evictIdle(stripe, nowNanos);
+            }
+            return removed;
+        }
+
+        // remove buckets which are full again, attempt which come at the same time take new full bucket.
+        private static int evictIdle(ConcurrentHashMap<String, AtomicLong> stripe, long nowNanos) {
+            int removed = 0;
+            for (Map.Entry<String, AtomicLong> entry : stripe.entrySet()) {
+                AtomicLong bucket = entry.getValue();
+                long fullAt = bucket.get();
+                // mark first, so attempt which still hold this bucket can't count on it after it was removed.
+                if (fullAt != EVICTED && fullAt - nowNanos <= 0 && bucket.compareAndSet(fullAt, EVICTED)
+                        && stripe.remove(entry.getKey(), bucket)) {
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        int size() {
+            int size = 0;
+            for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+                size += stripe.size();
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package pers.yewin.springsecurityjwt.security;
+
+import lombok.Value;
+import lombok.With;
+
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Value
+@With
+public class RefreshTokenFamily {
+
+    /**
+     * all refresh tokens which come from one login are one family.
+     * only latest token (tokenId) of family can be used, if older token of family is used again (stolen token was reused), whole family is revoked.
+     * roles are snapshot of user roles, so token refresh don't need to load user from database.
+     * roles is null when roles of user were changed, then next refresh load roles from database again.
+     */
+
+    String familyId;
+    String subject;
+    List<String> roles;
+    String tokenId; // jti of latest refresh token
+    int rotation; // how many times refresh token was rotated
+    long expiresAtMillis;
+    boolean revoked;
+
+}
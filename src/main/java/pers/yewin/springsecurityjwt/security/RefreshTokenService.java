@@ -0,0 +1,103 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+@RequiredArgsConstructor // inject final jwtTokenService and refreshTokenStore by creating constructor based dependency injection instead of using @Autowire
+public class RefreshTokenService {
+
+    /**
+     * Refresh token rotation, https://auth0.com/docs/secure/tokens/refresh-tokens/refresh-token-rotation
+     * Every login start new refresh token family in RefreshTokenStore with roles snapshot of user.
+     * Every token refresh return new access token and new refresh token (old refresh token can't be used anymore),
+     * roles come from family's snapshot, so token refresh api don't need to load user from database.
+     * If old refresh token is used again (eg. hacker stole that token), we revoke whole family, so both hacker and user need to login again.
+     */
+
+    private final JwtTokenService jwtTokenService;
+    private final RefreshTokenStore refreshTokenStore;
+
+    // login was success, start new family.
+    public TokenPair login(String subject, List<String> roles, String issuer) {
+        String familyId = UUID.randomUUID().toString();
+        String tokenId = UUID.randomUUID().toString();
+        long expiresAtMillis = System.currentTimeMillis() + JwtTokenService.REFRESH_TOKEN_EXPIRY_MILLIS;
+
+        refreshTokenStore.save(new RefreshTokenFamily(familyId, subject, Collections.unmodifiableList(new ArrayList<>(roles)),
+                tokenId, 0, expiresAtMillis, false));
+
+        return new TokenPair(
+                jwtTokenService.createAccessToken(subject, roles, issuer),
+                jwtTokenService.createRefreshToken(subject, issuer, familyId, tokenId, expiresAtMillis));
+    }
+
+    /**
+     * rotate verified refresh token.
+     * token without family (created before token families) and token of unknown family (eg. in memory store after restart or purged family)
+     * are rejected and user need to login again, we don't start new family for them,
+     * otherwise one stolen old token could mint new token family again and again and reuse detection would never catch it.
+     * roleLoader load role names of user from database, it is called only for family which roles were changed.
+     */
+    public TokenPair refresh(DecodedJWT refreshToken, String issuer, Function<String, List<String>> roleLoader) {
+        String subject = refreshToken.getSubject();
+        String familyId = refreshToken.getClaim(JwtTokenService.FAMILY_CLAIM).asString();
+        RefreshTokenFamily family = familyId == null ? null : refreshTokenStore.find(familyId);
+
+        if (family == null) {
+            log.warn("refresh token without known family was rejected, subject: {}, family: {}", subject, familyId);
+            throw new JWTVerificationException("Refresh token is not valid anymore, please login again.");
+        }
+        if (family.isRevoked()) {
+            throw new JWTVerificationException("Refresh token was revoked, please login again.");
+        }
+
+        String newTokenId = UUID.randomUUID().toString();
+        long expiresAtMillis = System.currentTimeMillis() + JwtTokenService.REFRESH_TOKEN_EXPIRY_MILLIS;
+        RefreshTokenFamily rotated = refreshTokenStore.rotate(familyId, refreshToken.getId(), newTokenId, expiresAtMillis);
+        if (rotated == null) {
+            // this token was already rotated before, someone use old token again, so we don't trust any token of this family.
+            refreshTokenStore.revokeFamily(familyId);
+            log.warn("refresh token was reused, token family was revoked, subject: {}, family: {}", subject, familyId);
+            throw new JWTVerificationException("Refresh token was already used, please login again.");
+        }
+
+        List<String> roles = rotated.getRoles();
+        if (roles == null) {
+            // roles of user were changed after last refresh, take new roles from database one time and keep as snapshot.
+            roles = Collections.unmodifiableList(new ArrayList<>(roleLoader.apply(subject)));
+            // conditional on our rotated token, so family which was revoked in the mean time (reused token) is not saved again.
+            if (refreshTokenStore.fillRoles(familyId, newTokenId, roles) == null) {
+                throw new JWTVerificationException("Refresh token was revoked, please login again.");
+            }
+        }
+
+        return new TokenPair(
+                jwtTokenService.createAccessToken(subject, roles, issuer),
+                jwtTokenService.createRefreshToken(subject, issuer, familyId, newTokenId, expiresAtMillis));
+    }
+
+    @Value
+    public static class TokenPair {
+        String accessToken;
+        String refreshToken;
+    }
+}
@@ -0,0 +1,45 @@
+package pers.yewin.springsecurityjwt.security;
+
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+public interface RefreshTokenStore {
+
+    /**
+     * storage of refresh token families, default is InMemoryRefreshTokenStore (refresh-token.store=memory).
+     * you can add other implementation (eg. redis or database) for many instances of application, and switch by refresh-token.store property.
+     * all methods must be atomic for one family, because same refresh token can be used by two requests at the same time.
+     */
+
+    void save(RefreshTokenFamily family);
+
+    RefreshTokenFamily find(String familyId);
+
+    /**
+     * change latest token of family from currentTokenId to newTokenId and increase rotation counter.
+     * return updated family, or null if family is not found, revoked or currentTokenId is not latest token (reused token).
+     */
+    RefreshTokenFamily rotate(String familyId, String currentTokenId, String newTokenId, long expiresAtMillis);
+
+    /**
+     * keep roles snapshot which was loaded from database after roles were changed.
+     * roles are set only if tokenId is still latest token of family and family is not revoked, so family which was revoked by reused token is not brought back.
+     * return updated family, or null if family is not found, revoked or tokenId is not latest token.
+     */
+    RefreshTokenFamily fillRoles(String familyId, String tokenId, List<String> roles);
+
+    void revokeFamily(String familyId);
+
+    // roles of user were changed, remove roles snapshot of all families of that user.
+    void clearRoles(String subject);
+
+    // remove expired families, return removed count.
+    int purgeExpired(long nowMillis);
+
+}
@@ -0,0 +1,154 @@
+package pers.yewin.springsecurityjwt.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+public class RoleRegistry {
+
+    /**
+     * In memory registry of all roles, every role get one bit of long by its position in id order
+     * (first created role is bit 0, second created role is bit 1, etc.).
+     * Roles are never deleted in this application and new role always get bigger id, so bit of role never change
+     * and tokens which were created by other instance or before restart can still be decoded.
+     *
+     * Access token carry role bits (eg. "rb": 15) instead of role name array (eg. "roles": ["SUPER_ADMIN","ADMIN","MANAGER","NORMAL_USER"]),
+     * and CustomAuthorizationFilter turn that bits to authorities list which was already built and shared for all requests with same roles.
+     *
+     * If you delete role physically, bits of newer roles will shift, so please use logical delete (deleted column) for roles.
+     */
+
+    // we use 63 bits only, so that role bits is always positive long.
+    public static final int MAX_ROLES = 63;
+
+    // unknown role (or role bit) load roles from database again, but not more than one time in this period.
+    private static final long MIN_RELOAD_INTERVAL_MILLIS = 5000;
+
+    private final RoleRepository roleRepository;
+
+    // whole snapshot is replaced at once when roles were changed (copy on write), same as key ring of JwtTokenService.
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    // load all roles again, it is called after role was created (saveRole of UserServiceImpl).
+    @PostConstruct
+    public synchronized void refresh() {
+        snapshot = new Snapshot(roleRepository.findAll(Sort.by("id")));
+        log.info("role registry was loaded, roles: {}", snapshot.names);
+    }
+
+    // role can be created by other instance, load again if last loading was not just now.
+    private synchronized Snapshot reload() {
+        if (System.currentTimeMillis() - snapshot.loadedAtMillis >= MIN_RELOAD_INTERVAL_MILLIS) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * role bits for role names, return -1 if one of role don't have bit (unknown role or more than 63 roles),
+     * for that case token should carry role names like before.
+     */
+    public long toBits(Collection<String> roleNames) {
+        Snapshot current = snapshot;
+        long bits = 0;
+        for (String roleName : roleNames) {
+            Integer bit = current.bitByName.get(roleName);
+            if (bit == null) {
+                current = reload(); // try one more time with fresh roles.
+                bit = current.bitByName.get(roleName);
+                if (bit == null) {
+                    return -1;
+                }
+            }
+            bits |= 1L << bit;
+        }
+        return bits;
+    }
+
+    /**
+     * shared (immutable) authorities list for role bits, same list object is returned for same bits.
+     */
+    public List<GrantedAuthority> authoritiesOf(long bits) {
+        Snapshot current = snapshot;
+        if ((bits & ~current.knownBits) != 0) {
+            // token has role which we don't know yet (role was created by other instance), load roles again.
+            current = reload();
+        }
+        return current.authoritiesByBits.computeIfAbsent(bits & current.knownBits, current::buildAuthorities);
+    }
+
+    /**
+     * shared authority object for role name, for tokens which carry role names (roles claim).
+     */
+    public GrantedAuthority authorityOf(String roleName) {
+        GrantedAuthority authority = snapshot.authorityByName.get(roleName);
+        return authority != null ? authority : new SimpleGrantedAuthority(roleName);
+    }
+
+    private static final class Snapshot {
+        private final long loadedAtMillis = System.currentTimeMillis();
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> bitByName = new HashMap<>();
+        private final Map<String, GrantedAuthority> authorityByName = new HashMap<>();
+        private final GrantedAuthority[] authorityByBit;
+        private final long knownBits;
+        private final Map<Long, List<GrantedAuthority>> authoritiesByBits = new ConcurrentHashMap<>();
+
+        private Snapshot(List<Role> roles) {
+            int count = Math.min(roles.size(), MAX_ROLES);
+            if (roles.size() > MAX_ROLES) {
+                log.warn("only first {} roles can be written as role bits in token, other roles will use role names.", MAX_ROLES);
+            }
+            authorityByBit = new GrantedAuthority[count];
+            long known = 0;
+            for (int i = 0; i < roles.size(); i++) {
+                String name = roles.get(i).getName();
+                GrantedAuthority authority = new SimpleGrantedAuthority(name);
+                names.add(name);
+                authorityByName.put(name, authority);
+                if (i < count) {
+                    bitByName.put(name, i);
+                    authorityByBit[i] = authority;
+                    known |= 1L << i;
+                }
+            }
+            knownBits = known;
+        }
+
+        private List<GrantedAuthority> buildAuthorities(long bits) {
+            List<GrantedAuthority> authorities = new ArrayList<>(Long.bitCount(bits));
+            for (int bit = 0; bit < authorityByBit.length; bit++) {
+                if ((bits & (1L << bit)) != 0) {
+                    authorities.add(authorityByBit[bit]);
+                }
+            }
+            return Collections.unmodifiableList(authorities);
+        }
+    }
+}
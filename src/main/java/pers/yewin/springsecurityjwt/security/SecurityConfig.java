@@ -12,8 +12,11 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import pers.yewin.springsecurityjwt.config.BulkheadProperties;
+import pers.yewin.springsecurityjwt.config.Bulkheads;
 import pers.yewin.springsecurityjwt.filter.CustomAuthenticationFilter;
 import pers.yewin.springsecurityjwt.filter.CustomAuthorizationFilter;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
 
 import static org.springframework.http.HttpMethod.GET;
 import static org.springframework.http.HttpMethod.POST;
@@ -27,11 +30,21 @@ import static org.springframework.http.HttpMethod.POST;
 
 @Configuration
 @EnableWebSecurity
-@RequiredArgsConstructor // inject final userDetailsService and bcryptPasswordEncoder by creating constructor based dependency injection instead of using @Autowire
+@RequiredArgsConstructor // inject final userDetailsService, bcryptPasswordEncoder, jwtTokenService, refreshTokenService, verifiedTokenCache, roleRegistry, tokenRevocationService, jsonResponseWriter, authMetrics, loginThrottle and bulkheads by creating constructor based dependency injection instead of using @Autowire
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final UserDetailsService userDetailsService;
     private final BCryptPasswordEncoder bcryptPasswordEncoder;
+    private final JwtTokenService jwtTokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RoleRegistry roleRegistry;
+    private final TokenRevocationService tokenRevocationService;
+    private final JsonResponseWriter jsonResponseWriter;
+    private final AuthMetrics authMetrics;
+    private final LoginThrottle loginThrottle;
+    private final Bulkheads bulkheads;
+    private final BulkheadProperties bulkheadProperties;
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
@@ -41,7 +54,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          * Here we don't do authenticate with inMemoryAuthentication, and other type of authentication,
          * We do authenticate with our own database (checking username password from our database with user input username password)
          */
-        auth.userDetailsService(userDetailsService).passwordEncoder(bcryptPasswordEncoder); // inject BCryptPasswordEncoder to userDetailService
+        auth.userDetailsService(userDetailsService).passwordEncoder(authMetrics.timed(bcryptPasswordEncoder)); // inject BCryptPasswordEncoder to userDetailService, password check time is recorded by AuthMetrics
     }
 
     @Override
@@ -54,8 +67,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          */
 
 
-        // add authenticationManager to customAuthenticationFilter, to check login authentication
-        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManagerBean());
+        // add authenticationManager to customAuthenticationFilter, to check login authentication and refreshTokenService to create tokens after login was success
+        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManagerBean(), refreshTokenService, jsonResponseWriter, authMetrics,
+                loginThrottle, bulkheads.getLogin(), bulkheadProperties.getAsyncTimeoutMillis()); // login will run in login bulkhead threads, after login throttle check
 
         http.csrf().disable();
         http.sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS); // set for don't save user session data
@@ -72,6 +86,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         // login api are already existed in spring security UsernamePasswordAuthenticationFilter class and already extend by our CustomAuthenticationFilter class.
         http.authorizeRequests().antMatchers("/login", "/user/token/refresh").permitAll();
 
+        // public keys for token verification (JWKS) can be downloaded by anyone, other services use that to verify our tokens by themselves.
+        http.authorizeRequests().antMatchers(GET, "/.well-known/jwks.json").permitAll();
+
+        // health check and prometheus scrape don't have token, other actuator endpoints (eg. /actuator/metrics) are only for admin.
+        http.authorizeRequests().antMatchers(GET, "/actuator/health", "/actuator/prometheus").permitAll();
+        http.authorizeRequests().antMatchers("/actuator/**").hasAnyAuthority("ADMIN", "SUPER_ADMIN");
+
 
         // If we don't want to use spring built-in login url,
         // we can add (create) our own base url in front of built-in login url like below
@@ -99,12 +120,21 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         /** All access permission logic are depends on you and your application, please note that this is demo app. **/
         http.authorizeRequests().antMatchers(POST, "/user/createUser").hasAnyAuthority("MANAGER", "ADMIN", "SUPER_ADMIN");
 
+        // jwt signing key rotation (JwtKeyController), only super admin can change keys which sign tokens for all users.
+        http.authorizeRequests().antMatchers(POST, "/jwt/keys/**").hasAnyAuthority("SUPER_ADMIN");
+
         // set only admin and super admin can call all POST method api behind role/ url endpoint with ** (** mean all behind /)
         // this is demo, and you can add that in above line 85, eg. /spring-security-jwt/user/**,
         // But for some case (some application can create (register) user by all and that's depend on your application logic),
         // if you let Normal user and Manager role can add user (you let call saveUser by normal user), you should separate this adding role like below.
         http.authorizeRequests().antMatchers(POST, "/user/role/**").hasAnyAuthority("ADMIN", "SUPER_ADMIN");
 
+        // bulk import can create many users at once, so only admin and super admin can call.
+        http.authorizeRequests().antMatchers(POST, "/user/importUsers").hasAnyAuthority("ADMIN", "SUPER_ADMIN");
+
+        // revoke tokens before expiry, only admin and super admin can do that.
+        http.authorizeRequests().antMatchers(POST, "/user/token/revoke").hasAnyAuthority("ADMIN", "SUPER_ADMIN");
+
         http.authorizeRequests().anyRequest().authenticated(); // set any api request (any api call) must be authenticated, means successfully login.
 
         // you can also add isRememberMe and isAnonymous request.
@@ -117,7 +147,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         // add our CustomAuthorizationFilter class and UsernamePasswordAuthenticationFilter for checking Authorization into Spring Security Filter.
         // we put validation token login in that CustomAuthorizationFilter class to check (validate) user token is valid or not.
         // filterBefore means application will check authorization before on every api request and every api process
-        http.addFilterBefore(new CustomAuthorizationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(new CustomAuthorizationFilter(jwtTokenService, verifiedTokenCache, roleRegistry, tokenRevocationService, jsonResponseWriter, authMetrics), UsernamePasswordAuthenticationFilter.class);
     }
 
     @Bean
@@ -0,0 +1,189 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pers.yewin.springsecurityjwt.model.entity.RevokedToken;
+import pers.yewin.springsecurityjwt.repository.RevokedTokenRepository;
+import pers.yewin.springsecurityjwt.util.BloomFilter;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Slf4j // for logging
+@Component
+public class TokenRevocationService {
+
+    /**
+     * Revoke token before it was expired, by token id (jti) for one token or by email (subject) for all tokens of user which were issued before now.
+     * Revocations are saved in revoked_token table, but we don't want to check database for every api request.
+     * So, all revoked keys are kept in bloom filter (small bit array) in memory,
+     * if bloom filter say "not revoked", token is not revoked for sure (no database call, that is almost all requests),
+     * only if bloom filter say "maybe revoked", we check exact row in database.
+     *
+     * Bloom filter can't remove keys, so it is built again from database rows (at startup and every rebuild interval),
+     * rows of already expired tokens are deleted before that, so expired revocations are aged out from filter.
+     *
+     * Revocations which were done by other application instances are read by pollRevocations in every poll interval (default 5 seconds),
+     * only rows which were revoked after last poll are read (revoked_at index). poll interval must be much shorter than
+     * access token life time (3 minutes), otherwise revoked token can still be used on other instances until it was expired.
+     * rows of last poll overlap are read again (commit delay and clock difference between instances), adding same key again change nothing.
+     *
+     * Verified token cache is not cleared for every revocation anymore, only cached entries of revoked token id (or revoked user) are removed,
+     * by the instance which revoked and by other instances when they poll that row.
+     *
+     * Revocation epoch is increased after every new revocation is in bloom filter (and before cached tokens are evicted),
+     * CustomAuthorizationFilter read it before isRevoked and again after it put token into cache. If it was changed,
+     * token may be revoked after isRevoked and evicted before it was in cache, so filter check it again.
+     */
+
+    private static final String TOKEN_ID_PREFIX = "jti:";
+    private static final String SUBJECT_PREFIX = "sub:";
+    private static final long POLL_OVERLAP_MILLIS = 10_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final long expectedRevocations;
+    private final double falsePositiveProbability;
+
+    // whole filter is replaced at once by rebuild, new revocations are added into current filter.
+    private volatile BloomFilter bloomFilter;
+    // rows which were revoked at or after this time are read by next poll (guarded by this).
+    private long pollFrom;
+    private final AtomicLong revocationEpoch = new AtomicLong();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  VerifiedTokenCache verifiedTokenCache,
+                                  @Value("${token-revocation.expected-revocations:100000}") long expectedRevocations,
+                                  @Value("${token-revocation.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.bloomFilter = BloomFilter.create(expectedRevocations, falsePositiveProbability);
+    }
+
+    // load revocations which are still needed from database into new bloom filter.
+    @PostConstruct
+    public synchronized void rebuild() {
+        long now = System.currentTimeMillis();
+        List<String> keys = revokedTokenRepository.findActiveKeys(now);
+        // give more space if there are more revocations than expected, so false positive rate don't go up.
+        BloomFilter filter = BloomFilter.create(Math.max(expectedRevocations, keys.size() * 2L), falsePositiveProbability);
+        keys.forEach(filter::put);
+        bloomFilter = filter;
+        revocationEpoch.incrementAndGet();
+        // rows which were committed by other instances during above query are not in new filter, next poll read them.
+        pollFrom = now - POLL_OVERLAP_MILLIS;
+        log.info("token revocation filter was built, revocations: {}, size: {} bytes", keys.size(), filter.sizeInBytes());
+    }
+
+    @Scheduled(initialDelayString = "${token-revocation.rebuild-interval-millis:300000}", fixedDelayString = "${token-revocation.rebuild-interval-millis:300000}")
+    public void ageOut() {
+        int deleted = revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+        if (deleted > 0) {
+            log.info("expired token revocations were removed: {}", deleted);
+        }
+        rebuild();
+    }
+
+    // take revocations of other instances into bloom filter and remove their tokens from verified token cache of this instance.
+    @Scheduled(initialDelayString = "${token-revocation.poll-interval-millis:5000}", fixedDelayString = "${token-revocation.poll-interval-millis:5000}")
+    public synchronized void pollRevocations() {
+        long now = System.currentTimeMillis();
+        List<RevokedToken> revokedTokens = revokedTokenRepository.findRevokedSince(pollFrom, now);
+        for (RevokedToken revokedToken : revokedTokens) {
+            bloomFilter.put(revokedToken.getTokenKey());
+        }
+        if (!revokedTokens.isEmpty()) {
+            revocationEpoch.incrementAndGet();
+            revokedTokens.forEach(this::evictCached);
+        }
+        pollFrom = now - POLL_OVERLAP_MILLIS;
+    }
+
+    // revoke one access token or refresh token by its token id (jti claim).
+    public void revokeTokenId(String tokenId) {
+        revoke(new RevokedToken(TOKEN_ID_PREFIX + tokenId, null, maxExpiresAt(), System.currentTimeMillis()));
+    }
+
+    // revoke all tokens of user which were issued before now (eg. password was leaked, user was disabled).
+    public void revokeSubject(String email) {
+        long now = System.currentTimeMillis();
+        revoke(new RevokedToken(SUBJECT_PREFIX + email, now, maxExpiresAt(), now));
+    }
+
+    private synchronized void revoke(RevokedToken revokedToken) {
+        // synchronized with rebuild, so that new revocation is not lost when rebuild replace the filter.
+        revokedTokenRepository.save(revokedToken);
+        bloomFilter.put(revokedToken.getTokenKey());
+        revocationEpoch.incrementAndGet();
+        // revoked token may be already verified and kept in cache, CustomAuthorizationFilter check revocation only for not cached tokens.
+        evictCached(revokedToken);
+        log.info("token was revoked: {}", revokedToken.getTokenKey());
+    }
+
+    // remove only cached tokens of this revocation, same rules with isRevoked.
+    private void evictCached(RevokedToken revokedToken) {
+        String key = revokedToken.getTokenKey();
+        if (key.startsWith(TOKEN_ID_PREFIX)) {
+            String tokenId = key.substring(TOKEN_ID_PREFIX.length());
+            verifiedTokenCache.invalidateIf(cached -> tokenId.equals(cached.getTokenId()));
+        } else if (key.startsWith(SUBJECT_PREFIX) && revokedToken.getIssuedBefore() != null) {
+            String subject = key.substring(SUBJECT_PREFIX.length());
+            long issuedBefore = revokedToken.getIssuedBefore();
+            verifiedTokenCache.invalidateIf(cached -> subject.equals(cached.getSubject()) && cached.getIssuedAtMillis() <= issuedBefore);
+        }
+    }
+
+    // changed by every revocation, rebuild and poll which found new revocations.
+    public long getRevocationEpoch() {
+        return revocationEpoch.get();
+    }
+
+    /**
+     * check verified token is revoked or not, database is called only when bloom filter say "maybe revoked".
+     */
+    public boolean isRevoked(DecodedJWT decodedJWT) {
+        BloomFilter filter = bloomFilter;
+
+        String tokenId = decodedJWT.getId();
+        if (tokenId != null) {
+            String key = TOKEN_ID_PREFIX + tokenId;
+            if (filter.mightContain(key) && revokedTokenRepository.existsById(key)) {
+                return true;
+            }
+        }
+
+        String subject = decodedJWT.getSubject();
+        if (subject != null) {
+            String key = SUBJECT_PREFIX + subject;
+            if (filter.mightContain(key)) {
+                RevokedToken revokedToken = revokedTokenRepository.findById(key).orElse(null);
+                if (revokedToken != null && revokedToken.getIssuedBefore() != null) {
+                    // iat claim is in seconds, so tokens which were created in same second with revocation are revoked too.
+                    // old tokens without iat claim are revoked.
+                    Date issuedAt = decodedJWT.getIssuedAt();
+                    return issuedAt == null || issuedAt.getTime() <= revokedToken.getIssuedBefore();
+                }
+            }
+        }
+        return false;
+    }
+
+    // all tokens which exist now will be expired before this time (refresh token live longer than access token).
+    private static long maxExpiresAt() {
+        return System.currentTimeMillis() + JwtTokenService.REFRESH_TOKEN_EXPIRY_MILLIS;
+    }
+}
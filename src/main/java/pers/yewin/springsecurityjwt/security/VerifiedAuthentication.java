@@ -0,0 +1,60 @@
+package pers.yewin.springsecurityjwt.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+public final class VerifiedAuthentication extends AbstractAuthenticationToken {
+
+    /**
+     * authentication of verified access token (principal is email from token subject).
+     * it is kept in VerifiedTokenCache and same object is put into security context for every request of that token,
+     * so it can't be changed, one request can't change authentication of other requests which are running at the same time.
+     * UsernamePasswordAuthenticationToken can be changed (setDetails, setAuthenticated, eraseCredentials), that's why we don't cache that.
+     */
+
+    private final String subject;
+
+    public VerifiedAuthentication(String subject, Collection<? extends GrantedAuthority> authorities) {
+        super(authorities); // authorities are copied into unmodifiable list
+        this.subject = subject;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null; // we don't need to know password as it's already authenticated
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return subject;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        throw new UnsupportedOperationException("Authentication of verified token can't be changed.");
+    }
+
+    @Override
+    public void setDetails(Object details) {
+        throw new UnsupportedOperationException("Authentication of verified token can't be changed.");
+    }
+
+    @Override
+    public void eraseCredentials() {
+        // no credentials to erase
+    }
+}
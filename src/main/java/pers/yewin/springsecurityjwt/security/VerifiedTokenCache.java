@@ -0,0 +1,257 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    /**
+     * Frontend send same access token again and again for every api call until that token was expired (3 minutes).
+     * So, we keep the authentication object which we built from verified token in this cache,
+     * and CustomAuthorizationFilter don't need to do signature verification, base64 decode and claim parsing again for same token.
+     * cached authentication can't be changed (see VerifiedAuthentication), so same object is given to every request of that token.
+     *
+     * Cache key is SHA-256 digest of whole raw token (include signature part), so only exact same token which was verified before can hit.
+     * Entry is removed at token expiry time (exp claim) or when cache was full, and entry which is found after its expiry time is not returned.
+     * JWT is base64url and dot characters only, so token with non-ascii character is never looked up or cached
+     * (one byte per character would give same key for different tokens), it goes to full verification and is rejected there.
+     *
+     * This lookup run for every api request, so digest is calculated directly from characters of Authorization header
+     * (no substring and no getBytes copy) into per thread buffers, and cache is looked up by per thread (mutable) probe key.
+     * New key object is created only when we put new token into cache.
+     */
+
+    private static final int DIGEST_LENGTH = 32; // SHA-256
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Cache<DigestKey, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.verified-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<DigestKey, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(DigestKey key, VerifiedToken value, long currentTime) {
+                        // remove entry when token was expired
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.getExpiresAtMillis() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(DigestKey key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(DigestKey key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats() // to know hit and miss count
+                .build();
+    }
+
+    public VerifiedToken get(String token) {
+        return get(token, 0);
+    }
+
+    /**
+     * look up token which start from given offset of text (eg. offset 7 of "Bearer xxx" header), without copying token.
+     */
+    public VerifiedToken get(String text, int offset) {
+        DigestKey key = SCRATCH.get().digest(text, offset);
+        if (key == null) {
+            return null;
+        }
+        VerifiedToken verifiedToken = cache.getIfPresent(key);
+        if (verifiedToken != null && verifiedToken.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            return null; // expired, but not removed by cache yet
+        }
+        return verifiedToken;
+    }
+
+    public void put(String token, DecodedJWT decodedJWT, VerifiedAuthentication authentication) {
+        put(token, 0, decodedJWT, authentication);
+    }
+
+    public void put(String text, int offset, DecodedJWT decodedJWT, VerifiedAuthentication authentication) {
+        Date expiresAt = decodedJWT.getExpiresAt();
+        if (expiresAt == null) {
+            // we don't cache token which don't have expiry time.
+            return;
+        }
+        // probe key is reused by this thread, so we put copy of that key into cache.
+        DigestKey key = SCRATCH.get().digest(text, offset);
+        if (key != null) {
+            Date issuedAt = decodedJWT.getIssuedAt();
+            cache.put(key.copy(), new VerifiedToken(authentication, decodedJWT.getKeyId(), decodedJWT.getId(),
+                    issuedAt == null ? Long.MIN_VALUE : issuedAt.getTime(), expiresAt.getTime()));
+        }
+    }
+
+    // remove one token which start from given offset of text.
+    public void invalidate(String text, int offset) {
+        DigestKey key = SCRATCH.get().digest(text, offset);
+        if (key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * remove cached tokens which match with filter (eg. tokens of revoked token id or revoked user).
+     * all entries are checked, that is only for rare events like token revocation, not for api requests.
+     */
+    public void invalidateIf(Predicate<VerifiedToken> filter) {
+        cache.asMap().values().removeIf(filter);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // hit, miss, eviction and size of this cache are exported by actuator, eg. cache_gets_total{cache="verifiedTokenCache",result="hit"}
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedTokenCache");
+    }
+
+    /**
+     * SHA-256 digest as cache key, equals and hashCode use content of digest.
+     */
+    static final class DigestKey {
+        private final byte[] digest;
+        private int hash;
+
+        private DigestKey(byte[] digest) {
+            this.digest = digest;
+        }
+
+        private DigestKey rehash() {
+            hash = Arrays.hashCode(digest);
+            return this;
+        }
+
+        private DigestKey copy() {
+            return new DigestKey(digest.clone()).rehash();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DigestKey && Arrays.equals(digest, ((DigestKey) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // per thread buffers for digest calculation, they are reused for every request of that thread.
+    private static final class Scratch {
+        private final MessageDigest sha256;
+        private final DigestKey probe = new DigestKey(new byte[DIGEST_LENGTH]);
+        private byte[] input = new byte[512];
+
+        private Scratch() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not supported", e);
+            }
+        }
+
+        // null when token has non-ascii character.
+        private DigestKey digest(String text, int offset) {
+            int length = text.length() - offset;
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)]; // only for very big token
+            }
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(offset + i);
+                if (c > 0x7F) {
+                    return null;
+                }
+                input[i] = (byte) c; // token is base64url and dot characters only (ascii)
+            }
+            sha256.update(input, 0, length);
+            try {
+                sha256.digest(probe.digest, 0, DIGEST_LENGTH);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return probe.rehash();
+        }
+    }
+
+    public static final class VerifiedToken {
+        private final VerifiedAuthentication authentication;
+        private final String keyId;
+        private final String tokenId; // jti claim
+        private final long issuedAtMillis; // iat claim, Long.MIN_VALUE for token without iat
+        private final long expiresAtMillis;
+
+        VerifiedToken(VerifiedAuthentication authentication, String keyId, String tokenId, long issuedAtMillis, long expiresAtMillis) {
+            this.authentication = authentication;
+            this.keyId = keyId;
+            this.tokenId = tokenId;
+            this.issuedAtMillis = issuedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public VerifiedAuthentication getAuthentication() {
+            return authentication;
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+
+        public String getSubject() {
+            return authentication.getName();
+        }
+
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public long getIssuedAtMillis() {
+            return issuedAtMillis;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+}
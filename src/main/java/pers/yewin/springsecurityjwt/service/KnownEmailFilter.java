@@ -0,0 +1,142 @@
+package pers.yewin.springsecurityjwt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pers.yewin.springsecurityjwt.util.BloomFilter;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@Slf4j // for logging
+@Component
+public class KnownEmailFilter {
+
+    /**
+     * bloom filter of all registered emails, so that login and get user by email for unknown email (eg. typo, credential stuffing with leaked email list)
+     * get "user not found" without database round trip. mightExist return false -> user is not in database for sure,
+     * true -> user maybe in database, so we still check database (about 1% of unknown emails with default false positive probability).
+     *
+     * filter is built from users table (keyset pages by id) in scheduler thread after application was started, so it is not in startup time,
+     * every lookup go to database until first build was finished. new users are added after their insert was committed
+     * (saveUser, bulk import, LargeDatasetSeeder), and filter is built again in every rebuild interval to take users which were created by other instances.
+     * so, with many instances, user who was created by other instance get "not found" here until next rebuild (false negative),
+     * that's why filter is disabled by default (email-filter.enabled=false), enable it only when one instance create all users.
+     * when it is disabled, filter is never built and every email "might exist" (database is checked like before).
+     *
+     * email is lower case in filter, because mysql compare email case insensitive (findByEmail("A@gmail.com") find a@gmail.com).
+     * memory: 10 bits (1.2 bytes) per email for 1% false positive probability, filter is sized for 1.5 times of current users,
+     * so about 18 MB for 10 million users (see KnownEmailFilterTest, mvn test -Pbenchmark-tests),
+     * HashSet of same emails take about 1 GB.
+     */
+
+    private static final String SELECT_EMAILS_SQL = "select id, email from users where id > ? order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long expectedUsers;
+    private final double falsePositiveProbability;
+    private final int pageSize;
+    // only one rebuild at the same time, add method is not blocked by rebuild (only by short swap of filters).
+    private final Object rebuildLock = new Object();
+
+    // null until first build was finished (all emails "maybe exist").
+    private volatile BloomFilter bloomFilter;
+    // filter which is being built, new emails are added into both filters, so that email which was committed during build is not lost.
+    private BloomFilter building;
+
+    public KnownEmailFilter(JdbcTemplate jdbcTemplate,
+                            @Value("${email-filter.enabled:false}") boolean enabled,
+                            @Value("${email-filter.expected-users:1000000}") long expectedUsers,
+                            @Value("${email-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+                            @Value("${email-filter.page-size:10000}") int pageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.pageSize = pageSize;
+    }
+
+    public boolean mightExist(String email) {
+        BloomFilter filter = bloomFilter;
+        return filter == null || email == null || filter.mightContain(key(email));
+    }
+
+    // call after insert was committed.
+    public synchronized void add(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = key(email);
+        if (bloomFilter != null) {
+            bloomFilter.put(key);
+        }
+        if (building != null) {
+            building.put(key);
+        }
+    }
+
+    public synchronized void addAll(Collection<String> emails) {
+        emails.forEach(this::add);
+    }
+
+    public boolean isReady() {
+        return bloomFilter != null;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${email-filter.rebuild-interval-millis:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            build();
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        Long users = jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        // more space than current users, so that false positive rate don't go up with new users until next rebuild.
+        BloomFilter filter = BloomFilter.create(Math.max(expectedUsers, (users == null ? 0 : users) * 3 / 2), falsePositiveProbability);
+        synchronized (this) {
+            building = filter; // emails which are committed from now are added by add method, older ones are read by below pages.
+        }
+
+        // keyset pages by primary key, rows are streamed into filter (no entity, no list of emails in memory).
+        long[] lastId = {0};
+        int[] rows = {0};
+        long count = 0;
+        do {
+            rows[0] = 0;
+            jdbcTemplate.query(SELECT_EMAILS_SQL, (RowCallbackHandler) resultSet -> {
+                lastId[0] = resultSet.getLong(1);
+                filter.put(key(resultSet.getString(2)));
+                rows[0]++;
+            }, lastId[0], pageSize);
+            count += rows[0];
+        } while (rows[0] == pageSize);
+
+        synchronized (this) {
+            bloomFilter = filter;
+            building = null;
+        }
+        log.info("email filter was built, users: {}, size: {} bytes, time: {} ms", count, filter.sizeInBytes(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT); // same string (no copy) when email is already lower case
+    }
+}
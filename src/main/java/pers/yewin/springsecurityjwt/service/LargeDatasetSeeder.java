@@ -0,0 +1,273 @@
+package pers.yewin.springsecurityjwt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pers.yewin.springsecurityjwt.config.SeedProperties;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@Slf4j // for logging
+@Component
+@Profile("seed") // only with --spring.profiles.active=seed
+public class LargeDatasetSeeder implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * Create millions of synthetic users, so that we can see production scale behaviour of findByEmail, getAllUsers, etc. in local machine.
+     * CommandLineRunner of SpringSecurityJwtApplication create one user by saveUser (BCrypt + one transaction for one user),
+     * that take more than one day for millions of users, so this seeder
+     *  - hash the password only one time and give same hash to all synthetic users,
+     *  - insert users and their roles by jdbc batch (hibernate.jdbc.batch_size and pooled users_seq), one transaction per chunk,
+     *  - generate and insert chunks in parallel worker threads.
+     *
+     * User number n always get same email (user-n@seed.local), name and role set, and existing emails of chunk are skipped,
+     * so seeder can run again after restart (or after it was stopped in the middle) and only missing users are inserted.
+     * It run after application was started (after roles were created by CommandLineRunner),
+     * in its own thread when seed.async=true, so that instance is ready for traffic while seeding.
+     */
+
+    private static final String[] FIRST_NAMES = {"Aung", "Ye", "Win", "Mya", "Su", "Kyaw", "Thida", "Zaw", "Hla", "Nilar",
+            "John", "Maria", "Wei", "Anna", "Omar", "Yuki", "Liam", "Sofia", "Ravi", "Emma"};
+    private static final String[] LAST_NAMES = {"Win", "Aung", "Htun", "Oo", "Naing", "Lwin", "Smith", "Garcia", "Chen", "Kim",
+            "Tanaka", "Khan", "Brown", "Silva", "Patel", "Nguyen"};
+
+    private static final int PROGRESS_LOG_CHUNKS = 20;
+
+    private final SeedProperties seedProperties;
+    private final UsersRepository usersRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final KnownEmailFilter knownEmailFilter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public LargeDatasetSeeder(SeedProperties seedProperties, UsersRepository usersRepository, RoleRepository roleRepository,
+                              PasswordEncoder passwordEncoder, KnownEmailFilter knownEmailFilter, EntityManager entityManager, TransactionTemplate transactionTemplate,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.seedProperties = seedProperties;
+        this.usersRepository = usersRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.knownEmailFilter = knownEmailFilter;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!seedProperties.isAsync()) {
+            seed();
+            return;
+        }
+        Thread thread = new Thread(this::seed, "large-dataset-seed");
+        thread.setDaemon(true); // don't keep jvm alive after application was stopped, unfinished chunks are inserted at next run.
+        thread.start();
+    }
+
+    public void seed() {
+        long target = seedProperties.getUsers();
+        String emailSuffix = "@" + seedProperties.getEmailDomain();
+
+        // quick check for restart, whole dataset is already there.
+        long existing = usersRepository.countByEmailEndingWith(emailSuffix);
+        if (existing >= target) {
+            log.info("seed data is already complete, users: {}", existing);
+            return;
+        }
+
+        Map<String, Role> roles = roleRepository.findAll().stream().collect(Collectors.toMap(Role::getName, Function.identity()));
+        RoleMix roleMix = RoleMix.parse(seedProperties.getRoleMix(), roles);
+        // BCrypt only one time for all users, login of synthetic users still work with seed.password.
+        String passwordHash = passwordEncoder.encode(seedProperties.getPassword());
+
+        int chunkSize = seedProperties.getChunkSize();
+        long chunks = (target + chunkSize - 1) / chunkSize;
+        int parallelism = seedProperties.getParallelism() > 0 ? seedProperties.getParallelism()
+                : Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        log.info("seeding users, target: {}, already existed: {}, chunks: {}, workers: {}", target, existing, chunks, parallelism);
+
+        long startMillis = System.currentTimeMillis();
+        AtomicLong inserted = new AtomicLong();
+        AtomicLong doneChunks = new AtomicLong();
+        AtomicInteger workerCounter = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "seed-worker-" + workerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long first = chunk * chunkSize + 1;
+                long last = Math.min(target, first + chunkSize - 1);
+                futures.add(workers.submit(() -> {
+                    inserted.addAndGet(seedChunk(first, last, emailSuffix, passwordHash, roleMix));
+                    long done = doneChunks.incrementAndGet();
+                    if (done % PROGRESS_LOG_CHUNKS == 0 || done == chunks) {
+                        long seconds = Math.max(1, (System.currentTimeMillis() - startMillis) / 1000);
+                        log.info("seeding users, chunks: {}/{}, inserted: {}, {} users/s", done, chunks, inserted.get(), inserted.get() / seconds);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(); // throw first failure (eg. database is down), already committed chunks will be skipped at next run.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("seeding was interrupted, inserted: {}", inserted.get());
+            return;
+        } catch (Exception e) {
+            log.error("seeding was failed, inserted: {}, please start again to continue: {}", inserted.get(), e.getMessage());
+            return;
+        } finally {
+            workers.shutdownNow();
+        }
+        log.info("seeding finished, inserted: {}, time: {} s", inserted.get(), TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startMillis));
+    }
+
+    // generate user number first..last and insert users which are not in database yet, return number of inserted users.
+    private int seedChunk(long first, long last, String emailSuffix, String passwordHash, RoleMix roleMix) {
+        List<String> emails = new ArrayList<>((int) (last - first + 1));
+        for (long n = first; n <= last; n++) {
+            emails.add(email(n, emailSuffix));
+        }
+        // one in query for whole chunk, same as bulk import
+        Set<String> existing = new HashSet<>(usersRepository.findExistingEmails(emails));
+        if (existing.size() == emails.size()) {
+            return 0;
+        }
+
+        List<Users> users = new ArrayList<>(emails.size() - existing.size());
+        for (long n = first; n <= last; n++) {
+            String email = emails.get((int) (n - first));
+            if (!existing.contains(email)) {
+                users.add(new Users(null, name(n), email, passwordHash, roleMix.rolesOf(n)));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < users.size(); i++) {
+                entityManager.persist(users.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    // send one jdbc batch and clear persistence context, so that memory don't grow for big chunk.
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        List<String> insertedEmails = users.stream().map(Users::getEmail).collect(Collectors.toList());
+        knownEmailFilter.addAll(insertedEmails); // after chunk was committed
+        return users.size();
+    }
+
+    static String email(long n, String emailSuffix) {
+        return "user-" + n + emailSuffix;
+    }
+
+    static String name(long n) {
+        long hash = mix(n);
+        return FIRST_NAMES[(int) Math.floorMod(hash, (long) FIRST_NAMES.length)] + " "
+                + LAST_NAMES[(int) Math.floorMod(hash >>> 32, (long) LAST_NAMES.length)];
+    }
+
+    // same n always give same pseudo random number (splitmix64 finalizer), so generated data don't change between runs.
+    static long mix(long n) {
+        long z = n * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * role sets with cumulative share, eg. NORMAL_USER=0.9,NORMAL_USER|MANAGER=0.1
+     * every user get its own copy of role list, hibernate replace that collection when user is persisted.
+     */
+    static final class RoleMix {
+        private final double[] cumulative;
+        private final List<List<Role>> roleSets;
+
+        private RoleMix(double[] cumulative, List<List<Role>> roleSets) {
+            this.cumulative = cumulative;
+            this.roleSets = roleSets;
+        }
+
+        static RoleMix parse(String text, Map<String, Role> roles) {
+            List<Double> shares = new ArrayList<>();
+            List<List<Role>> roleSets = new ArrayList<>();
+            for (String entry : text.split(",")) {
+                String[] parts = entry.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("seed.role-mix entry must be roles=share: " + entry);
+                }
+                List<Role> roleSet = new ArrayList<>();
+                for (String roleName : parts[0].trim().split("\\|")) {
+                    if (roleName.trim().isEmpty()) {
+                        continue; // user without role
+                    }
+                    Role role = roles.get(roleName.trim());
+                    if (role == null) {
+                        throw new IllegalArgumentException("Role Name Not Found: " + roleName);
+                    }
+                    roleSet.add(role);
+                }
+                roleSets.add(Collections.unmodifiableList(roleSet));
+                shares.add(Double.parseDouble(parts[1].trim()));
+            }
+
+            // shares don't need to be exactly 1.0 in total, they are scaled.
+            double total = shares.stream().mapToDouble(Double::doubleValue).sum();
+            double[] cumulative = new double[shares.size()];
+            double sum = 0;
+            for (int i = 0; i < shares.size(); i++) {
+                sum += shares.get(i) / total;
+                cumulative[i] = sum;
+            }
+            return new RoleMix(cumulative, roleSets);
+        }
+
+        List<Role> rolesOf(long n) {
+            // upper 53 bits as uniform double in [0, 1)
+            double random = (mix(~n) >>> 11) * 0x1.0p-53;
+            for (int i = 0; i < cumulative.length; i++) {
+                if (random < cumulative[i]) {
+                    return new ArrayList<>(roleSets.get(i));
+                }
+            }
+            return new ArrayList<>(roleSets.get(roleSets.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package pers.yewin.springsecurityjwt.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    /**
+     * keep user email, password hash and authorities which are loaded by loadUserByUsername method of UserServiceImpl class,
+     * so that repeat logins don't need to go to database before BCrypt password check.
+     * entry will be removed after ttl or when user or user's role was changed by saveUser and addRoleToUser method.
+     *
+     * we don't keep spring User object itself in cache, because spring security erase password inside User object after login (eraseCredentials),
+     * so we keep immutable snapshot and create new User object from that snapshot for every login.
+     */
+
+    private final Cache<String, CachedUser> cache;
+
+    public UserDetailsCache(@Value("${user-details-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${user-details-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats() // to know hit and miss count
+                .build();
+    }
+
+    /**
+     * get from cache, if not existed, load by loader and put into cache.
+     * if loader throw exception (eg. UsernameNotFoundException), nothing is cached.
+     */
+    public UserDetails get(String email, Function<String, UserDetails> loader) {
+        return cache.get(email, key -> new CachedUser(loader.apply(key))).toUserDetails();
+    }
+
+    /**
+     * remove user from cache now and again after transaction was committed,
+     * so that other login which is running at the same time can't put old data back into cache before our change was committed.
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        cache.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // hit, miss, eviction and size of this cache are exported by actuator, eg. cache_gets_total{cache="userDetailsCache",result="hit"}
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetailsCache");
+    }
+
+    private static final class CachedUser {
+        private final String username;
+        private final String password;
+        private final Collection<GrantedAuthority> authorities;
+
+        private CachedUser(UserDetails userDetails) {
+            this.username = userDetails.getUsername();
+            this.password = userDetails.getPassword();
+            this.authorities = Collections.unmodifiableList(new ArrayList<>(userDetails.getAuthorities()));
+        }
+
+        UserDetails toUserDetails() {
+            return new User(username, password, authorities);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package pers.yewin.springsecurityjwt.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pers.yewin.springsecurityjwt.model.dto.ImportReport;
+import pers.yewin.springsecurityjwt.model.dto.ImportRowResult;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@Slf4j // for logging
+@Service
+public class UserImportService {
+
+    /**
+     * Bulk user import for onboarding, instead of calling createUser api thousands of times.
+     * Import file is read line by line (streaming, we don't keep whole file in memory) and processed chunk by chunk.
+     * For every chunk,
+     *  - validate rows and drop duplicate emails inside the file,
+     *  - check existing emails by one in query,
+     *  - hash passwords in parallel with bounded fork join pool (BCrypt is the most expensive part),
+     *  - insert users by jdbc batch (hibernate.jdbc.batch_size, pooled users_seq id generator) in one transaction.
+     *
+     * BCrypt with default strength take around 50-100 ms for one password in one cpu core,
+     * so, to import 100k users in less than one minute, passwords in import file should be already BCrypt hashed (eg. export from other system)
+     * and those hashed passwords are saved without hashing again.
+     */
+
+    // same format as BCryptPasswordEncoder check (eg. $2a$10$ + 53 characters)
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final UsersRepository usersRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final KnownEmailFilter knownEmailFilter;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonRowReader;
+    private final ForkJoinPool hashPool;
+    private final int chunkSize;
+    private final int batchSize;
+    private final long timeoutMillis;
+
+    public UserImportService(UsersRepository usersRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                             UserDetailsCache userDetailsCache, KnownEmailFilter knownEmailFilter, EntityManager entityManager, TransactionTemplate transactionTemplate,
+                             ObjectMapper objectMapper,
+                             @Value("${user-import.hash-parallelism:0}") int hashParallelism,
+                             @Value("${user-import.chunk-size:1000}") int chunkSize,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                             @Value("${user-import.timeout-millis:600000}") long timeoutMillis) {
+        this.usersRepository = usersRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
+        this.knownEmailFilter = knownEmailFilter;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonRowReader = objectMapper.readerFor(ImportRow.class);
+        // bounded pool only for password hashing, so import can't take all cpu threads (common pool) from other apis.
+        this.hashPool = new ForkJoinPool(hashParallelism > 0 ? hashParallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * import users from NDJSON (one json object per line, eg. {"name":"Ye","email":"ye@gmail.com","password":"yeyeye","roles":["NORMAL_USER"]})
+     * or CSV (name,email,password[,roles] and roles are separated by |, eg. Ye,ye@gmail.com,yeyeye,NORMAL_USER|MANAGER).
+     * csv value which has comma should be quoted (eg. "Win, Ye",ye@gmail.com,yeyeye), line with wrong quote or too many columns is failed with its own error.
+     */
+    public ImportReport importUsers(InputStream inputStream, boolean csv) throws IOException {
+        ImportReport report = new ImportReport();
+        Map<String, Role> roles = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(Role::getName, Function.identity()));
+        Set<String> seenEmails = new HashSet<>(); // to drop same email inside the file
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || (csv && lineNumber == 1 && line.startsWith("name,"))) {
+                    continue; // skip empty line and csv header
+                }
+                ImportRow row = parse(line, csv);
+                row.setLine(lineNumber);
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, roles, seenEmails, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, roles, seenEmails, report);
+            }
+        }
+
+        log.info("user import finished, total: {}, created: {}, failed: {}", report.getTotal(), report.getCreated(), report.getFailed());
+        return report;
+    }
+
+    private ImportRow parse(String line, boolean csv) {
+        try {
+            if (!csv) {
+                return jsonRowReader.readValue(line);
+            }
+            List<String> columns = splitCsvLine(line);
+            ImportRow row = new ImportRow();
+            if (columns == null) {
+                row.setParseError("Line format is wrong, quote is not closed or not used correctly");
+                return row;
+            }
+            if (columns.size() > 4) {
+                // eg. Win, Ye,ye@gmail.com,... name with comma should be quoted ("Win, Ye"), we don't guess which comma is part of value.
+                row.setParseError("Too many columns, please quote value which has comma");
+                return row;
+            }
+            row.setName(columns.get(0).trim());
+            row.setEmail(columns.size() > 1 ? columns.get(1).trim() : null);
+            row.setPassword(columns.size() > 2 ? columns.get(2).trim() : null);
+            if (columns.size() > 3 && !columns.get(3).trim().isEmpty()) {
+                row.setRoles(Arrays.asList(columns.get(3).trim().split("\\|")));
+            }
+            return row;
+        } catch (IOException e) {
+            // wrong json line, this row will fail in validation and other rows will continue.
+            ImportRow row = new ImportRow();
+            row.setParseError("Line format is wrong");
+            return row;
+        }
+    }
+
+    /**
+     * split one csv line (RFC 4180), value can be quoted ("Win, Ye") and quote inside quoted value is written twice ("").
+     * it return null for wrong line (quote is not closed or text after closing quote),
+     * value with new line is not supported as we read import file line by line.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>(4);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false; // inside quoted value
+        boolean closed = false; // quoted value was closed, only comma (or spaces) can come after that
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"'); // escaped quote
+                    i++;
+                } else {
+                    quoted = false;
+                    closed = true;
+                }
+            } else if (c == ',') {
+                columns.add(value.toString());
+                value.setLength(0);
+                closed = false;
+            } else if (closed) {
+                if (c != ' ') {
+                    return null;
+                }
+            } else if (c == '"') {
+                if (value.toString().trim().length() > 0) {
+                    return null; // quote in the middle of not quoted value
+                }
+                value.setLength(0);
+                quoted = true;
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        columns.add(value.toString());
+        return columns;
+    }
+
+    private void importChunk(List<ImportRow> chunk, Map<String, Role> roles, Set<String> seenEmails, ImportReport report) {
+
+        // validate and drop duplicates inside the file
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = validate(row, roles);
+            if (error == null && !seenEmails.add(row.getEmail())) {
+                error = "Duplicate email in import file";
+            }
+            if (error != null) {
+                fail(report, row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // one in query for whole chunk instead of one select for every row
+        Set<String> existing = new HashSet<>(usersRepository.findExistingEmails(
+                valid.stream().map(ImportRow::getEmail).collect(Collectors.toList())));
+        List<ImportRow> toInsert = new ArrayList<>(valid.size());
+        for (ImportRow row : valid) {
+            if (existing.contains(row.getEmail())) {
+                fail(report, row, "User is already existed in System");
+            } else {
+                toInsert.add(row);
+            }
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        hashPasswords(toInsert);
+
+        List<Users> users = toInsert.stream().map(row -> toUser(row, roles)).collect(Collectors.toList());
+        try {
+            insertBatch(users);
+        } catch (DataIntegrityViolationException | PersistenceException e) {
+            // other request created same email at the same time (unique index ux_users_email),
+            // so, we insert this chunk again one by one to know which rows are failed.
+            log.warn("batch insert was failed, insert one by one for this chunk: {}", e.getMessage());
+            insertOneByOne(toInsert, users, report);
+            return;
+        }
+        for (int i = 0; i < toInsert.size(); i++) {
+            created(report, toInsert.get(i), users.get(i));
+        }
+    }
+
+    private static String validate(ImportRow row, Map<String, Role> roles) {
+        if (row.getParseError() != null) {
+            return row.getParseError();
+        }
+        // you can add email format validation logic here, This is demo project and I don't check that format validation now.
+        if (row.getEmail() == null || row.getEmail().isEmpty() || row.getPassword() == null || row.getPassword().isEmpty()) {
+            return "Email or password is missing";
+        }
+        if (row.getRoles() == null) {
+            row.setRoles(new ArrayList<>()); // "roles": null in json
+        }
+        for (String roleName : row.getRoles()) {
+            if (!roles.containsKey(roleName)) {
+                return "Role Name Not Found: " + roleName;
+            }
+        }
+        return null;
+    }
+
+    private void hashPasswords(List<ImportRow> rows) {
+        // parallel stream which is started inside our own fork join pool run in that pool (not in common pool).
+        try {
+            hashPool.submit(() -> rows.parallelStream().forEach(row -> {
+                if (!BCRYPT_PATTERN.matcher(row.getPassword()).matches()) {
+                    row.setPassword(passwordEncoder.encode(row.getPassword()));
+                }
+                // already hashed password is saved as it is.
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing was failed", e.getCause());
+        }
+    }
+
+    private static Users toUser(ImportRow row, Map<String, Role> roles) {
+        return new Users(null, row.getName(), row.getEmail(), row.getPassword(),
+                row.getRoles().stream().map(roles::get).collect(Collectors.toList()));
+    }
+
+    private void insertBatch(List<Users> users) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < users.size(); i++) {
+                entityManager.persist(users.get(i));
+                if ((i + 1) % batchSize == 0) {
+                    // send one jdbc batch and clear persistence context, so that memory don't grow for big chunk.
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private void insertOneByOne(List<ImportRow> rows, List<Users> users, ImportReport report) {
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            Users user = users.get(i);
+            user.setId(null); // id and version from rolled back batch
+            user.setVersion(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> entityManager.persist(user));
+                created(report, row, user);
+            } catch (DataIntegrityViolationException | PersistenceException e) {
+                fail(report, row, "User is already existed in System");
+            }
+        }
+    }
+
+    private void created(ImportReport report, ImportRow row, Users user) {
+        userDetailsCache.invalidate(user.getEmail());
+        knownEmailFilter.add(user.getEmail()); // insert of user was already committed
+        report.setTotal(report.getTotal() + 1);
+        report.setCreated(report.getCreated() + 1);
+        report.getRows().add(new ImportRowResult(row.getLine(), row.getEmail(), ImportRowResult.CREATED, user.getId(), null));
+    }
+
+    private static void fail(ImportReport report, ImportRow row, String error) {
+        report.setTotal(report.getTotal() + 1);
+        report.setFailed(report.getFailed() + 1);
+        report.getRows().add(new ImportRowResult(row.getLine(), row.getEmail(), ImportRowResult.FAILED, null, error));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdown();
+    }
+
+    // one line of import file
+    @Data
+    static class ImportRow {
+        private String name;
+        private String email;
+        private String password;
+        private List<String> roles = new ArrayList<>();
+        @JsonIgnore
+        private int line;
+        @JsonIgnore
+        private String parseError;
+    }
+}
@@ -1,6 +1,8 @@
 package pers.yewin.springsecurityjwt.service;
 
 import org.springframework.http.ResponseEntity;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignment;
+import pers.yewin.springsecurityjwt.model.dto.UserView;
 import pers.yewin.springsecurityjwt.model.entity.Role;
 import pers.yewin.springsecurityjwt.model.entity.Users;
 
@@ -15,14 +17,28 @@ import java.util.List;
 
 public interface UserService {
 
-    List<Users> getAllUsers();  // should be use return type with page to reduce loading huge amount of users retrieving.
+    // return users page by page (keyset pagination by id) to reduce loading huge amount of users retrieving.
+    // cursor is nextCursor value of previous page (null for first page), response body will be UserPage.
+    ResponseEntity getAllUsers(String cursor, int size);
 
     Users getByEmail(String name);
 
+    // user with role names only (without password), for get user by email api.
+    UserView getUserView(String email);
+
+    // ETag of getAllUsers page by id and version only query (see UserVersions), null for wrong cursor.
+    String getUsersETag(String cursor, int size);
+
+    // ETag of getUserView by id and version only query, null for unknown email.
+    String getUserETag(String email);
+
     ResponseEntity saveUser(Users user);
 
     ResponseEntity saveRole(Role role);
 
     ResponseEntity addRoleToUser(String userName, String roleName);
 
+    // add many roles to many users by one call, response body is result (ADDED or FAILED) of every input pair.
+    ResponseEntity addRolesToUsers(List<RoleAssignment> assignments);
+
 }
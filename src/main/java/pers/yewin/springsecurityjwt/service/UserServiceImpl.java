@@ -2,7 +2,9 @@ package pers.yewin.springsecurityjwt.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -11,13 +13,27 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.metrics.AuthStage;
+import pers.yewin.springsecurityjwt.model.dto.IdNameRow;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignment;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignmentResult;
+import pers.yewin.springsecurityjwt.model.dto.UserPage;
+import pers.yewin.springsecurityjwt.model.dto.UserRoleRow;
+import pers.yewin.springsecurityjwt.model.dto.UserVersionRow;
+import pers.yewin.springsecurityjwt.model.dto.UserView;
 import pers.yewin.springsecurityjwt.model.entity.Role;
 import pers.yewin.springsecurityjwt.model.entity.Users;
 import pers.yewin.springsecurityjwt.repository.RoleRepository;
 import pers.yewin.springsecurityjwt.repository.UsersRepository;
+import pers.yewin.springsecurityjwt.security.RefreshTokenStore;
+import pers.yewin.springsecurityjwt.security.RoleRegistry;
 
 import javax.transaction.Transactional;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * @author: Ye Win
@@ -28,17 +44,41 @@ import java.util.*;
 
 @Service
 @Transactional
-@RequiredArgsConstructor // inject final user repository, role repository, password encoder by creating constructor based dependency injection instead of using @Autowire
+@RequiredArgsConstructor // inject final user repository, role repository, password encoder, user details cache, known email filter, role registry, refresh token store, auth metrics, jdbc template and transaction template by creating constructor based dependency injection instead of using @Autowire
 @Slf4j // for logging
 public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final UsersRepository usersRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final KnownEmailFilter knownEmailFilter;
+    private final RoleRegistry roleRegistry;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AuthMetrics authMetrics;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // max (email, roleName) pairs in one batch add roles to users request, in queries and jdbc batches are bounded by this.
+    private static final int MAX_ROLE_ASSIGNMENTS = 5000;
+    private static final int ROLE_INSERT_BATCH_SIZE = 500;
+    private static final String INSERT_USER_ROLE_SQL = "insert into users_role_list (users_id, role_list_id) values (?, ?)";
+    private static final String INCREASE_USER_VERSION_SQL = "update users set version = version + 1 where id = ?";
 
     @Override
+    @Transactional(Transactional.TxType.SUPPORTS) // don't open transaction (and don't take db connection) as most logins will be served from cache.
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
 
+        // repeat logins are served from userDetailsCache without any database round trip before BCrypt password check.
+        // if user is not in cache, we load from database by below loadUserDetails method and put into cache.
+        // database time of cache miss is recorded as user.load stage (AuthMetrics).
+        return userDetailsCache.get(email, key -> authMetrics.time(AuthStage.USER_LOAD, () -> loadUserDetails(key)));
+    }
+
+    private UserDetails loadUserDetails(String email) {
+
         /**
          * this method is important
          * this method retrieve our user information from database by name (here I use email as I think it's unique in my application).
@@ -75,18 +115,114 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
-    public List<Users> getAllUsers() {
-        log.info("get all users");
-        return usersRepository.findAll();
+    public ResponseEntity getAllUsers(String cursor, int size) {
+        log.info("get all users, cursor: {}, size: {}", cursor, size);
+
+        // we don't let client take too many users in one page, and take one more user to know there is next page or not.
+        int pageSize = pageSize(size);
+
+        Long lastId;
+        try {
+            lastId = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            /**
+             * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
+             * but this is demo project so, I don't do that.
+             */
+            log.error("Invalid cursor: {}", cursor);
+            Map<String, String> errorMap = new HashMap<>();
+            errorMap.put("error", "Cursor is not valid");
+            return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
+        }
+
+        // where id > lastId order by id limit pageSize + 1, cost is same for first page and deep page.
+        // users and their role names come in one join query, we don't load Users entities (and eager roles for each user) anymore.
+        List<UserView> users = toUserViews(usersRepository.findUserRowsAfter(lastId, pageSize + 1));
+
+        String nextCursor = null;
+        if (users.size() > pageSize) {
+            users = new ArrayList<>(users.subList(0, pageSize));
+            nextCursor = encodeCursor(users.get(pageSize - 1).getId());
+        }
+        return ResponseEntity.ok(new UserPage(users, nextCursor));
+    }
+
+    @Override
+    public UserView getUserView(String email) {
+        log.info("get user view by email: {}", email);
+        if (!knownEmailFilter.mightExist(email)) {
+            return null; // not registered for sure, same result as empty query result without database round trip.
+        }
+        List<UserView> users = toUserViews(usersRepository.findUserRowsByEmail(email));
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    @Override
+    public String getUsersETag(String cursor, int size) {
+        int pageSize = pageSize(size);
+        Long lastId;
+        try {
+            lastId = decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return null; // getAllUsers will return bad request
+        }
+        // same users as getAllUsers, but only id and version without roles.
+        List<UserVersionRow> users = usersRepository.findVersionsAfter(lastId, pageSize + 1);
+        boolean hasNext = users.size() > pageSize;
+        return UserVersions.usersETag(hasNext ? users.subList(0, pageSize) : users, hasNext);
+    }
+
+    @Override
+    public String getUserETag(String email) {
+        if (!knownEmailFilter.mightExist(email)) {
+            return null;
+        }
+        UserVersionRow user = usersRepository.findVersionByEmail(email);
+        return user == null ? null : UserVersions.userETag(user);
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    // join query return one row per user and role, so we group rows by user id (rows are already ordered by user id).
+    private static List<UserView> toUserViews(List<UserRoleRow> rows) {
+        Map<Long, UserView> users = new LinkedHashMap<>();
+        for (UserRoleRow row : rows) {
+            UserView user = users.computeIfAbsent(row.getId(),
+                    id -> new UserView(id, row.getName(), row.getEmail(), row.getVersion(), new ArrayList<>()));
+            if (row.getRoleName() != null) {
+                user.getRoles().add(row.getRoleName());
+            }
+        }
+        return new ArrayList<>(users.values());
+    }
+
+    // cursor is opaque token for client, it is just base64 of last user id of the page.
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L; // first page
+        }
+        // Base64 decoder and Long.parseLong throw IllegalArgumentException (NumberFormatException) for wrong cursor.
+        return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
     }
 
     @Override
     public Users getByEmail(String email) {
         log.info("get user by email: {}", email);
+        // unknown email (eg. login with wrong email) is answered by KnownEmailFilter, so loadUserByUsername don't go to database too.
+        if (!knownEmailFilter.mightExist(email)) {
+            return null;
+        }
         return usersRepository.findByEmail(email);
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // insert run in repository's own transaction, so that we can catch duplicate error and return 400 instead of rolling back whole transaction.
     public ResponseEntity saveUser(Users user) {
         log.info("saving user: {}",user);
         Map<String, String> errorMap = new HashMap<String, String>();
@@ -94,10 +230,16 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         // check email, and you can add email format validation logic here, This is demo project and I don't check that format validation now.
         if(user!=null && user.getEmail()!=null){
 
-            Users dbUser = getByEmail(user.getEmail());
+            // before saving into user table, we do encode password because we don't want to save plain text password in db,
+            // because if attackers can access our db, they can easily know users' passwords.
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setId(null); // always insert new user, don't let client update other user by giving id.
 
-            // if user is existed by finding email, we don't let insert same email into db
-            if(dbUser!=null) {
+            // we don't select by email first to check user is existed or not,
+            // unique index of email (ux_users_email) will reject same email, even two requests come at the same time.
+            try {
+                user = usersRepository.saveAndFlush(user); // insert into db
+            } catch (DataIntegrityViolationException e) {
                 /**
                  * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields,
                  * but this is demo project so, I don't do that.
@@ -106,11 +248,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 errorMap.put("error", "User is already existed in System");
                 return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
             }
-
-            // before saving into user table, we do encode password because we don't want to save plain text password in db,
-            // because if attackers can access our db, they can easily know users' passwords.
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
-            user = usersRepository.save(user); // insert into db
+            userDetailsCache.invalidate(user.getEmail());
+            knownEmailFilter.add(user.getEmail()); // after insert was committed
             /**
              * we should return with only one response object for all api response instead of user object eg. ResponseModel which include status, message, data fields,
              * but this is demo project so, I don't do that.
@@ -128,6 +267,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // insert run in repository's own transaction, so that we can catch duplicate error and return 400.
     public ResponseEntity saveRole(Role role) {
         log.info("saving role: {}",role);
         Map<String, String> errorMap = new HashMap<String, String>();
@@ -135,10 +275,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         // check role name
         if(role != null && role.getName()!=null) {
 
-            Role dbRole = roleRepository.findByName(role.getName());
+            role.setId(null); // always insert new role
 
-            // if role is existed, we don't let insert same role name into db
-            if(dbRole!=null) {
+            // unique index of role name (ux_role_name) will reject same role name, so we don't need to select first.
+            try {
+                role = roleRepository.saveAndFlush(role);
+            } catch (DataIntegrityViolationException e) {
                 /**
                  * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields
                  * but this is demo project so, I don't do that.
@@ -147,8 +289,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
                 errorMap.put("error", "Role is already in System");
                 return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
             }
-
-            role = roleRepository.save(role);
+            roleRegistry.refresh(); // new role get its role bit for access tokens.
 
             /**
              * we should return with only one response object for all api response instead of role object. eg. ResponseModel with status, message, data fields
@@ -167,48 +308,165 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // insert run in repository's own transaction, so that we can catch duplicate error and return 400.
     public ResponseEntity addRoleToUser(String email, String roleName) {
         log.info("add role to user, email: {}, roleName: {}",email, roleName);
         Map<String, String> errorMap = new HashMap<>();
 
         // you can check email null and email format here. This is demo project and I don't check that now.
-        Users user = usersRepository.findByEmail(email);
-        if(user== null){
+
+        // add role to user by one insert statement, we don't load user (and all roles of user) and role first.
+        // primary key of users_role_list will reject if that role was already added to user.
+        // version of user is increased in same transaction, so ETag of get user apis is changed together with roles (on every instance).
+        int inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                int rows = usersRepository.insertUserRole(email, roleName);
+                if (rows > 0) {
+                    usersRepository.increaseVersion(email);
+                }
+                return rows;
+            });
+        } catch (DataIntegrityViolationException e) {
             /**
              * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields
              * but this is demo project so, I don't do that.
              */
-            log.error("Couldn't find user by email: {}", email);
-            errorMap.put("error", "User Not Found");
+            log.error("Input role name is already existed in user: {}, roleName: {}", email, roleName);
+            errorMap.put("message", "Input role is already added in user");
             return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
         }
-        Role role = roleRepository.findByName(roleName);
-        if(role== null){
+
+        if(inserted == 0) {
+            // nothing was inserted, so user or role is not found, we check which one only for this error case.
             /**
              * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields
              * but this is demo project so, I don't do that.
              */
-            log.error("Couldn't find role by role name: {}", roleName);
-            errorMap.put("error", "Role Name Not Found, Please add Role Name that you want.");
+            if(!usersRepository.existsByEmail(email)) {
+                log.error("Couldn't find user by email: {}", email);
+                errorMap.put("error", "User Not Found");
+            } else {
+                log.error("Couldn't find role by role name: {}", roleName);
+                errorMap.put("error", "Role Name Not Found, Please add Role Name that you want.");
+            }
             return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
         }
 
-        // check if user input role name is already existed (already added) in user object, if existed, put that into Optional<Role> Object.
-        Optional<Role> foundRole = user.getRoleList().stream().filter(roleObj -> roleObj.getName().equals(roleName)).findFirst();
+        userDetailsCache.invalidate(email); // user's roles are changed, so next login need to load again from database.
+        refreshTokenStore.clearRoles(email); // and next token refresh need to take new roles from database too.
+        return ResponseEntity.ok().build();
+    }
 
-        // check for role name is existed
-        if(foundRole.isPresent()){
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED) // inserts run in transaction template, so that we can fall back to one by one insert if batch was failed.
+    public ResponseEntity addRolesToUsers(List<RoleAssignment> assignments) {
+        log.info("add roles to users, pairs: {}", assignments == null ? 0 : assignments.size());
+        Map<String, String> errorMap = new HashMap<>();
+
+        if(assignments == null || assignments.isEmpty() || assignments.size() > MAX_ROLE_ASSIGNMENTS) {
             /**
              * we should return with only one response object for all api response eg. ResponseModel with status, message, data fields
              * but this is demo project so, I don't do that.
              */
-            log.error("Input role name is already existed in user: {}, roleName: {}", email, roleName);
-            errorMap.put("message", "Input role is already added in user");
+            errorMap.put("error", "Input must have 1 to " + MAX_ROLE_ASSIGNMENTS + " pairs");
             return new ResponseEntity<>(errorMap, HttpStatus.BAD_REQUEST);
         }
 
-        user.getRoleList().add(role); // we don't need to call save method again as we declared @transactional, it will refresh and upload db, and do rollback if got error.
-        return ResponseEntity.ok().build();
+        // result for every input pair, in same order with input.
+        List<RoleAssignmentResult> results = new ArrayList<>(assignments.size());
+        for (RoleAssignment assignment : assignments) {
+            results.add(new RoleAssignmentResult(
+                    assignment == null ? null : assignment.getEmail(),
+                    assignment == null ? null : assignment.getRoleName(), null, null));
+        }
+
+        // resolve all users and roles by two in queries (not findByEmail and findByName for every pair)
+        Set<String> emails = new HashSet<>();
+        Set<String> roleNames = new HashSet<>();
+        results.forEach(result -> {
+            if (result.getEmail() != null) emails.add(result.getEmail());
+            if (result.getRoleName() != null) roleNames.add(result.getRoleName());
+        });
+        Map<String, Long> userIds = emails.isEmpty() ? Collections.emptyMap() : usersRepository.findIdsByEmails(emails).stream()
+                .collect(Collectors.toMap(IdNameRow::getName, IdNameRow::getId));
+        Map<String, Long> roleIds = roleNames.isEmpty() ? Collections.emptyMap() : roleRepository.findIdsByNames(roleNames).stream()
+                .collect(Collectors.toMap(IdNameRow::getName, IdNameRow::getId));
+
+        // roles which those users already have, by one query, key is "userId:roleId"
+        Set<String> existingPairs = userIds.isEmpty() ? new HashSet<>() : usersRepository.findUserRoleIds(userIds.values()).stream()
+                .map(row -> row.getUserId() + ":" + row.getRoleId())
+                .collect(Collectors.toSet());
+
+        List<Object[]> rowsToInsert = new ArrayList<>();
+        List<RoleAssignmentResult> pending = new ArrayList<>();
+        for (RoleAssignmentResult result : results) {
+            if (result.getEmail() == null || result.getRoleName() == null) {
+                failed(result, "Input is null");
+                continue;
+            }
+            Long userId = userIds.get(result.getEmail());
+            Long roleId = roleIds.get(result.getRoleName());
+            if (userId == null) {
+                failed(result, "User Not Found");
+            } else if (roleId == null) {
+                failed(result, "Role Name Not Found, Please add Role Name that you want.");
+            } else if (!existingPairs.add(userId + ":" + roleId)) {
+                // user already has that role, or same pair came two times in request
+                failed(result, "Input role is already added in user");
+            } else {
+                rowsToInsert.add(new Object[]{userId, roleId});
+                pending.add(result);
+            }
+        }
+
+        if (!rowsToInsert.isEmpty()) {
+            try {
+                // users_role_list rows and versions of those users (for ETag) by jdbc batch in one transaction
+                List<Long> changedUserIds = rowsToInsert.stream().map(row -> (Long) row[0]).distinct().collect(Collectors.toList());
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, rowsToInsert, ROLE_INSERT_BATCH_SIZE, (ps, row) -> {
+                        ps.setLong(1, (Long) row[0]);
+                        ps.setLong(2, (Long) row[1]);
+                    });
+                    jdbcTemplate.batchUpdate(INCREASE_USER_VERSION_SQL, changedUserIds, ROLE_INSERT_BATCH_SIZE, (ps, userId) -> ps.setLong(1, userId));
+                });
+                pending.forEach(result -> result.setStatus(RoleAssignmentResult.ADDED));
+            } catch (DataIntegrityViolationException e) {
+                // other request added same role to same user at the same time (primary key of users_role_list),
+                // so, we insert one by one to know which pairs are failed.
+                log.warn("batch insert of user roles was failed, insert one by one: {}", e.getMessage());
+                for (int i = 0; i < rowsToInsert.size(); i++) {
+                    Object[] row = rowsToInsert.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            jdbcTemplate.update(INSERT_USER_ROLE_SQL, row);
+                            jdbcTemplate.update(INCREASE_USER_VERSION_SQL, row[0]);
+                        });
+                        pending.get(i).setStatus(RoleAssignmentResult.ADDED);
+                    } catch (DataIntegrityViolationException duplicate) {
+                        failed(pending.get(i), "Input role is already added in user");
+                    }
+                }
+            }
+        }
+
+        // roles of those users are changed, so next login and next token refresh need to load again from database.
+        results.stream()
+                .filter(result -> RoleAssignmentResult.ADDED.equals(result.getStatus()))
+                .map(RoleAssignmentResult::getEmail)
+                .distinct()
+                .forEach(email -> {
+                    userDetailsCache.invalidate(email);
+                    refreshTokenStore.clearRoles(email);
+                });
+
+        return ResponseEntity.ok(results);
+    }
+
+    private static void failed(RoleAssignmentResult result, String error) {
+        result.setStatus(RoleAssignmentResult.FAILED);
+        result.setError(error);
     }
 
 }
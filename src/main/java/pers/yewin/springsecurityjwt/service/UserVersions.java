@@ -0,0 +1,98 @@
+package pers.yewin.springsecurityjwt.service;
+
+import pers.yewin.springsecurityjwt.model.dto.UserPage;
+import pers.yewin.springsecurityjwt.model.dto.UserVersionRow;
+import pers.yewin.springsecurityjwt.model.dto.UserView;
+
+import java.util.List;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+public final class UserVersions {
+
+    /**
+     * ETag of /user/getAllUser and /user/getUserByEmail (conditional GET), built from version column of users table (V6__users_version.sql).
+     * version is increased for every change of user and every role change of user, in same transaction with that change,
+     * so ETag is same on every application instance and after restart, and it is changed by write of any instance.
+     *
+     * - user: id and version of that user.
+     * - users page: first and last id, user count, sum of versions and next page flag of that page.
+     *   versions only go up, so role change of any user in page change the sum, new user inside page range change last id or count
+     *   (max version alone don't see new user which has version 0), and new user after last page change next page flag.
+     *
+     * for If-None-Match, ETag is built first from id and version only query (UserVersionRow, no join with roles),
+     * full users and roles are loaded only when it don't match, and ETag of full response is built again from that response.
+     * both ways give same ETag for same data.
+     */
+
+    private UserVersions() {
+    }
+
+    public static String userETag(UserView user) {
+        return userETag(user.getId(), user.getVersion());
+    }
+
+    public static String userETag(UserVersionRow user) {
+        return userETag(user.getId(), user.getVersion());
+    }
+
+    public static String usersETag(UserPage page) {
+        List<UserView> users = page.getUsers();
+        if (users.isEmpty()) {
+            return usersETag(0, 0, 0, 0, false);
+        }
+        long versionSum = 0;
+        for (UserView user : users) {
+            versionSum += user.getVersion();
+        }
+        return usersETag(users.get(0).getId(), users.get(users.size() - 1).getId(), users.size(), versionSum, page.getNextCursor() != null);
+    }
+
+    // users of one page (without the one more user which was taken to know next page), hasNext is true when there is next page.
+    public static String usersETag(List<UserVersionRow> users, boolean hasNext) {
+        if (users.isEmpty()) {
+            return usersETag(0, 0, 0, 0, hasNext);
+        }
+        long versionSum = 0;
+        for (UserVersionRow user : users) {
+            versionSum += user.getVersion();
+        }
+        return usersETag(users.get(0).getId(), users.get(users.size() - 1).getId(), users.size(), versionSum, hasNext);
+    }
+
+    private static String userETag(long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    private static String usersETag(long firstId, long lastId, int count, long versionSum, boolean hasNext) {
+        if (count == 0) {
+            return "\"empty\"";
+        }
+        return "\"" + firstId + "-" + lastId + "-" + count + "-" + versionSum + (hasNext ? "-n" : "") + "\"";
+    }
+
+    /**
+     * If-None-Match header can have many ETags (eg. "a", W/"b") or *, weak ETag is compared by its value (weak comparison for GET).
+     * eTag is null when there is no representation (eg. unknown email), then nothing match, not even *.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty() || eTag == null) {
+            return false;
+        }
+        for (String value : ifNoneMatch.split(",")) {
+            value = value.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(eTag) || value.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+package pers.yewin.springsecurityjwt.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.util
+ */
+
+public final class BloomFilter {
+
+    /**
+     * Bloom filter for text keys, https://en.wikipedia.org/wiki/Bloom_filter
+     * mightContain return false -> key was never added (for sure), so we don't need to check database.
+     * mightContain return true -> key was maybe added, check exact value (eg. database) to know real answer.
+     *
+     * keys can't be removed from bloom filter, so owner of filter should build new filter from current keys
+     * when old keys should be gone (eg. expired revoked tokens).
+     *
+     * many threads can add and check keys at the same time (bits are kept in AtomicLongArray),
+     * checking key don't create any object.
+     */
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashCount;
+
+    private BloomFilter(long bitSize, int hashCount) {
+        int words = (int) Math.max(1, (bitSize + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * size filter for expected number of keys and false positive probability (eg. 0.01 means 1% of unknown keys still say "maybe").
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            expectedInsertions = 1;
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("false positive probability must be between 0 and 1: " + falsePositiveProbability);
+        }
+        // m = -n ln(p) / (ln 2)^2,  k = m / n ln 2
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        if (bitSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bloom filter is too big for " + expectedInsertions + " keys");
+        }
+        int hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bitSize, hashCount);
+    }
+
+    public void put(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            setBit(index(h1 + i * h2));
+        }
+    }
+
+    public boolean mightContain(CharSequence key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // memory of bit array, object headers are not counted.
+    public long sizeInBytes() {
+        return bitSize >>> 3;
+    }
+
+    private long index(int combinedHash) {
+        // double hashing (Kirsch and Mitzenmacher), negative hash is flipped to positive.
+        return (combinedHash < 0 ? ~combinedHash : combinedHash) % bitSize;
+    }
+
+    private void setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return; // bit is already set
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    // 64 bit FNV-1a over characters and murmur3 finalizer, directly from CharSequence (no getBytes copy).
+    private static long hash(CharSequence key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            hash ^= c & 0xff;
+            hash *= 0x100000001b3L;
+            hash ^= c >>> 8;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53a87e1L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
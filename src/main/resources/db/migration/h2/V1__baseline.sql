@@ -0,0 +1,25 @@
+-- baseline schema for H2 (tests and benchmarks), same tables with mysql/V1__baseline.sql
+
+create sequence hibernate_sequence start with 1 increment by 1;
+
+create table role (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table users (
+    id bigint not null,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+);
+
+create table users_role_list (
+    users_id bigint not null,
+    role_list_id bigint not null
+);
+
+alter table users_role_list add constraint fk_users_role_list_role foreign key (role_list_id) references role (id);
+alter table users_role_list add constraint fk_users_role_list_users foreign key (users_id) references users (id);
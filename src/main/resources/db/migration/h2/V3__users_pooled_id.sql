@@ -0,0 +1,4 @@
+-- users table use its own pooled id generator (users_seq), see mysql/V3__users_pooled_id.sql
+-- increment must be same with allocationSize of Users entity.
+
+create sequence users_seq start with 1 increment by 50;
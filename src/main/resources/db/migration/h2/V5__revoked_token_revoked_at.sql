@@ -0,0 +1,6 @@
+-- time (millis) when token was revoked, other application instances read rows which are newer than their last poll (see TokenRevocationService).
+-- rows which were created before this column have 0, they are already in bloom filter of every instance which was started after them.
+
+alter table revoked_token add column revoked_at bigint not null default 0;
+
+create index ix_revoked_token_revoked_at on revoked_token (revoked_at);
@@ -0,0 +1,27 @@
+-- baseline schema, same as the tables which were created by hibernate ddl-auto=update before we use flyway.
+-- for existing database, flyway will mark this version as baseline (spring.flyway.baseline-on-migrate) and will not run this script.
+
+create table hibernate_sequence (next_val bigint) engine=InnoDB;
+insert into hibernate_sequence values (1);
+
+create table role (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null,
+    email varchar(255),
+    name varchar(255),
+    password varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table users_role_list (
+    users_id bigint not null,
+    role_list_id bigint not null
+) engine=InnoDB;
+
+alter table users_role_list add constraint fk_users_role_list_role foreign key (role_list_id) references role (id);
+alter table users_role_list add constraint fk_users_role_list_users foreign key (users_id) references users (id);
@@ -0,0 +1,7 @@
+-- unique indexes, so that database reject duplicate email, role name and same role for same user (even for concurrent requests)
+-- and application can insert directly without checking (select) first.
+-- if you have duplicate data from old version, please clean that data before running this migration.
+
+create unique index ux_users_email on users (email);
+create unique index ux_role_name on role (name);
+alter table users_role_list add constraint pk_users_role_list primary key (users_id, role_list_id);
@@ -0,0 +1,7 @@
+-- users table use its own pooled id generator (users_seq) instead of shared hibernate_sequence,
+-- hibernate take 50 ids in one round trip (allocationSize = 50, pooled-lo optimizer) and jdbc batch inserts can work.
+-- mysql don't have sequence, so hibernate use table with next_val column like hibernate_sequence table.
+-- start after current max id, so new ids never clash with existing users.
+
+create table users_seq (next_val bigint) engine=InnoDB;
+insert into users_seq select coalesce(max(id), 0) + 1 from users;
@@ -0,0 +1,12 @@
+-- revoked access and refresh tokens (see TokenRevocationService).
+-- token_key is "jti:" + token id for one token, or "sub:" + email for all tokens of that user which were issued before issued_before.
+-- rows are deleted after expires_at as all revoked tokens were already expired at that time.
+
+create table revoked_token (
+    token_key varchar(255) not null,
+    issued_before bigint,
+    expires_at bigint not null,
+    primary key (token_key)
+) engine=InnoDB;
+
+create index ix_revoked_token_expires_at on revoked_token (expires_at);
@@ -0,0 +1,4 @@
+-- version of user data, it is increased for every change of user (hibernate @Version) and every role change of user (UserServiceImpl),
+-- ETag of get user apis is built from it, so it is same on every application instance and after restart.
+
+alter table users add column version bigint not null default 0;
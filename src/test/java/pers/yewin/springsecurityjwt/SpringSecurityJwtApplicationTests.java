@@ -2,8 +2,10 @@ package pers.yewin.springsecurityjwt;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test") // use H2 in memory database from application-test.properties
 class SpringSecurityJwtApplicationTests {
 
     @Test
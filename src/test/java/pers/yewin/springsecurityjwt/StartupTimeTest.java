@@ -0,0 +1,102 @@
+package pers.yewin.springsecurityjwt;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt
+ */
+
+@Slf4j // for logging
+@Tag("startup-budget") // run by appcds build (mvn package -Pappcds) or mvn test -Pstartup-budget, not by default mvn test
+class StartupTimeTest {
+
+    /**
+     * time from SpringApplication.run of fast-start profile until first authenticated api call was successful
+     * (login of super admin and then get user by email with that access token), it should be inside the boot budget.
+     * budget is for slow CI machine, give other one by -Dstartup.budget-millis=...
+     * H2 is used instead of MySQL, so it don't include time of database connection and flyway over network.
+     */
+
+    private static final long BUDGET_MILLIS = Long.getLong("startup.budget-millis", 20000);
+
+    @Test
+    void firstAuthenticatedRequestIsInsideBootBudget() {
+        long startNanos = System.nanoTime();
+        // own in memory database, so that default data is created by this application like first start of new environment.
+        try (ConfigurableApplicationContext context = SpringApplication.run(SpringSecurityJwtApplication.class,
+                "--spring.profiles.active=test,fast-start",
+                "--spring.datasource.url=jdbc:h2:mem:startuptestdb;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--login-throttle.enabled=false")) { // login is tried many times until super admin is created
+            long startedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + context.getEnvironment().getProperty("server.servlet.context-path", "");
+            ResponseEntity<String> response = firstAuthenticatedRequest(baseUrl, startNanos);
+            long firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            log.info("application started in {} ms, first authenticated request in {} ms, budget {} ms", startedMillis, firstRequestMillis, BUDGET_MILLIS);
+            assertEquals(200, response.getStatusCodeValue());
+            assertTrue(firstRequestMillis <= BUDGET_MILLIS,
+                    "first authenticated request after " + firstRequestMillis + " ms, budget is " + BUDGET_MILLIS + " ms");
+        }
+    }
+
+    // default data is created in background (startup.seed-async), so login is tried again until super admin is there or budget is over.
+    @SuppressWarnings("unchecked")
+    private static ResponseEntity<String> firstAuthenticatedRequest(String baseUrl, long startNanos) {
+        RestTemplate restTemplate = new RestTemplate();
+        while (true) {
+            try {
+                HttpHeaders loginHeaders = new HttpHeaders();
+                loginHeaders.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+                form.add("username", "superadmin@gmail.com");
+                form.add("password", "superadmin");
+                Map<String, String> tokens = restTemplate.postForObject(baseUrl + "/login", new HttpEntity<>(form, loginHeaders), Map.class);
+
+                HttpHeaders headers = new HttpHeaders();
+                headers.setBearerAuth(tokens.get("accessToken"));
+                return restTemplate.exchange(baseUrl + "/user/getUserByEmail?email=superadmin@gmail.com", HttpMethod.GET,
+                        new HttpEntity<>(headers), String.class);
+            } catch (RestClientException e) {
+                if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) > BUDGET_MILLIS) {
+                    throw e;
+                }
+                sleep();
+            }
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package pers.yewin.springsecurityjwt.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.service.KnownEmailFilter;
+import pers.yewin.springsecurityjwt.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.controller
+ */
+
+@SpringBootTest(properties = "email-filter.enabled=true") // email filter is disabled by default, it is tested here
+@AutoConfigureMockMvc
+@ActiveProfiles("test") // use H2 in memory database from application-test.properties
+class UserControllerQueryCountTest {
+
+    /**
+     * get apis should take users and their role names by one sql statement per request (no N+1 role queries).
+     */
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private JwtTokenService jwtTokenService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private KnownEmailFilter knownEmailFilter;
+    @Autowired
+    private UsersRepository usersRepository;
+
+    private Statistics statistics;
+    private String bearerToken;
+
+    @BeforeEach
+    void setUp() {
+        // super admin and roles are created by CommandLineRunner, we add some more users with two roles each.
+        for (int i = 1; i <= 10; i++) {
+            String email = "query-count-" + i + "@gmail.com";
+            if (userService.getByEmail(email) == null) {
+                userService.saveUser(new Users(null, "Query Count " + i, email, "password", new ArrayList<>()));
+                userService.addRoleToUser(email, "NORMAL_USER");
+                userService.addRoleToUser(email, "MANAGER");
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        bearerToken = "Bearer " + jwtTokenService.createAccessToken("superadmin@gmail.com",
+                Collections.singletonList("SUPER_ADMIN"), "http://localhost/login");
+    }
+
+    @Test
+    void getAllUserUsesOneStatementPerPage() throws Exception {
+        statistics.clear();
+        String firstPage = perform(get("/user/getAllUser").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(5))
+                .andExpect(jsonPath("$.users[0].roles").isNotEmpty())
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        // next (deeper) page is also one statement
+        statistics.clear();
+        String nextCursor = JsonPath.read(firstPage, "$.nextCursor");
+        perform(get("/user/getAllUser").param("size", "5").param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(5));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserByEmailUsesOneStatement() throws Exception {
+        statistics.clear();
+        perform(get("/user/getUserByEmail").param("email", "query-count-1@gmail.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value("query-count-1@gmail.com"))
+                .andExpect(jsonPath("$.roles.length()").value(2))
+                .andExpect(jsonPath("$.password").doesNotExist());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getUserByEmailOfUnknownEmailUsesNoStatement() throws Exception {
+        knownEmailFilter.rebuild(); // make sure filter is ready, it is built in scheduler thread after start.
+        statistics.clear();
+        perform(get("/user/getUserByEmail").param("email", "not-registered@gmail.com"))
+                .andExpect(status().isOk());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void unchangedUserReturnsNotModifiedWithoutBody() throws Exception {
+        String email = "query-count-2@gmail.com";
+        String eTag = perform(get("/user/getUserByEmail").param("email", email))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ETAG))
+                .andReturn().getResponse().getHeader(ETAG);
+
+        // same version, 304 without body by one id and version statement, user and roles are not loaded
+        statistics.clear();
+        perform(get("/user/getUserByEmail").param("email", email).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, eTag))
+                .andExpect(content().string(""));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(rolesWereQueried());
+
+        // user's roles were changed, so version was increased and client get new body and new ETag (version statement and full statement)
+        userService.addRoleToUser(email, "ADMIN");
+        statistics.clear();
+        perform(get("/user/getUserByEmail").param("email", email).header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ETAG))
+                .andExpect(jsonPath("$.roles.length()").value(3))
+                .andExpect(jsonPath("$.version").doesNotExist());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(rolesWereQueried());
+    }
+
+    @Test
+    void unchangedPageReturnsNotModified() throws Exception {
+        MvcResult page = perform(get("/user/getAllUser").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(ETAG))
+                .andReturn();
+        String eTag = page.getResponse().getHeader(ETAG);
+
+        // ETag of id and version only statement is same as ETag of full page
+        statistics.clear();
+        perform(get("/user/getAllUser").param("size", "5").header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, eTag))
+                .andExpect(content().string(""));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(rolesWereQueried());
+
+        // change of user in the page (eg. by other instance) change the page ETag
+        usersRepository.increaseVersion(JsonPath.read(page.getResponse().getContentAsString(), "$.users[4].email"));
+        statistics.clear();
+        perform(get("/user/getAllUser").param("size", "5").header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(5));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void anyETagDoesNotMatchUnknownEmail() throws Exception {
+        // If-None-Match: * only match existing representation, unknown email is never 304
+        perform(get("/user/getUserByEmail").param("email", "not-registered@gmail.com").header(IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ETAG));
+    }
+
+    // join query of users and roles was run (not only id and version query).
+    private boolean rolesWereQueried() {
+        return Arrays.stream(statistics.getQueries()).anyMatch(query -> query.contains("role"));
+    }
+
+    // controller return CompletableFuture (bulkhead), so we wait async result and dispatch to get the response.
+    private ResultActions perform(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder.header(AUTHORIZATION, bearerToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
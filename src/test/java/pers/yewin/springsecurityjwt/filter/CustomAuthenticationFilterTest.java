@@ -0,0 +1,210 @@
+package pers.yewin.springsecurityjwt.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import pers.yewin.springsecurityjwt.config.Bulkhead;
+import pers.yewin.springsecurityjwt.config.BulkheadProperties;
+import pers.yewin.springsecurityjwt.config.LoginThrottleProperties;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.LoginThrottle;
+import pers.yewin.springsecurityjwt.security.RefreshTokenService;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.filter
+ */
+
+class CustomAuthenticationFilterTest {
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final JsonResponseWriter jsonResponseWriter = jsonResponseWriter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LoginThrottleProperties loginThrottleProperties = new LoginThrottleProperties();
+    // one login thread and one queue slot, so second login wait in queue.
+    private final Bulkhead loginBulkhead = new Bulkhead("login", new BulkheadProperties.Pool(1, 1));
+
+    private static JsonResponseWriter jsonResponseWriter() {
+        try {
+            return new JsonResponseWriter(new ObjectMapper());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        loginBulkhead.shutdown();
+    }
+
+    private CustomAuthenticationFilter filter() {
+        return new CustomAuthenticationFilter(authenticationManager, refreshTokenService, jsonResponseWriter, new AuthMetrics(meterRegistry),
+                new LoginThrottle(loginThrottleProperties, meterRegistry), loginBulkhead, 30_000);
+    }
+
+    private static MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        request.setServletPath("/login");
+        request.setAsyncSupported(true);
+        request.addParameter("username", "superadmin@gmail.com");
+        request.addParameter("password", "superadmin");
+        return request;
+    }
+
+    @Test
+    void loginWhichTimedOutInQueueGetsServiceUnavailableAndIsNotAuthenticated() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        loginBulkhead.execute(() -> await(busy)); // login thread is busy until this test release it
+
+        MockHttpServletRequest request = loginRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request, response, (req, resp) -> { });
+
+        // async timeout while login is still in bulkhead queue
+        timeout(request, response);
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+
+        busy.countDown();
+        awaitLogins();
+
+        // queued login returned at once, no password check for client which already got response
+        verify(authenticationManager, never()).authenticate(any());
+        assertEquals(503, response.getStatus());
+        assertEquals(1, loginCount(AuthMetrics.LOGIN_TIMEOUT));
+        assertEquals(0, loginCount(AuthMetrics.LOGIN_FAILURE));
+    }
+
+    @Test
+    void loginWhichFinishedAfterTimeoutDoesNotWriteResponse() throws Exception {
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch slowPassword = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            checking.countDown();
+            await(slowPassword); // slow BCrypt
+            User user = new User("superadmin@gmail.com", "", Collections.emptyList());
+            return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        });
+
+        MockHttpServletRequest request = loginRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request, response, (req, resp) -> { });
+        assertTrue(checking.await(10, TimeUnit.SECONDS));
+
+        // timeout while password is being checked, then password check is finished
+        timeout(request, response);
+        String timedOutBody = response.getContentAsString();
+        slowPassword.countDown();
+        awaitLogins();
+
+        // tokens are not created and not written into response which was already sent
+        verify(refreshTokenService, never()).login(anyString(), any(), anyString());
+        assertEquals(503, response.getStatus());
+        assertEquals(timedOutBody, response.getContentAsString());
+        // recorded once, by timeout
+        assertEquals(1, loginCount(AuthMetrics.LOGIN_TIMEOUT));
+        assertEquals(0, loginCount(AuthMetrics.LOGIN_SUCCESS));
+    }
+
+    @Test
+    void failedLoginIsRecordedAsFailure() throws Exception {
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        MockHttpServletRequest request = loginRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request, response, (req, resp) -> { });
+        awaitLogins();
+
+        assertTrue(response.getContentAsString().contains("Bad credentials"));
+        assertEquals(1, loginCount(AuthMetrics.LOGIN_FAILURE));
+        assertEquals(0, loginCount(AuthMetrics.LOGIN_SUCCESS));
+    }
+
+    @Test
+    void queuedLoginOfClosedConnectionIsSkipped() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        loginBulkhead.execute(() -> await(busy));
+
+        MockHttpServletRequest request = loginRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter().doFilter(request, response, (req, resp) -> { });
+
+        // client closed connection while login is in queue
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, request, response, new IOException("Connection reset by peer")));
+        }
+        busy.countDown();
+        awaitLogins();
+
+        verify(authenticationManager, never()).authenticate(any());
+        assertEquals("", response.getContentAsString());
+        assertEquals(1, loginCount(AuthMetrics.LOGIN_ABORTED));
+    }
+
+    @Test
+    void throttledLoginGetsTooManyRequestsWithoutPasswordCheck() throws Exception {
+        loginThrottleProperties.setUsername(new LoginThrottleProperties.Limit(1, 1));
+        CustomAuthenticationFilter filter = filter();
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        filter.doFilter(loginRequest(), new MockHttpServletResponse(), (req, resp) -> { });
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        filter.doFilter(loginRequest(), throttled, (req, resp) -> { });
+        awaitLogins();
+
+        assertEquals(429, throttled.getStatus());
+        assertEquals("60", throttled.getHeader("Retry-After"));
+        verify(authenticationManager, times(1)).authenticate(any());
+        assertEquals(1, loginCount(AuthMetrics.LOGIN_THROTTLED));
+    }
+
+    private long loginCount(String outcome) {
+        return meterRegistry.get("auth.login").tag("outcome", outcome).timer().count();
+    }
+
+    private static void timeout(MockHttpServletRequest request, MockHttpServletResponse response) throws IOException {
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext, request, response));
+        }
+    }
+
+    private void awaitLogins() throws InterruptedException {
+        loginBulkhead.getExecutor().shutdown();
+        assertTrue(loginBulkhead.getExecutor().awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
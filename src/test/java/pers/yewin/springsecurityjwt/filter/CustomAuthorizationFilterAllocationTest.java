@@ -0,0 +1,108 @@
+package pers.yewin.springsecurityjwt.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.repository.RevokedTokenRepository;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+import pers.yewin.springsecurityjwt.security.JsonResponseWriter;
+import pers.yewin.springsecurityjwt.security.JwtProperties;
+import pers.yewin.springsecurityjwt.security.JwtTokenService;
+import pers.yewin.springsecurityjwt.security.RoleRegistry;
+import pers.yewin.springsecurityjwt.security.TokenRevocationService;
+import pers.yewin.springsecurityjwt.security.VerifiedTokenCache;
+
+import javax.servlet.FilterChain;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.filter
+ */
+
+class CustomAuthorizationFilterAllocationTest {
+
+    /**
+     * request with already verified token should allocate (almost) nothing in CustomAuthorizationFilter.
+     * Before, one request allocated more than 1 KB (substring, getBytes, digest, ByteBuffer, authorities, attribute name, etc.).
+     * Budget include small allocation of mock request itself (case insensitive header look up).
+     * allocation is measured in some rounds after long warm up (until escape analysis of C2 compiler is used),
+     * and smallest round is compared with budget, so that one round with jit compilation or gc in it don't fail the test.
+     */
+
+    private static final int WARM_UP = 100_000;
+    private static final int ROUNDS = 5;
+    private static final int REQUESTS = 10_000;
+    private static final long MAX_BYTES_PER_REQUEST = 256;
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cachedTokenRequestDoesNotAllocate() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "thread allocation counter is not supported in this JVM");
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(new Role(1L, "SUPER_ADMIN"), new Role(2L, "ADMIN")));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.refresh();
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties, roleRegistry);
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(1000);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(mock(RevokedTokenRepository.class), verifiedTokenCache, 1000, 0.01);
+        CustomAuthorizationFilter filter = new CustomAuthorizationFilter(jwtTokenService, verifiedTokenCache, roleRegistry,
+                tokenRevocationService, new JsonResponseWriter(new ObjectMapper()), new AuthMetrics(new SimpleMeterRegistry()));
+
+        String token = jwtTokenService.createAccessToken("superadmin@gmail.com", Arrays.asList("SUPER_ADMIN", "ADMIN"), "test");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/getAllUser");
+        request.setServletPath("/user/getAllUser");
+        request.addHeader(AUTHORIZATION, "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // first request verify token and put into cache, then warm up (jit) for cached path.
+        for (int i = 0; i < WARM_UP; i++) {
+            filter.doFilterInternal(request, response, NO_OP_CHAIN);
+        }
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+
+        long threadId = Thread.currentThread().getId();
+        long bytesPerRequest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < REQUESTS; i++) {
+                filter.doFilterInternal(request, response, NO_OP_CHAIN);
+            }
+            bytesPerRequest = Math.min(bytesPerRequest, (threadMXBean.getThreadAllocatedBytes(threadId) - before) / REQUESTS);
+        }
+
+        assertTrue(bytesPerRequest <= MAX_BYTES_PER_REQUEST,
+                "CustomAuthorizationFilter allocated " + bytesPerRequest + " bytes per request, budget is " + MAX_BYTES_PER_REQUEST);
+    }
+}
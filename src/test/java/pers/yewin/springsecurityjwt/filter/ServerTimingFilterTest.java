@@ -0,0 +1,42 @@
+package pers.yewin.springsecurityjwt.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.metrics.AuthStage;
+import pers.yewin.springsecurityjwt.metrics.ServerTiming;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.filter
+ */
+
+class ServerTimingFilterTest {
+
+    @Test
+    void stagesOfRequestAreWrittenBeforeBody() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthMetrics authMetrics = new AuthMetrics(meterRegistry);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/login");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new ServerTimingFilter().doFilter(request, response, (req, resp) -> {
+            authMetrics.record(AuthStage.PASSWORD_MATCH, System.nanoTime() - 2_000_000);
+            resp.getOutputStream().write('{');
+            authMetrics.record(AuthStage.RESPONSE_WRITE, System.nanoTime() - 1_000_000); // after body was started, metrics only
+        });
+
+        String header = response.getHeader(ServerTiming.HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("bcrypt;dur="), header);
+        assertTrue(header.contains("total;dur="), header);
+        assertFalse(header.contains("write"), header);
+        assertEquals(1, meterRegistry.get("auth.stage").tag("stage", "response.write").timer().count());
+    }
+}
@@ -0,0 +1,106 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class JwtTokenServiceTest {
+
+    @Test
+    void hmacKeysAreNeverPublished() {
+        JwtTokenService jwtTokenService = hmac();
+
+        assertTrue(keys(jwtTokenService).isEmpty());
+    }
+
+    @Test
+    void applicationDoesNotStartWithoutHmacKey() {
+        assertThrows(IllegalStateException.class, () -> new JwtTokenService(new JwtProperties()));
+    }
+
+    @Test
+    void rs256TokenIsVerifiedAndPublicKeyIsPublished() {
+        JwtTokenService jwtTokenService = asymmetric(JwtTokenService.RS256);
+
+        DecodedJWT decodedJWT = jwtTokenService.verify(jwtTokenService.createRefreshToken("a@gmail.com", "test"));
+        assertEquals("RS256", decodedJWT.getAlgorithm());
+        assertEquals("rs256-1", decodedJWT.getKeyId());
+
+        Map<String, Object> jwk = keys(jwtTokenService).get(0);
+        assertEquals("RSA", jwk.get("kty"));
+        assertEquals("rs256-1", jwk.get("kid"));
+        assertEquals("AQAB", jwk.get("e"));
+    }
+
+    @Test
+    void es256KeyRingHasNoHmacKey() {
+        JwtTokenService hmac = hmac();
+        String oldToken = hmac.createRefreshToken("a@gmail.com", "test");
+
+        JwtTokenService jwtTokenService = asymmetric(JwtTokenService.ES256);
+
+        assertEquals("ES256", jwtTokenService.verify(jwtTokenService.createRefreshToken("a@gmail.com", "test")).getAlgorithm());
+        Map<String, Object> jwk = keys(jwtTokenService).get(0);
+        assertEquals("P-256", jwk.get("crv"));
+        assertEquals(43, ((String) jwk.get("x")).length()); // 32 bytes in base64url
+
+        // token of shared secret (default kid) is rejected, and secret can't be added back by rotate.
+        assertThrows(JWTVerificationException.class, () -> jwtTokenService.verify(oldToken));
+        assertFalse(jwtTokenService.hasKey(JwtTokenService.DEFAULT_KEY_ID));
+        assertThrows(IllegalArgumentException.class, () -> jwtTokenService.rotateKey("k2", "NewSecret"));
+    }
+
+    @Test
+    void tokenWithoutKeyIdIsCheckedByDefaultKeyOnly() {
+        String token = JWT.create().withSubject("a@gmail.com").sign(Algorithm.HMAC256("MyAppSecurityPassword"));
+
+        // hasKey(null) and verify of token without kid agree with each other
+        JwtTokenService hmac = hmac();
+        assertTrue(hmac.hasKey(null));
+        assertEquals("a@gmail.com", hmac.verify(token).getSubject());
+
+        JwtTokenService es256 = asymmetric(JwtTokenService.ES256);
+        assertFalse(es256.hasKey(null));
+        assertThrows(JWTVerificationException.class, () -> es256.verify(token));
+    }
+
+    @Test
+    void tokenOfOtherKeyPairIsRejected() {
+        String token = asymmetric(JwtTokenService.ES256).createRefreshToken("a@gmail.com", "test");
+
+        assertThrows(JWTVerificationException.class, () -> asymmetric(JwtTokenService.ES256).verify(token));
+    }
+
+    private static JwtTokenService hmac() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        return new JwtTokenService(jwtProperties);
+    }
+
+    private static JwtTokenService asymmetric(String algorithm) {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAlgorithm(algorithm);
+        jwtProperties.setActiveKeyId(algorithm.toLowerCase() + "-1");
+        return new JwtTokenService(jwtProperties);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> keys(JwtTokenService jwtTokenService) {
+        return (List<Map<String, Object>>) jwtTokenService.getJwks().getOrDefault("keys", Collections.emptyList());
+    }
+}
@@ -0,0 +1,148 @@
+package pers.yewin.springsecurityjwt.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pers.yewin.springsecurityjwt.config.LoginThrottleProperties;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class LoginThrottleTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginThrottle loginThrottle(int ipBurst, int ipPerMinute, int usernameBurst, int usernamePerMinute) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setIp(new LoginThrottleProperties.Limit(ipBurst, ipPerMinute));
+        properties.setUsername(new LoginThrottleProperties.Limit(usernameBurst, usernamePerMinute));
+        return new LoginThrottle(properties, meterRegistry);
+    }
+
+    @Test
+    void usernameIsThrottledAfterBurstAndRefilled() {
+        LoginThrottle loginThrottle = loginThrottle(100, 100, 3, 6); // one attempt back in every 10 seconds
+        long now = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", now));
+        }
+        assertEquals(10, loginThrottle.tryAcquire("10.0.0.1", "A@gmail.com", now)); // same account, retry after 10 seconds
+        assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "b@gmail.com", now)); // other account is not affected
+
+        assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", now + TimeUnit.SECONDS.toNanos(10)));
+        assertEquals(1, meterRegistry.get("auth.login.throttled").tag("key", LoginThrottle.KEY_USERNAME).counter().count());
+    }
+
+    @Test
+    void ipIsThrottledForManyAccountsAndDoesNotUseAccountTokens() {
+        LoginThrottle loginThrottle = loginThrottle(5, 60, 1, 1);
+        long now = 0;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "user-" + i + "@gmail.com", now));
+        }
+        assertTrue(loginThrottle.tryAcquire("10.0.0.1", "victim@gmail.com", now) > 0);
+        // attempt which was rejected by ip don't take token of victim account
+        assertEquals(0, loginThrottle.tryAcquire("10.0.0.2", "victim@gmail.com", now));
+        assertEquals(1, meterRegistry.get("auth.login.throttled").tag("key", LoginThrottle.KEY_IP).counter().count());
+    }
+
+    @Test
+    void idleBucketsAreEvicted() {
+        LoginThrottle loginThrottle = loginThrottle(2, 60, 2, 60);
+        loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", 0);
+        loginThrottle.tryAcquire("10.0.0.2", "b@gmail.com", 0);
+        assertEquals(4, loginThrottle.size());
+
+        assertEquals(0, loginThrottle.evictIdle(TimeUnit.MILLISECONDS.toNanos(500))); // not full again yet
+        assertEquals(4, loginThrottle.evictIdle(MINUTE));
+        assertEquals(0, loginThrottle.size());
+        assertEquals(0.0, meterRegistry.get("auth.login.throttle.keys").tag("key", LoginThrottle.KEY_IP).gauge().value());
+    }
+
+    @Test
+    void newKeysOfFullStripeShareOverflowBucket() {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setIp(new LoginThrottleProperties.Limit(100, 100));
+        properties.setUsername(new LoginThrottleProperties.Limit(3, 1));
+        properties.setStripes(1);
+        properties.setMaxKeysPerStripe(1); // one ip and one username are tracked, not more usernames
+        LoginThrottle loginThrottle = new LoginThrottle(properties, meterRegistry);
+        long now = 0;
+
+        assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", now));
+        // random usernames are not tracked one by one, but they are still limited together (fail closed).
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "random-" + i + "@gmail.com", now));
+        }
+        assertTrue(loginThrottle.tryAcquire("10.0.0.1", "random-3@gmail.com", now) > 0);
+        assertEquals(0, loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", now)); // tracked account keep its own bucket
+        assertEquals(2, loginThrottle.size());
+    }
+
+    @Test
+    void attemptsDuringEvictionTakeExactlyBurst() throws InterruptedException {
+        LoginThrottle loginThrottle = loginThrottle(1000, 1000, 50, 1);
+        AtomicInteger allowed = new AtomicInteger();
+        AtomicBoolean running = new AtomicBoolean(true);
+        // new bucket is full (idle) until first attempt take from it, so sweep can remove it while attempts are running.
+        Thread sweeper = new Thread(() -> {
+            while (running.get()) {
+                loginThrottle.evictIdle(0);
+            }
+        });
+        sweeper.start();
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executorService.execute(() -> {
+                if (loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", 0) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        running.set(false);
+        sweeper.join();
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void concurrentAttemptsTakeExactlyBurst() throws InterruptedException {
+        LoginThrottle loginThrottle = loginThrottle(1000, 1000, 50, 1);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executorService.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (loginThrottle.tryAcquire("10.0.0.1", "a@gmail.com", 0) == 0) {
+                    allowed.incrementAndGet();
+                }
+            });
+        }
+        start.countDown();
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(50, allowed.get());
+    }
+}
@@ -0,0 +1,127 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class RefreshTokenServiceTest {
+
+    private final JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties());
+    private final InMemoryRefreshTokenStore refreshTokenStore = new InMemoryRefreshTokenStore();
+    private final RefreshTokenService refreshTokenService = new RefreshTokenService(jwtTokenService, refreshTokenStore);
+
+    private final AtomicInteger databaseLoads = new AtomicInteger();
+    private final Function<String, List<String>> roleLoader = email -> {
+        databaseLoads.incrementAndGet();
+        return Collections.singletonList("ADMIN");
+    };
+
+    @Test
+    void refreshRotatesTokenWithoutDatabase() {
+        RefreshTokenService.TokenPair login = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+
+        RefreshTokenService.TokenPair first = refreshTokenService.refresh(jwtTokenService.verify(login.getRefreshToken()), "test", roleLoader);
+        RefreshTokenService.TokenPair second = refreshTokenService.refresh(jwtTokenService.verify(first.getRefreshToken()), "test", roleLoader);
+
+        assertEquals(0, databaseLoads.get());
+        assertNotEquals(first.getRefreshToken(), second.getRefreshToken());
+        assertArrayEquals(new String[]{"MANAGER"},
+                jwtTokenService.verify(second.getAccessToken()).getClaim(JwtTokenService.ROLES_CLAIM).asArray(String.class));
+    }
+
+    @Test
+    void reusedRefreshTokenRevokesWholeFamily() {
+        RefreshTokenService.TokenPair login = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+        RefreshTokenService.TokenPair rotated = refreshTokenService.refresh(jwtTokenService.verify(login.getRefreshToken()), "test", roleLoader);
+
+        // old refresh token is used again (eg. stolen token)
+        assertThrows(JWTVerificationException.class,
+                () -> refreshTokenService.refresh(jwtTokenService.verify(login.getRefreshToken()), "test", roleLoader));
+        // newest refresh token of that family can't be used anymore too.
+        assertThrows(JWTVerificationException.class,
+                () -> refreshTokenService.refresh(jwtTokenService.verify(rotated.getRefreshToken()), "test", roleLoader));
+    }
+
+    @Test
+    void changedRolesAreLoadedFromDatabaseOneTime() {
+        RefreshTokenService.TokenPair login = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+        refreshTokenStore.clearRoles("a@gmail.com");
+
+        RefreshTokenService.TokenPair refreshed = refreshTokenService.refresh(jwtTokenService.verify(login.getRefreshToken()), "test", roleLoader);
+        refreshTokenService.refresh(jwtTokenService.verify(refreshed.getRefreshToken()), "test", roleLoader);
+        assertEquals(1, databaseLoads.get()); // new roles were kept as snapshot after first load
+    }
+
+    @Test
+    void tokenWithoutKnownFamilyIsRejectedWithoutNewFamily() {
+        // refresh token which was created before token families (no fam claim)
+        String oldToken = jwtTokenService.createRefreshToken("a@gmail.com", "test");
+        // refresh token of family which is not in store (eg. in memory store after restart)
+        String unknownFamilyToken = jwtTokenService.createRefreshToken("a@gmail.com", "test", "lost-family", "token-1",
+                System.currentTimeMillis() + 60_000);
+
+        assertThrows(JWTVerificationException.class, () -> refreshTokenService.refresh(jwtTokenService.verify(oldToken), "test", roleLoader));
+        assertThrows(JWTVerificationException.class, () -> refreshTokenService.refresh(jwtTokenService.verify(unknownFamilyToken), "test", roleLoader));
+
+        assertEquals(0, databaseLoads.get());
+        assertEquals(0, refreshTokenStore.purgeExpired(Long.MAX_VALUE)); // no family was created
+    }
+
+    @Test
+    void clearRolesChangesOnlyFamiliesOfThatUser() {
+        RefreshTokenService.TokenPair a = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+        RefreshTokenService.TokenPair b = refreshTokenService.login("b@gmail.com", Collections.singletonList("MANAGER"), "test");
+
+        refreshTokenStore.clearRoles("a@gmail.com");
+
+        assertNull(refreshTokenStore.find(familyId(a)).getRoles());
+        assertEquals(Collections.singletonList("MANAGER"), refreshTokenStore.find(familyId(b)).getRoles());
+    }
+
+    @Test
+    void familyWhichWasRevokedDuringRoleLoadIsNotSavedAgain() {
+        RefreshTokenService.TokenPair login = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+        String familyId = familyId(login);
+        refreshTokenStore.clearRoles("a@gmail.com");
+
+        // other request reused old token of this family while roles are loaded from database.
+        assertThrows(JWTVerificationException.class, () -> refreshTokenService.refresh(jwtTokenService.verify(login.getRefreshToken()), "test", email -> {
+            refreshTokenStore.revokeFamily(familyId);
+            return Collections.singletonList("ADMIN");
+        }));
+        assertTrue(refreshTokenStore.find(familyId).isRevoked());
+    }
+
+    @Test
+    void purgedFamiliesAreRemovedFromUserIndex() {
+        RefreshTokenService.TokenPair login = refreshTokenService.login("a@gmail.com", Collections.singletonList("MANAGER"), "test");
+
+        assertEquals(1, refreshTokenStore.purgeExpired(Long.MAX_VALUE));
+        assertNull(refreshTokenStore.find(familyId(login)));
+        refreshTokenStore.clearRoles("a@gmail.com"); // nothing to change, and removed family is not created again
+        assertNull(refreshTokenStore.find(familyId(login)));
+    }
+
+    private static JwtProperties jwtProperties() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        return jwtProperties;
+    }
+
+    private String familyId(RefreshTokenService.TokenPair tokens) {
+        return jwtTokenService.verify(tokens.getRefreshToken()).getClaim(JwtTokenService.FAMILY_CLAIM).asString();
+    }
+}
@@ -0,0 +1,67 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class RoleRegistryTest {
+
+    private RoleRegistry roleRegistry;
+
+    @BeforeEach
+    void setup() {
+        RoleRepository roleRepository = mock(RoleRepository.class);
+        List<Role> roles = Arrays.asList(new Role(1L, "SUPER_ADMIN"), new Role(2L, "ADMIN"),
+                new Role(3L, "MANAGER"), new Role(4L, "NORMAL_USER"));
+        when(roleRepository.findAll(any(Sort.class))).thenReturn(roles);
+        roleRegistry = new RoleRegistry(roleRepository);
+        roleRegistry.refresh();
+    }
+
+    @Test
+    void sameBitsGiveSameSharedAuthorities() {
+        long bits = roleRegistry.toBits(Arrays.asList("ADMIN", "NORMAL_USER"));
+
+        assertEquals(0b1010, bits);
+        assertSame(roleRegistry.authoritiesOf(bits), roleRegistry.authoritiesOf(bits));
+        assertEquals("ADMIN", roleRegistry.authoritiesOf(bits).get(0).getAuthority());
+    }
+
+    @Test
+    void unknownRoleFallsBackToRoleNames() {
+        assertEquals(-1, roleRegistry.toBits(Collections.singletonList("NO_SUCH_ROLE")));
+    }
+
+    @Test
+    void accessTokenCarriesRoleBitsOrRoleNames() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties, roleRegistry);
+
+        DecodedJWT withBits = jwtTokenService.verify(jwtTokenService.createAccessToken("a@gmail.com", Arrays.asList("MANAGER"), "test"));
+        assertEquals(0b100L, withBits.getClaim(JwtTokenService.ROLE_BITS_CLAIM).asLong());
+        assertTrue(withBits.getClaim(JwtTokenService.ROLES_CLAIM).isNull());
+
+        DecodedJWT withNames = jwtTokenService.verify(jwtTokenService.createAccessToken("a@gmail.com", Arrays.asList("NO_SUCH_ROLE"), "test"));
+        assertArrayEquals(new String[]{"NO_SUCH_ROLE"}, withNames.getClaim(JwtTokenService.ROLES_CLAIM).asArray(String.class));
+    }
+}
@@ -0,0 +1,97 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import pers.yewin.springsecurityjwt.model.entity.RevokedToken;
+import pers.yewin.springsecurityjwt.repository.RevokedTokenRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class TokenRevocationServiceTest {
+
+    private final JwtTokenService jwtTokenService = jwtTokenService();
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100);
+    private final TokenRevocationService tokenRevocationService =
+            new TokenRevocationService(revokedTokenRepository, verifiedTokenCache, 1000, 0.01);
+
+    private static JwtTokenService jwtTokenService() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        return new JwtTokenService(jwtProperties);
+    }
+
+    @Test
+    void notRevokedTokenDoesNotCallDatabase() {
+        DecodedJWT decodedJWT = jwtTokenService.verify(jwtTokenService.createAccessToken("a@gmail.com", Collections.singletonList("ADMIN"), "test"));
+
+        assertFalse(tokenRevocationService.isRevoked(decodedJWT));
+        verify(revokedTokenRepository, never()).existsById(anyString());
+        verify(revokedTokenRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void revokedTokenIdIsRebuiltFromDatabase() {
+        DecodedJWT decodedJWT = jwtTokenService.verify(jwtTokenService.createAccessToken("a@gmail.com", Collections.singletonList("ADMIN"), "test"));
+        String key = "jti:" + decodedJWT.getId();
+
+        // revocation was saved before restart, filter is built from database rows.
+        when(revokedTokenRepository.findActiveKeys(anyLong())).thenReturn(Arrays.asList(key, "sub:other@gmail.com"));
+        when(revokedTokenRepository.existsById(key)).thenReturn(true);
+        tokenRevocationService.rebuild();
+
+        assertTrue(tokenRevocationService.isRevoked(decodedJWT));
+    }
+
+    @Test
+    void revocationOfOtherInstanceIsPolledAndOnlyItsCachedTokenIsRemoved() {
+        String revokedToken = jwtTokenService.createAccessToken("a@gmail.com", Collections.singletonList("ADMIN"), "test");
+        String otherToken = jwtTokenService.createAccessToken("b@gmail.com", Collections.singletonList("ADMIN"), "test");
+        DecodedJWT revoked = jwtTokenService.verify(revokedToken);
+        DecodedJWT other = jwtTokenService.verify(otherToken);
+        verifiedTokenCache.put(revokedToken, revoked, new VerifiedAuthentication(revoked.getSubject(), Collections.singletonList(new SimpleGrantedAuthority("ADMIN"))));
+        verifiedTokenCache.put(otherToken, other, new VerifiedAuthentication(other.getSubject(), Collections.singletonList(new SimpleGrantedAuthority("ADMIN"))));
+        long epoch = tokenRevocationService.getRevocationEpoch();
+
+        // other instance revoked token id, this instance read that row by poll.
+        String key = "jti:" + revoked.getId();
+        when(revokedTokenRepository.findRevokedSince(anyLong(), anyLong()))
+                .thenReturn(Collections.singletonList(new RevokedToken(key, null, Long.MAX_VALUE, System.currentTimeMillis())));
+        when(revokedTokenRepository.existsById(key)).thenReturn(true);
+        tokenRevocationService.pollRevocations();
+
+        assertTrue(tokenRevocationService.isRevoked(revoked));
+        assertNull(verifiedTokenCache.get(revokedToken));
+        assertNotNull(verifiedTokenCache.get(otherToken));
+        assertNotEquals(epoch, tokenRevocationService.getRevocationEpoch());
+    }
+
+    @Test
+    void revokedSubjectRemovesOnlyTokensIssuedBeforeRevocation() {
+        String token = jwtTokenService.createAccessToken("a@gmail.com", Collections.singletonList("ADMIN"), "test");
+        DecodedJWT decodedJWT = jwtTokenService.verify(token);
+        verifiedTokenCache.put(token, decodedJWT, new VerifiedAuthentication(decodedJWT.getSubject(), Collections.singletonList(new SimpleGrantedAuthority("ADMIN"))));
+        long epoch = tokenRevocationService.getRevocationEpoch();
+
+        tokenRevocationService.revokeSubject("a@gmail.com");
+
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertNull(verifiedTokenCache.get(token));
+        assertNotEquals(epoch, tokenRevocationService.getRevocationEpoch());
+    }
+}
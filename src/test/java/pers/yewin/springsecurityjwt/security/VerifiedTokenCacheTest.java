@@ -0,0 +1,125 @@
+package pers.yewin.springsecurityjwt.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import pers.yewin.springsecurityjwt.filter.CustomAuthorizationFilter;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.security
+ */
+
+class VerifiedTokenCacheTest {
+
+    private static final String ISSUER = "http://localhost/spring-security-jwt/login";
+
+    private final VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100);
+    private final VerifiedAuthentication authentication =
+            new VerifiedAuthentication("ye@gmail.com", Collections.singletonList(new SimpleGrantedAuthority("ADMIN")));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // claims of cached token, token text itself is only the cache key.
+    private static DecodedJWT claims(Date expiresAt) {
+        return JWT.decode(JWT.create().withKeyId("k1").withSubject("ye@gmail.com").withExpiresAt(expiresAt).sign(Algorithm.HMAC256("secret")));
+    }
+
+    @Test
+    void tokenIsNotFoundAtItsExpiryTime() {
+        verifiedTokenCache.put("header.payload.valid", claims(new Date(System.currentTimeMillis() + 60_000)), authentication);
+        verifiedTokenCache.put("header.payload.expired", claims(new Date(System.currentTimeMillis())), authentication);
+
+        assertSame(authentication, verifiedTokenCache.get("header.payload.valid").getAuthentication());
+        assertNull(verifiedTokenCache.get("header.payload.expired"));
+    }
+
+    @Test
+    void tokenWithNonAsciiCharacterIsNeverCached() {
+        // both would be "header.payload.?" in ascii, so they must not share one cache entry.
+        verifiedTokenCache.put("header.payload.\u00e9", claims(new Date(System.currentTimeMillis() + 60_000)), authentication);
+
+        assertNull(verifiedTokenCache.get("header.payload.\u00e9"));
+        assertNull(verifiedTokenCache.get("header.payload.\u00e8"));
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    void cachedAuthenticationCantBeChanged() {
+        assertThrows(UnsupportedOperationException.class, () -> authentication.setDetails("other request"));
+        assertThrows(UnsupportedOperationException.class, () -> authentication.setAuthenticated(false));
+        assertTrue(authentication.isAuthenticated());
+    }
+
+    @Test
+    void cachedTokenOfRetiredKeyIsRejected() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setActiveKeyId("k1");
+        jwtProperties.getKeys().put("k1", "FirstSecret");
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties);
+        CustomAuthorizationFilter filter = new CustomAuthorizationFilter(jwtTokenService, verifiedTokenCache,
+                new RoleRegistry(mock(RoleRepository.class)), mock(TokenRevocationService.class), new JsonResponseWriter(new ObjectMapper()), new AuthMetrics(new SimpleMeterRegistry())); // no role bits in token, roles come by names
+        String token = jwtTokenService.createAccessToken("ye@gmail.com", Collections.singletonList("ADMIN"), ISSUER);
+
+        assertEquals(200, doFilter(filter, token).getStatus());
+        assertEquals(1, verifiedTokenCache.size());
+
+        jwtTokenService.rotateKey("k2", "SecondSecret");
+        jwtTokenService.retireKey("k1");
+        assertEquals(403, doFilter(filter, token).getStatus()); // cache entry is still there, but it is not used
+    }
+
+    @Test
+    void tokenRevokedWhileItWasVerifiedIsNotLeftInCache() throws Exception {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.getKeys().put(JwtTokenService.DEFAULT_KEY_ID, "MyAppSecurityPassword");
+        JwtTokenService jwtTokenService = new JwtTokenService(jwtProperties);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        CustomAuthorizationFilter filter = new CustomAuthorizationFilter(jwtTokenService, verifiedTokenCache,
+                new RoleRegistry(mock(RoleRepository.class)), tokenRevocationService, new JsonResponseWriter(new ObjectMapper()), new AuthMetrics(new SimpleMeterRegistry()));
+        String token = jwtTokenService.createAccessToken("ye@gmail.com", Collections.singletonList("ADMIN"), ISSUER);
+
+        // token is revoked (and cache is evicted) after the filter checked it, but before the filter put it into cache.
+        when(tokenRevocationService.getRevocationEpoch()).thenReturn(0L, 1L);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(false, true);
+
+        assertEquals(403, doFilter(filter, token).getStatus());
+        assertEquals(0, verifiedTokenCache.size());
+        assertNull(verifiedTokenCache.get(token));
+    }
+
+    private static MockHttpServletResponse doFilter(CustomAuthorizationFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/getAllUser");
+        request.setServletPath("/user/getAllUser");
+        request.addHeader(AUTHORIZATION, "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        return response;
+    }
+}
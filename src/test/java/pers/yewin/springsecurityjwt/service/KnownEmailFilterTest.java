@@ -0,0 +1,75 @@
+package pers.yewin.springsecurityjwt.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pers.yewin.springsecurityjwt.util.BloomFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@Slf4j // for logging
+class KnownEmailFilterTest {
+
+    @Test
+    void everyEmailMightExistUntilFilterIsBuilt() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject("select count(*) from users", Long.class)).thenReturn(0L);
+        KnownEmailFilter knownEmailFilter = new KnownEmailFilter(jdbcTemplate, true, 1000, 0.01, 100);
+
+        assertFalse(knownEmailFilter.isReady());
+        assertTrue(knownEmailFilter.mightExist("unknown@gmail.com"));
+
+        knownEmailFilter.rebuild(); // empty users table
+        assertTrue(knownEmailFilter.isReady());
+        assertFalse(knownEmailFilter.mightExist("unknown@gmail.com"));
+
+        // new user, email is checked case insensitive like mysql
+        knownEmailFilter.add("New.User@Gmail.com");
+        assertTrue(knownEmailFilter.mightExist("new.user@gmail.com"));
+    }
+
+    @Test
+    void disabledFilterIsNeverBuilt() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        KnownEmailFilter knownEmailFilter = new KnownEmailFilter(jdbcTemplate, false, 1000, 0.01, 100);
+
+        knownEmailFilter.rebuild();
+        knownEmailFilter.add("new.user@gmail.com");
+
+        assertFalse(knownEmailFilter.isReady());
+        assertTrue(knownEmailFilter.mightExist("unknown@gmail.com"));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @Tag("benchmark") // 10 million puts, run by mvn test -Pbenchmark-tests
+    void memoryForTenMillionUsers() {
+        // same sizing with rebuild (1.5 times of current users), all 10 million emails are put, and 100 thousand unknown emails are checked.
+        int users = 10_000_000;
+        BloomFilter filter = BloomFilter.create(users * 3L / 2, 0.01);
+        for (int i = 0; i < users; i++) {
+            filter.put("user-" + i + "@seed.local");
+        }
+        int falsePositives = 0;
+        int unknown = 100_000;
+        for (int i = 0; i < unknown; i++) {
+            if (filter.mightContain("unknown-" + i + "@seed.local")) {
+                falsePositives++;
+            }
+        }
+
+        log.info("email filter for {} users: {} MB, {} hashes, false positives: {} %", users, filter.sizeInBytes() / (1024 * 1024),
+                filter.hashCount(), falsePositives * 100.0 / unknown);
+        assertTrue(filter.sizeInBytes() < 20L * 1024 * 1024, "filter should be smaller than 20 MB");
+        assertTrue(falsePositives < unknown / 100, "false positive rate should be below 1% with 1.5 times space");
+    }
+}
@@ -0,0 +1,52 @@
+package pers.yewin.springsecurityjwt.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+// own in memory database, so that synthetic users don't appear in other tests.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seedtestdb;MODE=MySQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1",
+        "seed.users=230",
+        "seed.chunk-size=50",
+        "seed.parallelism=3",
+        "seed.async=false"})
+@ActiveProfiles({"test", "seed"})
+class LargeDatasetSeederTest {
+
+    @Autowired
+    private LargeDatasetSeeder largeDatasetSeeder;
+    @Autowired
+    private UsersRepository usersRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void seedIsCompleteAfterStartAndCanRunAgain() {
+        // seeder already ran when application was ready
+        assertEquals(230, usersRepository.countByEmailEndingWith("@seed.local"));
+
+        // run again (like restart), nothing is inserted twice
+        largeDatasetSeeder.seed();
+        assertEquals(230, usersRepository.countByEmailEndingWith("@seed.local"));
+
+        // synthetic users can login with seed.password
+        Users user = usersRepository.findByEmail(LargeDatasetSeeder.email(230, "@seed.local"));
+        assertTrue(passwordEncoder.matches("password", user.getPassword()));
+        assertEquals(LargeDatasetSeeder.name(230), user.getName());
+    }
+}
@@ -0,0 +1,103 @@
+package pers.yewin.springsecurityjwt.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+import pers.yewin.springsecurityjwt.security.RefreshTokenStore;
+import pers.yewin.springsecurityjwt.security.RoleRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+class UserDetailsCacheTest {
+
+    private static final String EMAIL = "ye@gmail.com";
+
+    private final UsersRepository usersRepository = mock(UsersRepository.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final UserDetailsCache userDetailsCache = new UserDetailsCache(100, 300);
+    private final KnownEmailFilter knownEmailFilter = new KnownEmailFilter(mock(JdbcTemplate.class), false, 1000, 0.01, 100); // disabled, every email might exist
+    private final UserServiceImpl userService = new UserServiceImpl(usersRepository, roleRepository, mock(PasswordEncoder.class), userDetailsCache,
+            knownEmailFilter, mock(RoleRegistry.class), mock(RefreshTokenStore.class), new AuthMetrics(new SimpleMeterRegistry()),
+            mock(JdbcTemplate.class), mock(TransactionTemplate.class));
+
+    private static Users user(String... roles) {
+        return new Users(1L, "Ye Win", EMAIL, "{bcrypt}hash",
+                Arrays.stream(roles).map(role -> new Role(null, role)).collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    @Test
+    void repeatLoginIsServedFromCache() {
+        when(usersRepository.findByEmail(EMAIL)).thenReturn(user("ADMIN"));
+
+        userService.loadUserByUsername(EMAIL);
+        UserDetails userDetails = userService.loadUserByUsername(EMAIL);
+
+        assertEquals(EMAIL, userDetails.getUsername());
+        assertEquals("{bcrypt}hash", userDetails.getPassword());
+        verify(usersRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void saveUserRemovesCachedUser() {
+        // user was cached, then it was removed from database (eg. by other tool) and created again by saveUser.
+        when(usersRepository.findByEmail(EMAIL)).thenReturn(user("ADMIN"), user("NORMAL_USER"));
+        when(usersRepository.saveAndFlush(any(Users.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userService.loadUserByUsername(EMAIL);
+
+        userService.saveUser(user());
+
+        assertEquals(Arrays.asList("NORMAL_USER"), authorities(userService.loadUserByUsername(EMAIL)));
+        verify(usersRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void addRoleToUserRemovesCachedUser() {
+        when(usersRepository.findByEmail(EMAIL)).thenReturn(user("NORMAL_USER"), user("NORMAL_USER", "ADMIN"));
+        when(usersRepository.insertUserRole(EMAIL, "ADMIN")).thenReturn(1);
+        assertEquals(Arrays.asList("NORMAL_USER"), authorities(userService.loadUserByUsername(EMAIL)));
+
+        assertEquals(200, userService.addRoleToUser(EMAIL, "ADMIN").getStatusCodeValue());
+
+        // next login see new role, not cached roles
+        assertEquals(Arrays.asList("NORMAL_USER", "ADMIN"), authorities(userService.loadUserByUsername(EMAIL)));
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        when(usersRepository.findByEmail(EMAIL)).thenReturn(null);
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(EMAIL));
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(EMAIL));
+
+        verify(usersRepository, times(2)).findByEmail(EMAIL);
+        assertEquals(0, userDetailsCache.size());
+    }
+
+    private static List<String> authorities(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+    }
+}
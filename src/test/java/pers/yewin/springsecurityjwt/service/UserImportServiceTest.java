@@ -0,0 +1,101 @@
+package pers.yewin.springsecurityjwt.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import pers.yewin.springsecurityjwt.model.dto.ImportReport;
+import pers.yewin.springsecurityjwt.model.dto.ImportRowResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@SpringBootTest
+@ActiveProfiles("test") // use H2 in memory database from application-test.properties
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void importNdjsonReportsEveryLine() throws Exception {
+        String ndjson = "{\"name\":\"Import One\",\"email\":\"import-one@gmail.com\",\"password\":\"password\",\"roles\":[\"NORMAL_USER\"]}\n" +
+                "{\"name\":\"Import Two\",\"email\":\"import-two@gmail.com\",\"password\":\"password\"}\n" +
+                "{\"name\":\"Import One Again\",\"email\":\"import-one@gmail.com\",\"password\":\"password\"}\n" +
+                "{\"name\":\"Super Admin\",\"email\":\"superadmin@gmail.com\",\"password\":\"password\"}\n" +
+                "{\"name\":\"Wrong Role\",\"email\":\"import-role@gmail.com\",\"password\":\"password\",\"roles\":[\"NO_SUCH_ROLE\"]}\n" +
+                "not json\n";
+
+        ImportReport report = userImportService.importUsers(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), false);
+
+        assertEquals(6, report.getTotal());
+        assertEquals(2, report.getCreated());
+        assertEquals(4, report.getFailed());
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 3)); // duplicate inside file
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 4)); // already in database
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 5)); // unknown role
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 6)); // wrong line format
+
+        assertNotNull(userService.getUserView("import-two@gmail.com"));
+        assertEquals(1, userService.getUserView("import-one@gmail.com").getRoles().size());
+    }
+
+    @Test
+    void importCsvKeepsPreHashedPassword() throws Exception {
+        String hash = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+        String csv = "name,email,password,roles\n" +
+                "Csv One,import-csv-one@gmail.com," + hash + ",NORMAL_USER|MANAGER\n" +
+                "Csv Two,import-csv-two@gmail.com,password\n";
+
+        ImportReport report = userImportService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(2, report.getCreated());
+        assertEquals(hash, userService.getByEmail("import-csv-one@gmail.com").getPassword());
+        assertEquals(2, userService.getUserView("import-csv-one@gmail.com").getRoles().size());
+    }
+
+    @Test
+    void importCsvReadsQuotedValueAndRejectsWrongLine() throws Exception {
+        String csv = "name,email,password,roles\n" +
+                "\"Win, Ye \"\"Admin\"\"\",import-csv-quoted@gmail.com,password,NORMAL_USER\n" +
+                "Win, Ye,import-csv-comma@gmail.com,password,NORMAL_USER\n" +
+                "\"Win, Ye,import-csv-unclosed@gmail.com,password\n";
+
+        ImportReport report = userImportService.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), true);
+
+        assertEquals(3, report.getTotal());
+        assertEquals(1, report.getCreated());
+        assertEquals("Win, Ye \"Admin\"", userService.getUserView("import-csv-quoted@gmail.com").getName());
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 3)); // not quoted comma, too many columns
+        assertEquals(ImportRowResult.FAILED, statusOf(report, 4)); // quote is not closed
+    }
+
+    @Test
+    void splitCsvLine() {
+        assertEquals(Arrays.asList("a", "b, c", ""), UserImportService.splitCsvLine("a,\"b, c\","));
+        assertEquals(Arrays.asList("say \"hi\"", "x"), UserImportService.splitCsvLine("\"say \"\"hi\"\"\" ,x"));
+        assertNull(UserImportService.splitCsvLine("\"not closed,x"));
+        assertNull(UserImportService.splitCsvLine("\"closed\"text,x"));
+        assertNull(UserImportService.splitCsvLine("mid\"dle,x"));
+    }
+
+    private static String statusOf(ImportReport report, int line) {
+        return report.getRows().stream().filter(row -> row.getLine() == line).findFirst()
+                .map(ImportRowResult::getStatus).orElse(null);
+    }
+}
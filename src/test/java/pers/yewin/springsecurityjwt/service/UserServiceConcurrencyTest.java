@@ -0,0 +1,125 @@
+package pers.yewin.springsecurityjwt.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignment;
+import pers.yewin.springsecurityjwt.model.dto.RoleAssignmentResult;
+import pers.yewin.springsecurityjwt.model.entity.Role;
+import pers.yewin.springsecurityjwt.model.entity.Users;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+@SpringBootTest
+@ActiveProfiles("test") // use H2 in memory database from application-test.properties
+class UserServiceConcurrencyTest {
+
+    /**
+     * many requests create same user, role and same role to user at the same time,
+     * unique indexes must let only one request success and all others must get 400 (not 500 and not duplicate rows).
+     */
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void concurrentCreateSameUser() throws Exception {
+        List<ResponseEntity> responses = runConcurrently(() ->
+                userService.saveUser(new Users(null, "Concurrent", "concurrent-user@gmail.com", "password", new ArrayList<>())));
+
+        assertEquals(1, count(responses, HttpStatus.CREATED));
+        assertEquals(THREADS - 1, count(responses, HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void concurrentCreateSameRole() throws Exception {
+        List<ResponseEntity> responses = runConcurrently(() -> userService.saveRole(new Role(null, "CONCURRENT_ROLE")));
+
+        assertEquals(1, count(responses, HttpStatus.CREATED));
+        assertEquals(THREADS - 1, count(responses, HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void concurrentAddSameRoleToUser() throws Exception {
+        userService.saveUser(new Users(null, "Concurrent Role", "concurrent-role@gmail.com", "password", new ArrayList<>()));
+
+        List<ResponseEntity> responses = runConcurrently(() -> userService.addRoleToUser("concurrent-role@gmail.com", "MANAGER"));
+
+        assertEquals(1, count(responses, HttpStatus.OK));
+        assertEquals(THREADS - 1, count(responses, HttpStatus.BAD_REQUEST));
+        assertEquals(1, userService.getUserView("concurrent-role@gmail.com").getRoles().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentAddSameRolesToUsers() throws Exception {
+        userService.saveUser(new Users(null, "Batch One", "batch-one@gmail.com", "password", new ArrayList<>()));
+        userService.saveUser(new Users(null, "Batch Two", "batch-two@gmail.com", "password", new ArrayList<>()));
+        List<RoleAssignment> assignments = Arrays.asList(
+                new RoleAssignment("batch-one@gmail.com", "MANAGER"),
+                new RoleAssignment("batch-one@gmail.com", "NORMAL_USER"),
+                new RoleAssignment("batch-two@gmail.com", "MANAGER"),
+                new RoleAssignment("batch-two@gmail.com", "NO_SUCH_ROLE"),
+                new RoleAssignment("no-such-user@gmail.com", "MANAGER"));
+
+        List<ResponseEntity> responses = runConcurrently(() -> userService.addRolesToUsers(assignments));
+
+        // every valid pair must be added by exactly one request
+        long added = responses.stream()
+                .flatMap(response -> ((List<RoleAssignmentResult>) response.getBody()).stream())
+                .filter(result -> RoleAssignmentResult.ADDED.equals(result.getStatus()))
+                .count();
+        assertEquals(3, added);
+        assertEquals(2, userService.getUserView("batch-one@gmail.com").getRoles().size());
+        assertEquals(1, userService.getUserView("batch-two@gmail.com").getRoles().size());
+    }
+
+    private static List<ResponseEntity> runConcurrently(Callable<ResponseEntity> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<ResponseEntity>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await(); // all threads start at the same time
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            List<ResponseEntity> responses = new ArrayList<>();
+            for (Future<ResponseEntity> future : futures) {
+                responses.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return responses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long count(List<ResponseEntity> responses, HttpStatus status) {
+        return responses.stream().filter(response -> response.getStatusCode() == status).count();
+    }
+}
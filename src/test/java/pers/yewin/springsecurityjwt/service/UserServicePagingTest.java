@@ -0,0 +1,128 @@
+package pers.yewin.springsecurityjwt.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import pers.yewin.springsecurityjwt.metrics.AuthMetrics;
+import pers.yewin.springsecurityjwt.model.dto.UserPage;
+import pers.yewin.springsecurityjwt.model.dto.UserRoleRow;
+import pers.yewin.springsecurityjwt.model.dto.UserView;
+import pers.yewin.springsecurityjwt.repository.RoleRepository;
+import pers.yewin.springsecurityjwt.repository.UsersRepository;
+import pers.yewin.springsecurityjwt.security.RefreshTokenStore;
+import pers.yewin.springsecurityjwt.security.RoleRegistry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.service
+ */
+
+class UserServicePagingTest {
+
+    private final UsersRepository usersRepository = mock(UsersRepository.class);
+    private final KnownEmailFilter knownEmailFilter = new KnownEmailFilter(mock(JdbcTemplate.class), false, 1000, 0.01, 100); // disabled, every email might exist
+    private final UserServiceImpl userService = new UserServiceImpl(usersRepository, mock(RoleRepository.class), mock(PasswordEncoder.class),
+            new UserDetailsCache(100, 300), knownEmailFilter, mock(RoleRegistry.class), mock(RefreshTokenStore.class), new AuthMetrics(new SimpleMeterRegistry()),
+            mock(JdbcTemplate.class), mock(TransactionTemplate.class));
+
+    // users table with given ids (one role for each user), repository return user rows after id in id order (same as database).
+    private void usersTable(long... ids) {
+        List<UserRoleRow> table = LongStream.of(ids).sorted().mapToObj(UserServicePagingTest::row).collect(Collectors.toList());
+        when(usersRepository.findUserRowsAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long lastId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return table.stream().filter(row -> row.getId() > lastId).limit(limit).collect(Collectors.toList());
+        });
+    }
+
+    private static UserRoleRow row(long id) {
+        return new UserRoleRow() {
+            public Long getId() { return id; }
+            public String getName() { return "User " + id; }
+            public String getEmail() { return "user-" + id + "@gmail.com"; }
+            public Long getVersion() { return 0L; }
+            public String getRoleName() { return "NORMAL_USER"; }
+        };
+    }
+
+    @Test
+    void pagesFollowCursorUntilLastPage() {
+        usersTable(3, 7, 8, 15, 20);
+
+        UserPage first = page(null, 2);
+        assertEquals(Arrays.asList(3L, 7L), ids(first));
+        assertNotNull(first.getNextCursor());
+
+        UserPage second = page(first.getNextCursor(), 2);
+        assertEquals(Arrays.asList(8L, 15L), ids(second));
+        assertNotNull(second.getNextCursor());
+
+        // last page has less users than page size and no next cursor
+        UserPage last = page(second.getNextCursor(), 2);
+        assertEquals(Arrays.asList(20L), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void lastPageWhichIsExactlyFullHasNoNextCursor() {
+        usersTable(1, 2, 3, 4);
+
+        UserPage first = page(null, 2);
+        UserPage last = page(first.getNextCursor(), 2);
+
+        assertEquals(Arrays.asList(3L, 4L), ids(last));
+        assertNull(last.getNextCursor()); // no empty page after last user
+    }
+
+    @Test
+    void emptyCursorIsFirstPage() {
+        usersTable(5, 6);
+
+        assertEquals(Arrays.asList(5L, 6L), ids(page("", 20)));
+        assertEquals(Arrays.asList(5L, 6L), ids(page(null, 20)));
+        verify(usersRepository, times(2)).findUserRowsAfter(eq(0L), eq(21));
+    }
+
+    @Test
+    void emptyTableHasEmptyPage() {
+        usersTable();
+
+        UserPage page = page(null, 20);
+        assertTrue(page.getUsers().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void pageSizeIsLimitedAndWrongCursorIsBadRequest() {
+        usersTable(LongStream.rangeClosed(1, 150).toArray());
+
+        assertEquals(100, page(null, 1000).getUsers().size());
+        assertEquals(1, page(null, 0).getUsers().size());
+        assertEquals(400, userService.getAllUsers("not a cursor", 20).getStatusCodeValue());
+    }
+
+    private UserPage page(String cursor, int size) {
+        ResponseEntity response = userService.getAllUsers(cursor, size);
+        assertEquals(200, response.getStatusCodeValue());
+        return (UserPage) response.getBody();
+    }
+
+    private static List<Long> ids(UserPage page) {
+        return page.getUsers().stream().map(UserView::getId).collect(Collectors.toList());
+    }
+}
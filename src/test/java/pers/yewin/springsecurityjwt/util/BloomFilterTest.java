@@ -0,0 +1,38 @@
+package pers.yewin.springsecurityjwt.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author: Ye Win
+ * @created: 17/10/2026
+ * @project: spring-security-jpa-jwt
+ * @package: pers.yewin.springsecurityjwt.util
+ */
+
+class BloomFilterTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void addedKeysAreAlwaysFoundAndFalsePositivesStayNearTarget() {
+        BloomFilter bloomFilter = BloomFilter.create(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            bloomFilter.put("jti:added-" + i);
+        }
+
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(bloomFilter.mightContain("jti:added-" + i)); // no false negative
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (bloomFilter.mightContain("jti:unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < KEYS * 0.02, "false positives: " + falsePositives);
+        assertTrue(bloomFilter.sizeInBytes() < 150 * 1024, "size: " + bloomFilter.sizeInBytes()); // about 9.6 bits per key
+    }
+}